@@ -0,0 +1,81 @@
+package com.servantin.api.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders per second of each email template through {@link EmailTemplateRegistry}, with Thymeleaf's
+ * parsed-template cache on (production) and off (re-parsing every render).
+ *
+ * Run with {@code ./gradlew jmh}; the gc profiler adds allocation per render ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateRenderBenchmark {
+
+    // Superset of the variables EmailService passes to the templates
+    private static final Map<String, Object> VARIABLES = Map.ofEntries(
+            Map.entry("name", "Camille Rochat"),
+            Map.entry("clientName", "Camille Rochat"),
+            Map.entry("providerName", "Luca Bernasconi"),
+            Map.entry("recipientName", "Camille Rochat"),
+            Map.entry("senderName", "Luca Bernasconi"),
+            Map.entry("categoryName", "Nettoyage"),
+            Map.entry("description", "Nettoyage de fin de bail pour un appartement de 3.5 pièces à Lausanne."),
+            Map.entry("bookingId", "5b0c7a4e-8f1d-4c55-9a0e-2f6a1d3b9c17"),
+            Map.entry("bookingLink", "https://servantin.ch/dashboard/bookings/5b0c7a4e-8f1d-4c55-9a0e-2f6a1d3b9c17"),
+            Map.entry("dashboardLink", "https://servantin.ch/provider/dashboard"),
+            Map.entry("profileLink", "https://servantin.ch/provider/profile"),
+            Map.entry("searchLink", "https://servantin.ch/book"),
+            Map.entry("supportLink", "https://servantin.ch/support"),
+            Map.entry("verificationLink", "https://servantin.ch/auth/verify-email?token=abc123"),
+            Map.entry("resetLink", "https://servantin.ch/auth/reset-password?token=abc123"),
+            Map.entry("messagePreview", "Bonjour, je peux passer jeudi matin vers 9h, est-ce que cela vous convient ?"),
+            Map.entry("messageCount", 4),
+            Map.entry("rating", 4),
+            Map.entry("ratingStars", "★★★★☆"),
+            Map.entry("reason", "Please review your documents and try again."),
+            Map.entry("isProvider", true),
+            Map.entry("subject", "Servantin"));
+
+    @Param({"announcement", "booking-accepted", "booking-canceled", "booking-completed", "booking-declined",
+            "booking-requested-client", "booking-requested-provider", "new-message",
+            "new-messages-digest", "password-reset", "provider-rejected", "provider-verified",
+            "rating-received", "verification", "welcome"})
+    public String template;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private EmailTemplateRegistry registry;
+
+    @Setup
+    public void setUp() {
+        // Same resolution as Spring Boot's Thymeleaf auto-configuration
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cached);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        registry = new EmailTemplateRegistry(templateEngine, "https://servantin.ch");
+        registry.preload();
+    }
+
+    @Benchmark
+    public String render() {
+        return registry.render(template, VARIABLES);
+    }
+}
@@ -17,6 +17,7 @@ import software.amazon.awssdk.services.ses.SesClient;
  * 
  * When AWS credentials are not configured, a null client is created
  * and EmailService will log emails instead of sending them.
+ * With aws.ses.local=true, an in-memory {@link LocalSesClient} is used instead.
  */
 @Slf4j
 @Configuration
@@ -31,6 +32,9 @@ public class AwsConfig {
     @Value("${aws.ses.secret-access-key:}")
     private String secretAccessKey;
 
+    @Value("${aws.ses.local:false}")
+    private boolean local;
+
     /**
      * Creates and configures the AWS SES client bean.
      * The client is used by EmailService to send transactional emails.
@@ -43,6 +47,11 @@ public class AwsConfig {
     @Bean
     @Primary
     public SesClient sesClient() {
+        if (local) {
+            log.info("Using the in-memory local SES client - emails are kept in memory, not sent");
+            return new LocalSesClient();
+        }
+
         // Check if credentials are properly configured
         if (!isCredentialsConfigured()) {
             log.warn("AWS SES credentials not configured - email sending will be disabled");
@@ -180,6 +180,7 @@ public class DataSeeder implements CommandLineRunner {
                         .timeSlot(slot)
                         .build();
                 profile.getAvailabilities().add(pa);
+                profile.setAvailabilityMask(AvailabilityMask.with(profile.getAvailabilityMask(), day, slot));
             }
         }
 
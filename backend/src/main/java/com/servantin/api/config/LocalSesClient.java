@@ -0,0 +1,205 @@
+package com.servantin.api.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.ses.model.AlreadyExistsException;
+import software.amazon.awssdk.services.ses.model.BulkEmailDestination;
+import software.amazon.awssdk.services.ses.model.BulkEmailDestinationStatus;
+import software.amazon.awssdk.services.ses.model.BulkEmailStatus;
+import software.amazon.awssdk.services.ses.model.CreateTemplateRequest;
+import software.amazon.awssdk.services.ses.model.CreateTemplateResponse;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailRequest;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailResponse;
+import software.amazon.awssdk.services.ses.model.SendEmailRequest;
+import software.amazon.awssdk.services.ses.model.SendEmailResponse;
+import software.amazon.awssdk.services.ses.model.SesException;
+import software.amazon.awssdk.services.ses.model.Template;
+import software.amazon.awssdk.services.ses.model.TemplateDoesNotExistException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory stand-in for SES, enabled with {@code aws.ses.local=true}.
+ *
+ * Accepts every email and keeps it for inspection, so the outbox and its sender can be exercised
+ * offline. {@link #throttleNext(int)} makes the next sends fail like SES throttling does.
+ *
+ * Bulk templated sends are personalised here the way SES does it, by filling the template's
+ * {{placeholders}} from the default and per-destination data, and kept as {@link BulkDelivery}s.
+ * {@link #rejectRecipient(String)} makes a destination come back rejected.
+ */
+@Slf4j
+public class LocalSesClient implements SesClient {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*(\\w+)\\s*}}");
+    private static final TypeReference<Map<String, String>> TEMPLATE_DATA = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<SendEmailRequest> sent = new CopyOnWriteArrayList<>();
+    private final List<SendBulkTemplatedEmailRequest> bulkRequests = new CopyOnWriteArrayList<>();
+    private final List<BulkDelivery> bulkDeliveries = new CopyOnWriteArrayList<>();
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+    private final Set<String> rejectedRecipients = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger throttled = new AtomicInteger();
+
+    /**
+     * One email of a bulk send, as the recipient would get it.
+     */
+    public record BulkDelivery(String to, String subject, String html, String messageId) {
+    }
+
+    @Override
+    public SendEmailResponse sendEmail(SendEmailRequest request) {
+        throttleIfRequested();
+        sent.add(request);
+        String messageId = "local-" + UUID.randomUUID();
+        log.debug("Local SES accepted email to {}: {}", request.destination().toAddresses(), messageId);
+        return SendEmailResponse.builder().messageId(messageId).build();
+    }
+
+    @Override
+    public CreateTemplateResponse createTemplate(CreateTemplateRequest request) {
+        Template template = request.template();
+        if (templates.putIfAbsent(template.templateName(), template) != null) {
+            throw AlreadyExistsException.builder()
+                    .statusCode(400)
+                    .message("Template " + template.templateName() + " already exists.")
+                    .build();
+        }
+        return CreateTemplateResponse.builder().build();
+    }
+
+    @Override
+    public SendBulkTemplatedEmailResponse sendBulkTemplatedEmail(SendBulkTemplatedEmailRequest request) {
+        throttleIfRequested();
+        Template template = templates.get(request.template());
+        if (template == null) {
+            throw TemplateDoesNotExistException.builder()
+                    .statusCode(400)
+                    .message("Template " + request.template() + " does not exist.")
+                    .build();
+        }
+        bulkRequests.add(request);
+        Map<String, String> defaults = parseTemplateData(request.defaultTemplateData());
+        List<BulkEmailDestinationStatus> statuses = new ArrayList<>();
+        for (BulkEmailDestination destination : request.destinations()) {
+            String to = destination.destination().toAddresses().get(0);
+            if (rejectedRecipients.contains(to)) {
+                statuses.add(BulkEmailDestinationStatus.builder()
+                        .status(BulkEmailStatus.MESSAGE_REJECTED)
+                        .error("Address blacklisted.")
+                        .build());
+                continue;
+            }
+            Map<String, String> data = new HashMap<>(defaults);
+            data.putAll(parseTemplateData(destination.replacementTemplateData()));
+            String messageId = "local-" + UUID.randomUUID();
+            bulkDeliveries.add(new BulkDelivery(to, fill(template.subjectPart(), data),
+                    fill(template.htmlPart(), data), messageId));
+            statuses.add(BulkEmailDestinationStatus.builder()
+                    .status(BulkEmailStatus.SUCCESS)
+                    .messageId(messageId)
+                    .build());
+        }
+        log.debug("Local SES accepted bulk '{}' email to {} destinations", request.template(), statuses.size());
+        return SendBulkTemplatedEmailResponse.builder().status(statuses).build();
+    }
+
+    /**
+     * Reject bulk sends to {@code address}, as SES does for suppressed addresses.
+     */
+    public void rejectRecipient(String address) {
+        rejectedRecipients.add(address);
+    }
+
+    /**
+     * Fail the next {@code count} sends with a throttling error.
+     */
+    public void throttleNext(int count) {
+        throttled.set(count);
+    }
+
+    public List<SendEmailRequest> getSent() {
+        return List.copyOf(sent);
+    }
+
+    public List<SendBulkTemplatedEmailRequest> getBulkRequests() {
+        return List.copyOf(bulkRequests);
+    }
+
+    public List<BulkDelivery> getBulkDeliveries() {
+        return List.copyOf(bulkDeliveries);
+    }
+
+    public Map<String, Template> getTemplates() {
+        return Map.copyOf(templates);
+    }
+
+    public void reset() {
+        sent.clear();
+        bulkRequests.clear();
+        bulkDeliveries.clear();
+        templates.clear();
+        rejectedRecipients.clear();
+        throttled.set(0);
+    }
+
+    private void throttleIfRequested() {
+        if (throttled.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+            throw (SesException) SesException.builder()
+                    .statusCode(400)
+                    .message("Maximum sending rate exceeded.")
+                    .awsErrorDetails(AwsErrorDetails.builder()
+                            .errorCode("Throttling")
+                            .errorMessage("Maximum sending rate exceeded.")
+                            .build())
+                    .build();
+        }
+    }
+
+    private Map<String, String> parseTemplateData(String json) {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(json, TEMPLATE_DATA);
+        } catch (Exception e) {
+            throw SesException.builder().statusCode(400).message("Invalid template data: " + e.getMessage()).build();
+        }
+    }
+
+    private static String fill(String text, Map<String, String> data) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(text);
+        StringBuilder filled = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(filled, Matcher.quoteReplacement(data.getOrDefault(matcher.group(1), "")));
+        }
+        return matcher.appendTail(filled).toString();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
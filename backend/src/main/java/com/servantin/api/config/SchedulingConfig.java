@@ -0,0 +1,12 @@
+package com.servantin.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} background jobs (read model refreshes, cleanup tasks).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
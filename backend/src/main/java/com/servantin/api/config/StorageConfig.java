@@ -0,0 +1,75 @@
+package com.servantin.api.config;
+
+import com.google.cloud.storage.StorageOptions;
+import com.servantin.api.storage.GcsStorageBackend;
+import com.servantin.api.storage.LocalStorageBackend;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Clock;
+
+/**
+ * File storage configuration.
+ * Provides the {@link com.servantin.api.storage.StorageBackend} for file uploads (provider photos, documents),
+ * selected with storage.backend:
+ * - gcs (default): Google Cloud Storage
+ * - local: files in a local directory, served by the application with HMAC-signed URLs
+ */
+@Slf4j
+@Configuration
+public class StorageConfig {
+
+    /**
+     * Creates the GCS backend and its Storage client.
+     *
+     * Authentication is handled via Application Default Credentials (ADC):
+     * - Locally: Uses gcloud CLI credentials or GOOGLE_APPLICATION_CREDENTIALS env var
+     * - Cloud Run: Automatically uses service account attached to the Cloud Run service
+     *
+     * @return GCS backend for the configured bucket
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "gcs", matchIfMissing = true)
+    public GcsStorageBackend gcsStorageBackend(
+            @Value("${gcp.storage.project-id}") String projectId,
+            @Value("${gcp.storage.bucket-name}") String bucketName,
+            @Value("${upload.stream-chunk-size:1048576}") int streamChunkSize) {
+        log.info("Initializing GCP Storage client for project: {}", projectId);
+
+        return new GcsStorageBackend(StorageOptions.newBuilder()
+                .setProjectId(projectId)
+                .build()
+                .getService(), bucketName, streamChunkSize);
+    }
+
+    /**
+     * Creates the local filesystem backend.
+     * Without a signing key a random one is used, so signed URLs stop working on restart.
+     *
+     * @return local backend rooted at storage.local.root
+     */
+    @Bean
+    @ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+    public LocalStorageBackend localStorageBackend(
+            @Value("${storage.local.root}") String root,
+            @Value("${app.url.backend:http://localhost:8080}") String backendUrl,
+            @Value("${storage.local.signing-key:}") String signingKey) throws IOException {
+        byte[] key;
+        if (signingKey.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = signingKey.getBytes(StandardCharsets.UTF_8);
+        }
+
+        log.info("Using local file storage in {} - files are served by this application", root);
+        return new LocalStorageBackend(Path.of(root), backendUrl, key, Clock.systemUTC());
+    }
+}
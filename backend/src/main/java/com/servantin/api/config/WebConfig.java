@@ -1,8 +1,10 @@
 package com.servantin.api.config;
 
 import com.servantin.api.security.EmailVerificationInterceptor;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -14,9 +16,17 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
 
     private final EmailVerificationInterceptor emailVerificationInterceptor;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // Replaces spring.jpa.open-in-view (disabled) so long-lived event streams don't keep
+        // an EntityManager, and with it a pooled connection, open for their whole lifetime
+        OpenEntityManagerInViewInterceptor openEntityManagerInView = new OpenEntityManagerInViewInterceptor();
+        openEntityManagerInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openEntityManagerInView)
+                .excludePathPatterns("/api/bookings/*/stream");
+
         registry.addInterceptor(emailVerificationInterceptor)
                 .addPathPatterns("/api/**")
                 .excludePathPatterns(
@@ -25,7 +35,8 @@ public class WebConfig implements WebMvcConfigurer {
                         "/api/providers/match",    // Public provider search
                         "/api/providers/{id}",     // Public provider details
                         "/api/health",             // Health check
-                        "/api/legal/**"            // Legal pages
+                        "/api/legal/**",           // Legal pages
+                        "/api/storage/local/**"    // Signed file URLs
                 );
     }
 }
@@ -6,8 +6,11 @@ import com.servantin.api.domain.model.VerificationStatus;
 import com.servantin.api.dto.admin.ProviderDocumentDto;
 import com.servantin.api.dto.booking.BookingDto;
 import com.servantin.api.dto.common.PageResponse;
+import com.servantin.api.dto.notification.AnnouncementRequest;
+import com.servantin.api.dto.notification.BulkSendJobDto;
 import com.servantin.api.dto.provider.ProviderProfileDto;
 import com.servantin.api.dto.report.ReportDto;
+import com.servantin.api.service.AnnouncementSender;
 import com.servantin.api.service.BookingService;
 import com.servantin.api.service.DocumentVerificationService;
 import com.servantin.api.service.ProviderService;
@@ -19,6 +22,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -43,6 +47,7 @@ public class AdminController {
     private final BookingService bookingService;
     private final ReportService reportService;
     private final DocumentVerificationService documentVerificationService;
+    private final AnnouncementSender announcementSender;
 
     // ==================== Provider Management ====================
 
@@ -214,6 +219,29 @@ public class AdminController {
         return ResponseEntity.ok(documentVerificationService.getStatistics());
     }
 
+    // ==================== Notifications ====================
+
+    @PostMapping("/notifications/announcement")
+    @Operation(summary = "Send announcement", description = "Queue an announcement email to all users, or to all users with a role. Poll the returned job for progress and the per-recipient report.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Announcement queued", content = @Content(schema = @Schema(implementation = BulkSendJobDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid announcement"),
+            @ApiResponse(responseCode = "409", description = "Too many announcements waiting to be sent")
+    })
+    public ResponseEntity<BulkSendJobDto> sendAnnouncement(@Valid @RequestBody AnnouncementRequest request) {
+        return ResponseEntity.accepted().body(announcementSender.start(request));
+    }
+
+    @GetMapping("/notifications/announcement/{jobId}")
+    @Operation(summary = "Get announcement job", description = "Progress of a queued announcement and, once finished, the per-recipient send results")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Announcement job", content = @Content(schema = @Schema(implementation = BulkSendJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired job")
+    })
+    public ResponseEntity<BulkSendJobDto> getAnnouncementJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(announcementSender.get(jobId));
+    }
+
     // ==================== Dashboard Statistics ====================
 
     @GetMapping("/dashboard/stats")
@@ -1,14 +1,18 @@
 package com.servantin.api.controller;
 
 import com.servantin.api.dto.booking.BookingDto;
+import com.servantin.api.dto.booking.BookingFeedRequest;
 import com.servantin.api.dto.booking.CreateBookingRequest;
+import com.servantin.api.dto.common.CursorPage;
+import com.servantin.api.dto.message.ConversationSummaryDto;
+import com.servantin.api.dto.message.InboxRequest;
 import com.servantin.api.dto.message.MessageDto;
+import com.servantin.api.dto.message.MessageHistoryRequest;
 import com.servantin.api.dto.message.SendMessageRequest;
 import com.servantin.api.security.CurrentUserService;
 import com.servantin.api.service.BookingService;
 import com.servantin.api.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,10 +20,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -56,40 +61,43 @@ public class BookingController {
     }
 
     @GetMapping("/client")
-    @Operation(summary = "Get client bookings", description = "Get all bookings for the current client")
+    @Operation(summary = "Get client bookings", description = "Get the current client's bookings, newest first, one page at a time; optionally filtered by status. Pass nextCursor back as cursor to fetch the next page.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "List of bookings", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookingDto.class))))
+            @ApiResponse(responseCode = "200", description = "Page of bookings"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination cursor or page size")
     })
-    public ResponseEntity<List<BookingDto>> getClientBookings() {
+    public ResponseEntity<CursorPage<BookingDto>> getClientBookings(@Valid BookingFeedRequest request) {
         UUID userId = currentUserService.getCurrentUserId();
-        return ResponseEntity.ok(bookingService.getClientBookings(userId));
+        return ResponseEntity.ok(bookingService.getClientBookings(userId, request));
     }
 
     @GetMapping("/provider")
-    @Operation(summary = "Get provider bookings", description = "Get all bookings for the current provider")
+    @Operation(summary = "Get provider bookings", description = "Get the current provider's bookings, newest first, one page at a time; optionally filtered by status. Pass nextCursor back as cursor to fetch the next page.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "List of bookings", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookingDto.class))))
+            @ApiResponse(responseCode = "200", description = "Page of bookings"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination cursor or page size")
     })
-    public ResponseEntity<List<BookingDto>> getProviderBookings() {
+    public ResponseEntity<CursorPage<BookingDto>> getProviderBookings(@Valid BookingFeedRequest request) {
         UUID userId = currentUserService.getCurrentUserId();
-        return ResponseEntity.ok(bookingService.getProviderBookings(userId));
+        return ResponseEntity.ok(bookingService.getProviderBookings(userId, request));
     }
 
     @GetMapping("/provider/pending")
-    @Operation(summary = "Get pending requests", description = "Get pending booking requests for the current provider")
+    @Operation(summary = "Get pending requests", description = "Get pending booking requests for the current provider, newest first, one page at a time")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "List of pending bookings", content = @Content(array = @ArraySchema(schema = @Schema(implementation = BookingDto.class))))
+            @ApiResponse(responseCode = "200", description = "Page of pending bookings"),
+            @ApiResponse(responseCode = "400", description = "Invalid pagination cursor or page size")
     })
-    public ResponseEntity<List<BookingDto>> getProviderPendingRequests() {
+    public ResponseEntity<CursorPage<BookingDto>> getProviderPendingRequests(@Valid BookingFeedRequest request) {
         UUID userId = currentUserService.getCurrentUserId();
-        return ResponseEntity.ok(bookingService.getProviderPendingRequests(userId));
+        return ResponseEntity.ok(bookingService.getProviderPendingRequests(userId, request));
     }
 
     @PostMapping("/{id}/accept")
     @Operation(summary = "Accept booking", description = "Provider accepts a booking request")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Booking accepted", content = @Content(schema = @Schema(implementation = BookingDto.class))),
-            @ApiResponse(responseCode = "400", description = "Cannot accept booking in current status"),
+            @ApiResponse(responseCode = "409", description = "Booking is no longer in REQUESTED status"),
             @ApiResponse(responseCode = "403", description = "Only selected provider can accept")
     })
     public ResponseEntity<BookingDto> acceptBooking(@PathVariable UUID id) {
@@ -100,7 +108,8 @@ public class BookingController {
     @PostMapping("/{id}/decline")
     @Operation(summary = "Decline booking", description = "Provider declines a booking request")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Booking declined", content = @Content(schema = @Schema(implementation = BookingDto.class)))
+            @ApiResponse(responseCode = "200", description = "Booking declined", content = @Content(schema = @Schema(implementation = BookingDto.class))),
+            @ApiResponse(responseCode = "409", description = "Booking is no longer in REQUESTED status")
     })
     public ResponseEntity<BookingDto> declineBooking(
             @PathVariable UUID id,
@@ -112,7 +121,8 @@ public class BookingController {
     @PostMapping("/{id}/complete")
     @Operation(summary = "Complete booking", description = "Provider marks booking as completed")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Booking completed", content = @Content(schema = @Schema(implementation = BookingDto.class)))
+            @ApiResponse(responseCode = "200", description = "Booking completed", content = @Content(schema = @Schema(implementation = BookingDto.class))),
+            @ApiResponse(responseCode = "409", description = "Booking is no longer in ACCEPTED or IN_PROGRESS status")
     })
     public ResponseEntity<BookingDto> completeBooking(@PathVariable UUID id) {
         UUID userId = currentUserService.getCurrentUserId();
@@ -122,7 +132,8 @@ public class BookingController {
     @PostMapping("/{id}/cancel")
     @Operation(summary = "Cancel booking", description = "Client or provider cancels the booking")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Booking canceled", content = @Content(schema = @Schema(implementation = BookingDto.class)))
+            @ApiResponse(responseCode = "200", description = "Booking canceled", content = @Content(schema = @Schema(implementation = BookingDto.class))),
+            @ApiResponse(responseCode = "409", description = "Booking is already completed or canceled")
     })
     public ResponseEntity<BookingDto> cancelBooking(@PathVariable UUID id) {
         UUID userId = currentUserService.getCurrentUserId();
@@ -131,16 +142,40 @@ public class BookingController {
 
     // --- Messages ---
 
+    @GetMapping("/inbox")
+    @Operation(summary = "Get inbox", description = "Get one page of the current user's booking conversations, most recently active first, with the latest message, the other participant and the unread count. Pass nextCursor back as cursor for the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of conversations"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size")
+    })
+    public ResponseEntity<CursorPage<ConversationSummaryDto>> getInbox(@Valid InboxRequest request) {
+        UUID userId = currentUserService.getCurrentUserId();
+        return ResponseEntity.ok(messageService.getInbox(userId, request));
+    }
+
     @GetMapping("/{id}/messages")
-    @Operation(summary = "Get messages", description = "Get all messages for a booking")
+    @Operation(summary = "Get messages", description = "Get one page of a booking's messages, oldest first: the latest ones by default, or those before / after a cursor. Pass nextCursor back as the same parameter to continue in that direction.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "List of messages", content = @Content(array = @ArraySchema(schema = @Schema(implementation = MessageDto.class))))
+            @ApiResponse(responseCode = "200", description = "Page of messages"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit")
     })
-    public ResponseEntity<List<MessageDto>> getMessages(@PathVariable UUID id) {
+    public ResponseEntity<CursorPage<MessageDto>> getMessages(@PathVariable UUID id, @Valid MessageHistoryRequest request) {
         UUID userId = currentUserService.getCurrentUserId();
         // Mark messages as read when fetching
         messageService.markMessagesAsRead(id, userId);
-        return ResponseEntity.ok(messageService.getBookingMessages(id, userId));
+        return ResponseEntity.ok(messageService.getBookingMessages(id, userId, request));
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream conversation", description = "Server-sent events for a booking: 'message' (MessageDto), 'read' (ReadReceiptDto) and 'status' (BookingStatusUpdateDto), pushed once committed. Re-fetch the messages after reconnecting.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream"),
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "404", description = "Booking not found")
+    })
+    public SseEmitter streamConversation(@PathVariable UUID id) {
+        UUID userId = currentUserService.getCurrentUserId();
+        return messageService.subscribe(id, userId);
     }
 
     @PostMapping("/{id}/messages")
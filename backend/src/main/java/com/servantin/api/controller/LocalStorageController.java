@@ -0,0 +1,103 @@
+package com.servantin.api.controller;
+
+import com.servantin.api.exception.BadRequestException;
+import com.servantin.api.exception.ForbiddenException;
+import com.servantin.api.exception.ResourceNotFoundException;
+import com.servantin.api.storage.LocalStorageBackend;
+import com.servantin.api.storage.StorageBackend.StoredObject;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Globals;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Serves the signed URLs of {@link LocalStorageBackend}, standing in for GCS when
+ * storage.backend=local. Requests carry no credentials; the signature in the URL is the authorization.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/storage/local")
+@ConditionalOnProperty(name = "storage.backend", havingValue = "local")
+@RequiredArgsConstructor
+@Tag(name = "Local Storage", description = "Signed file URLs when files are stored locally instead of GCS")
+public class LocalStorageController {
+
+    private final LocalStorageBackend backend;
+
+    /**
+     * Download a file. On Tomcat the file is handed to the connector's sendfile, which writes it to
+     * the socket with {@code FileChannel.transferTo} after this method returns; elsewhere it is
+     * transferred to the response here.
+     */
+    @GetMapping("/{*name}")
+    public void download(
+            @PathVariable String name,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        String objectName = name.substring(1);
+        if (!backend.verify("GET", objectName, expires, "", 0, signature)) {
+            throw invalidSignature();
+        }
+        StoredObject object = backend.stat(objectName)
+                .orElseThrow(() -> new ResourceNotFoundException("File", objectName));
+
+        response.setContentType(object.contentType() != null
+                ? object.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(object.size());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private");
+
+        if (Boolean.TRUE.equals(request.getAttribute(Globals.SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(Globals.SENDFILE_FILENAME_ATTR, backend.path(objectName).toString());
+            request.setAttribute(Globals.SENDFILE_FILE_START_ATTR, 0L);
+            request.setAttribute(Globals.SENDFILE_FILE_END_ATTR, object.size());
+            return;
+        }
+        backend.transferTo(objectName, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * Upload a file, streamed from the request body to disk.
+     */
+    @PutMapping("/{*name}")
+    public ResponseEntity<Void> upload(
+            @PathVariable String name,
+            @RequestParam long expires,
+            @RequestParam("max") long maxBytes,
+            @RequestParam String signature,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType mediaType,
+            HttpServletRequest request) throws IOException {
+        String objectName = name.substring(1);
+        // Signed without parameters such as charset, which some clients add
+        String contentType = mediaType.getType() + "/" + mediaType.getSubtype();
+        if (!backend.verify("PUT", objectName, expires, contentType, maxBytes, signature)) {
+            throw invalidSignature();
+        }
+        if (request.getContentLengthLong() > maxBytes) {
+            throw BadRequestException.fileTooLarge(maxBytes);
+        }
+
+        try {
+            long size = backend.receive(objectName, contentType, request.getInputStream(), maxBytes);
+            log.debug("Local upload stored: {} (size: {} bytes, type: {})", objectName, size, contentType);
+        } catch (LocalStorageBackend.ObjectTooLargeException e) {
+            throw BadRequestException.fileTooLarge(e.getMaxBytes());
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private static ForbiddenException invalidSignature() {
+        return new ForbiddenException("Invalid or expired signature", "INVALID_SIGNATURE");
+    }
+}
@@ -1,7 +1,11 @@
 package com.servantin.api.controller;
 
+import com.servantin.api.dto.common.CursorPage;
 import com.servantin.api.dto.provider.*;
+import com.servantin.api.dto.storage.FinalizeUploadRequest;
 import com.servantin.api.dto.storage.UploadResponse;
+import com.servantin.api.dto.storage.UploadUrlRequest;
+import com.servantin.api.dto.storage.UploadUrlResponse;
 import com.servantin.api.security.CurrentUserService;
 import com.servantin.api.service.ProviderService;
 import com.servantin.api.service.StorageService;
@@ -34,11 +38,12 @@ public class ProviderController {
     private final StorageService storageService;
 
     @PostMapping("/match")
-    @Operation(summary = "Match providers", description = "Find providers matching category, location, and optionally time. Returns sorted list with verified providers first.")
+    @Operation(summary = "Match providers", description = "Find providers matching category, location, and optionally time. Returns one page of results, verified providers first; pass nextCursor back as cursor to fetch the next page.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Matching providers", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProviderMatchDto.class))))
+            @ApiResponse(responseCode = "200", description = "Page of matching providers"),
+            @ApiResponse(responseCode = "400", description = "Invalid request or pagination cursor")
     })
-    public ResponseEntity<List<ProviderMatchDto>> matchProviders(@Valid @RequestBody MatchRequest request) {
+    public ResponseEntity<CursorPage<ProviderMatchDto>> matchProviders(@Valid @RequestBody MatchRequest request) {
         return ResponseEntity.ok(providerService.matchProviders(request));
     }
 
@@ -97,6 +102,35 @@ public class ProviderController {
                 .build());
     }
 
+    @PostMapping("/profile/photo/upload-url")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Get profile photo upload URL", description = "Get a short-lived signed URL to PUT a profile photo (JPEG/PNG, max 5MB) directly to storage, then call the finalize endpoint")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Signed upload URL", content = @Content(schema = @Schema(implementation = UploadUrlResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid file type or size"),
+            @ApiResponse(responseCode = "401", description = "Not authenticated")
+    })
+    public ResponseEntity<UploadUrlResponse> createProfilePhotoUploadUrl(@Valid @RequestBody UploadUrlRequest request) {
+        UUID userId = currentUserService.getCurrentUserId();
+        return ResponseEntity.ok(storageService.createProfilePhotoUploadUrl(request, userId));
+    }
+
+    @PostMapping("/profile/photo/finalize")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Finalize profile photo upload", description = "Validate a profile photo uploaded to a signed URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Photo validated", content = @Content(schema = @Schema(implementation = UploadResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Upload missing, or invalid file type or size"),
+            @ApiResponse(responseCode = "401", description = "Not authenticated"),
+            @ApiResponse(responseCode = "403", description = "Upload belongs to another user")
+    })
+    public ResponseEntity<UploadResponse> finalizeProfilePhoto(@Valid @RequestBody FinalizeUploadRequest request) {
+        UUID userId = currentUserService.getCurrentUserId();
+        UploadResponse upload = storageService.finalizeProfilePhoto(request.getObjectUrl(), userId);
+        upload.setFileName(request.getFileName());
+        return ResponseEntity.ok(upload);
+    }
+
     @PostMapping(value = "/profile/documents", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
     @Operation(summary = "Upload provider document", description = "Upload a verification document (JPEG/PNG/PDF, max 5MB)")
@@ -112,6 +146,38 @@ public class ProviderController {
         return ResponseEntity.ok(providerService.uploadProviderDocument(userId, file, documentType));
     }
 
+    @PostMapping("/profile/documents/upload-url")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Get document upload URL", description = "Get a short-lived signed URL to PUT a verification document (JPEG/PNG/PDF, max 5MB) directly to storage, then call the finalize endpoint")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Signed upload URL", content = @Content(schema = @Schema(implementation = UploadUrlResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid file type, size or document type"),
+            @ApiResponse(responseCode = "401", description = "Not authenticated")
+    })
+    public ResponseEntity<UploadUrlResponse> createDocumentUploadUrl(
+            @Valid @RequestBody UploadUrlRequest request,
+            @RequestParam("documentType") String documentType) {
+        UUID userId = currentUserService.getCurrentUserId();
+        return ResponseEntity.ok(providerService.createDocumentUploadUrl(userId, request, documentType));
+    }
+
+    @PostMapping("/profile/documents/finalize")
+    @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
+    @Operation(summary = "Finalize document upload", description = "Validate a verification document uploaded to a signed URL and submit it for review")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Document submitted", content = @Content(schema = @Schema(implementation = ProviderDocumentDto.class))),
+            @ApiResponse(responseCode = "400", description = "Upload missing, or invalid file type or size"),
+            @ApiResponse(responseCode = "401", description = "Not authenticated"),
+            @ApiResponse(responseCode = "403", description = "Upload belongs to another provider"),
+            @ApiResponse(responseCode = "409", description = "Upload already finalized")
+    })
+    public ResponseEntity<ProviderDocumentDto> finalizeProviderDocument(
+            @Valid @RequestBody FinalizeUploadRequest request,
+            @RequestParam("documentType") String documentType) {
+        UUID userId = currentUserService.getCurrentUserId();
+        return ResponseEntity.ok(providerService.finalizeProviderDocument(userId, request, documentType));
+    }
+
     @GetMapping("/profile/documents")
     @PreAuthorize("hasAnyRole('PROVIDER', 'ADMIN')")
     @Operation(summary = "Get provider documents", description = "Get all documents uploaded by the current provider")
@@ -15,8 +15,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "bookings", indexes = {
-        @Index(name = "idx_booking_client", columnList = "client_id"),
-        @Index(name = "idx_booking_provider", columnList = "provider_id"),
+        @Index(name = "idx_bookings_client_created", columnList = "client_id, created_at DESC, id DESC"),
+        @Index(name = "idx_bookings_provider_created", columnList = "provider_id, created_at DESC, id DESC"),
         @Index(name = "idx_booking_status", columnList = "status")
 })
 @Getter
@@ -0,0 +1,76 @@
+package com.servantin.api.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A user taking part in a booking's conversation, with how far they have read it.
+ *
+ * A message is read by the participant when it sorts at or before the (lastReadAt, lastReadMessageId)
+ * watermark on (createdAt, id); {@code unreadCount} counts the messages from others after it.
+ * Both are maintained by {@code MessageService} through {@code ConversationParticipantRepository}.
+ */
+@Entity
+@Table(name = "conversation_participants", indexes = {
+        @Index(name = "idx_conversation_participants_user", columnList = "user_id, booking_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversationParticipant {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "unread_count", nullable = false)
+    @Builder.Default
+    private Integer unreadCount = 0;
+
+    @Column(name = "last_read_at")
+    private Instant lastReadAt;
+
+    @Column(name = "last_read_message_id")
+    private UUID lastReadMessageId;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "booking_id", nullable = false)
+        private UUID bookingId;
+
+        @Column(name = "user_id", nullable = false)
+        private UUID userId;
+    }
+
+    /**
+     * Whether the watermark covers a message created at {@code createdAt} with ID {@code messageId}.
+     */
+    public boolean hasRead(Instant createdAt, UUID messageId) {
+        if (lastReadAt == null) {
+            return false;
+        }
+        int byTime = createdAt.compareTo(lastReadAt);
+        return byTime < 0 || (byTime == 0 && compareAsDatabase(messageId, lastReadMessageId) <= 0);
+    }
+
+    // UUID.compareTo compares signed halves; PostgreSQL orders UUIDs as unsigned bytes
+    private static int compareAsDatabase(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -9,7 +9,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "messages", indexes = {
-        @Index(name = "idx_message_booking", columnList = "booking_id"),
+        @Index(name = "idx_messages_booking_created", columnList = "booking_id, created_at, id"),
         @Index(name = "idx_message_created", columnList = "created_at")
 })
 @Getter
@@ -34,6 +34,7 @@ public class Message {
     @Column(nullable = false, columnDefinition = "TEXT")
     private String content;
 
+    // No longer maintained: read state is the participants' watermark (see ConversationParticipant)
     @Column(name = "is_read", nullable = false)
     @Builder.Default
     private Boolean isRead = false;
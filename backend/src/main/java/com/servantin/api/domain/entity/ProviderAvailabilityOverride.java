@@ -25,6 +25,7 @@ import java.util.UUID;
                   columnList = "provider_profile_id,specific_date"),
            @Index(name = "idx_availability_overrides_date", columnList = "specific_date")
        })
+@EntityListeners(ProviderAvailabilityOverrideListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -68,4 +69,12 @@ public class ProviderAvailabilityOverride {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
+
+    /**
+     * Date as last loaded or written, so an update that moves the override can announce the date it left.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    LocalDate persistedDate;
 }
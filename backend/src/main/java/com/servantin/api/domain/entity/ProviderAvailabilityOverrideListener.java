@@ -0,0 +1,40 @@
+package com.servantin.api.domain.entity;
+
+import com.servantin.api.domain.event.ProviderAvailabilityOverrideChangedEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Announces every write to {@link ProviderAvailabilityOverride}, whichever code path performs it.
+ * Hibernate obtains this listener from the Spring context, so it can publish application events.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProviderAvailabilityOverrideListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    void onLoad(ProviderAvailabilityOverride override) {
+        override.persistedDate = override.getSpecificDate();
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(ProviderAvailabilityOverride override) {
+        LocalDate previousDate = override.persistedDate;
+        eventPublisher.publishEvent(new ProviderAvailabilityOverrideChangedEvent(
+                override.getProviderProfile().getId(), override.getSpecificDate(),
+                Objects.equals(previousDate, override.getSpecificDate()) ? null : previousDate));
+        override.persistedDate = override.getSpecificDate();
+    }
+}
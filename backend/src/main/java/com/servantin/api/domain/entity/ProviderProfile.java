@@ -33,6 +33,18 @@ public class ProviderProfile {
     @Column(name = "photo_url")
     private String photoUrl;
 
+    /**
+     * 96px square JPEG of the photo, for booking cards; null until generated
+     */
+    @Column(name = "photo_thumbnail_url")
+    private String photoThumbnailUrl;
+
+    /**
+     * 320px square JPEG of the photo, for match results; null until generated
+     */
+    @Column(name = "photo_medium_url")
+    private String photoMediumUrl;
+
     @ElementCollection
     @CollectionTable(name = "provider_languages", joinColumns = @JoinColumn(name = "provider_profile_id"))
     @Column(name = "language")
@@ -49,6 +61,13 @@ public class ProviderProfile {
     @Column(name = "response_time_minutes")
     private Integer responseTimeMinutes;
 
+    /**
+     * Weekly schedule as an {@link com.servantin.api.domain.model.AvailabilityMask}, kept in sync with availabilities
+     */
+    @Column(name = "availability_mask", nullable = false)
+    @Builder.Default
+    private Integer availabilityMask = 0;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -0,0 +1,42 @@
+package com.servantin.api.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Materialized rating aggregates per provider.
+ * Rows are maintained by a database trigger on the ratings table (see V6 migration),
+ * so the application only ever reads them.
+ */
+@Entity
+@Immutable
+@Table(name = "provider_rating_stats", indexes = {
+        @Index(name = "idx_provider_rating_stats_updated", columnList = "updated_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProviderRatingStats {
+
+    @Id
+    @Column(name = "provider_id")
+    private UUID providerId;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum;
+
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount;
+
+    @Column(name = "average_rating")
+    private Double averageRating;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
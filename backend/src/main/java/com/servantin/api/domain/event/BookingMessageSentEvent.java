@@ -0,0 +1,14 @@
+package com.servantin.api.domain.event;
+
+import com.servantin.api.dto.message.MessageDto;
+
+import java.util.UUID;
+
+/**
+ * Published when a message is added to a booking's conversation.
+ * Carries the rendered message so listeners can push it without reading it back.
+ *
+ * @param recipientId the other participant, or null while the booking has no provider
+ */
+public record BookingMessageSentEvent(UUID bookingId, UUID recipientId, MessageDto message) {
+}
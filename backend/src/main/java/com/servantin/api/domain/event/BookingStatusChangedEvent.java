@@ -0,0 +1,11 @@
+package com.servantin.api.domain.event;
+
+import com.servantin.api.domain.model.BookingStatus;
+
+import java.util.UUID;
+
+/**
+ * Published when a booking moves to another status.
+ */
+public record BookingStatusChangedEvent(UUID bookingId, BookingStatus status) {
+}
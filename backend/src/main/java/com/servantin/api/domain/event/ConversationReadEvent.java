@@ -0,0 +1,10 @@
+package com.servantin.api.domain.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when a participant's read watermark in a booking's conversation moves forward.
+ */
+public record ConversationReadEvent(UUID bookingId, UUID userId, Instant lastReadAt, UUID lastReadMessageId) {
+}
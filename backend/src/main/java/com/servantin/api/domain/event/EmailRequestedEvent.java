@@ -0,0 +1,10 @@
+package com.servantin.api.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Published when an email is written to the outbox. Once the publishing transaction commits,
+ * {@code EmailDispatcher} tries to send it straight away instead of waiting for the next poll.
+ */
+public record EmailRequestedEvent(UUID outboxId) {
+}
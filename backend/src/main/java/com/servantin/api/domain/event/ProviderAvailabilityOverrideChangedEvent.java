@@ -0,0 +1,21 @@
+package com.servantin.api.domain.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published whenever a date-specific availability override of a provider is created, updated or deleted.
+ * Listeners that cache resolved calendars react after the transaction commits.
+ *
+ * @param previousDate the date the override was moved away from by an update, otherwise null
+ */
+public record ProviderAvailabilityOverrideChangedEvent(UUID profileId, LocalDate date, LocalDate previousDate) {
+
+    /**
+     * Dates whose availability the change affects
+     */
+    public Set<LocalDate> dates() {
+        return previousDate != null ? Set.of(date, previousDate) : Set.of(date);
+    }
+}
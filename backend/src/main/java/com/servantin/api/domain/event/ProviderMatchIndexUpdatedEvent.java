@@ -0,0 +1,11 @@
+package com.servantin.api.domain.event;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Published synchronously once the in-memory match index holds the current state of the given
+ * provider profiles (profiles no longer in the database have been removed from it).
+ */
+public record ProviderMatchIndexUpdatedEvent(Collection<UUID> profileIds) {
+}
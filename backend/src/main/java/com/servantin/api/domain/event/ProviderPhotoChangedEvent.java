@@ -0,0 +1,12 @@
+package com.servantin.api.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a provider profile gets a new photo, so its resized versions can be generated
+ * once the transaction commits.
+ *
+ * @param userId the provider's user ID, whose profiles/{userId} folder stored photos must be in
+ */
+public record ProviderPhotoChangedEvent(UUID profileId, UUID userId, String photoUrl) {
+}
@@ -0,0 +1,11 @@
+package com.servantin.api.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a provider profile or one of its matching attributes
+ * (categories, locations, availabilities, pricing, verification) is written.
+ * Listeners that maintain derived read models react after the transaction commits.
+ */
+public record ProviderProfileChangedEvent(UUID profileId) {
+}
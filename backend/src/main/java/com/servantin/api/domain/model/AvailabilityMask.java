@@ -0,0 +1,29 @@
+package com.servantin.api.domain.model;
+
+/**
+ * Weekly availability encoded as a bitmask: bit {@code weekday * 3 + timeSlot.ordinal()} is set
+ * for every weekday (0 = Sunday ... 6 = Saturday) and {@link TimeSlot} a provider works.
+ */
+public final class AvailabilityMask {
+
+    public static final int SLOTS_PER_DAY = TimeSlot.values().length;
+    public static final int BITS = 7 * SLOTS_PER_DAY;
+
+    private AvailabilityMask() {
+    }
+
+    public static int bit(int weekday, TimeSlot timeSlot) {
+        if (weekday < 0 || weekday > 6) {
+            throw new IllegalArgumentException("Weekday must be between 0 and 6: " + weekday);
+        }
+        return weekday * SLOTS_PER_DAY + timeSlot.ordinal();
+    }
+
+    public static int with(int mask, int weekday, TimeSlot timeSlot) {
+        return mask | 1 << bit(weekday, timeSlot);
+    }
+
+    public static boolean contains(int mask, int weekday, TimeSlot timeSlot) {
+        return (mask & 1 << bit(weekday, timeSlot)) != 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.servantin.api.domain.model;
+
+/**
+ * Progress of a bulk email send run in the background.
+ */
+public enum BulkSendJobStatus {
+    /**
+     * Waiting for the sender to finish earlier jobs
+     */
+    QUEUED,
+
+    /**
+     * Recipients are being loaded and emailed
+     */
+    RUNNING,
+
+    /**
+     * Every recipient was attempted; the report says which emails went out
+     */
+    COMPLETED,
+
+    /**
+     * Stopped before reaching every recipient; the report covers the ones attempted
+     */
+    FAILED
+}
@@ -0,0 +1,21 @@
+package com.servantin.api.domain.model;
+
+/**
+ * Delivery state of an email in the outbox.
+ */
+public enum EmailOutboxStatus {
+    /**
+     * Waiting to be sent, for the first time or again after a failed attempt
+     */
+    PENDING,
+
+    /**
+     * Accepted by SES
+     */
+    SENT,
+
+    /**
+     * Given up on after a permanent error or too many failed attempts
+     */
+    DEAD
+}
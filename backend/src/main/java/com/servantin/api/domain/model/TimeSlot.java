@@ -1,10 +1,18 @@
 package com.servantin.api.domain.model;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
 /**
  * Time slots for provider availability
  */
+@Getter
+@RequiredArgsConstructor
 public enum TimeSlot {
-    MORNING, // 08:00-12:00
-    AFTERNOON, // 12:00-17:00
-    EVENING // 17:00-21:00
+    MORNING(8, 12), // 08:00-12:00
+    AFTERNOON(12, 17), // 12:00-17:00
+    EVENING(17, 21); // 17:00-21:00
+
+    private final int startHour;
+    private final int endHour;
 }
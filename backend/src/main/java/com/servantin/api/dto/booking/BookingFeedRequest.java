@@ -0,0 +1,29 @@
+package com.servantin.api.dto.booking;
+
+import com.servantin.api.domain.model.BookingStatus;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Query parameters for a page of a client or provider booking feed
+ */
+@Data
+public class BookingFeedRequest {
+
+    /**
+     * Only return bookings in these statuses; all statuses when empty
+     */
+    private List<BookingStatus> status;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 50, message = "Page size must be at most 50")
+    private Integer pageSize = 20;
+
+    /**
+     * Opaque cursor from the previous page's {@code nextCursor}; omit for the first page
+     */
+    private String cursor;
+}
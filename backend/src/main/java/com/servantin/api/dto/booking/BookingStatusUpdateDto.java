@@ -0,0 +1,17 @@
+package com.servantin.api.dto.booking;
+
+import com.servantin.api.domain.model.BookingStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * A booking has moved to another status
+ */
+@Data
+@Builder
+public class BookingStatusUpdateDto {
+    private UUID bookingId;
+    private BookingStatus status;
+}
@@ -0,0 +1,18 @@
+package com.servantin.api.dto.common;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result.
+ * Pass {@code nextCursor} back unchanged to fetch the following page.
+ */
+@Data
+@Builder
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasMore;
+}
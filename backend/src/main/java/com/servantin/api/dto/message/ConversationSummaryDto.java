@@ -0,0 +1,35 @@
+package com.servantin.api.dto.message;
+
+import com.servantin.api.domain.model.BookingStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One conversation of a user's inbox: a booking they take part in and its latest message
+ */
+@Data
+@Builder
+public class ConversationSummaryDto {
+    private UUID bookingId;
+    private BookingStatus bookingStatus;
+    private String categoryName;
+    private UUID counterpartId;
+    /**
+     * The other participant; null while a booking request has no provider
+     */
+    private String counterpartName;
+    private UUID lastMessageId;
+    /**
+     * Start of the latest message; null when nothing was written yet
+     */
+    private String lastMessagePreview;
+    private boolean lastMessageIsOwn;
+    /**
+     * Time of the latest message, or the booking's creation when there is none
+     */
+    private Instant lastActivityAt;
+    private int unreadCount;
+}
@@ -0,0 +1,21 @@
+package com.servantin.api.dto.message;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Query parameters for a page of a user's conversations, most recently active first
+ */
+@Data
+public class InboxRequest {
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 50, message = "Page size must be at most 50")
+    private Integer pageSize = 20;
+
+    /**
+     * Opaque cursor from the previous page's {@code nextCursor}; omit for the first page
+     */
+    private String cursor;
+}
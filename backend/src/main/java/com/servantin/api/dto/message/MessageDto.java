@@ -7,7 +7,7 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class MessageDto {
     private UUID id;
     private UUID bookingId;
@@ -0,0 +1,27 @@
+package com.servantin.api.dto.message;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Query parameters for a page of a booking's message history.
+ * Without a cursor the latest messages are returned; at most one of {@code before} and {@code after} may be set.
+ */
+@Data
+public class MessageHistoryRequest {
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 100, message = "Limit must be at most 100")
+    private Integer limit = 50;
+
+    /**
+     * Cursor from a previous page's {@code nextCursor}: return the messages older than it
+     */
+    private String before;
+
+    /**
+     * Cursor of a message position: return the messages newer than it
+     */
+    private String after;
+}
@@ -0,0 +1,19 @@
+package com.servantin.api.dto.message;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A participant has read a conversation up to (and including) a message
+ */
+@Data
+@Builder
+public class ReadReceiptDto {
+    private UUID bookingId;
+    private UUID userId;
+    private UUID lastReadMessageId;
+    private Instant lastReadAt;
+}
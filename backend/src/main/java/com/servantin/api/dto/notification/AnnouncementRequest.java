@@ -0,0 +1,30 @@
+package com.servantin.api.dto.notification;
+
+import com.servantin.api.domain.model.UserRole;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * A platform-wide notice emailed to every user, or to every user with a role
+ */
+@Data
+public class AnnouncementRequest {
+
+    @NotBlank(message = "Subject is required")
+    @Size(max = 200, message = "Subject must be at most 200 characters")
+    private String subject;
+
+    @NotBlank(message = "Title is required")
+    @Size(max = 200, message = "Title must be at most 200 characters")
+    private String title;
+
+    @NotBlank(message = "Body is required")
+    @Size(max = 5000, message = "Body must be at most 5000 characters")
+    private String body;
+
+    /**
+     * Only send to users with this role; everyone when omitted
+     */
+    private UserRole audience;
+}
@@ -0,0 +1,36 @@
+package com.servantin.api.dto.notification;
+
+import com.servantin.api.domain.model.BulkSendJobStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A bulk email send running in the background, polled until it has finished
+ */
+@Data
+@Builder
+public class BulkSendJobDto {
+    private UUID id;
+    private BulkSendJobStatus status;
+    private String templateName;
+    /**
+     * Recipients attempted so far, and how many of them were sent or failed
+     */
+    private int processed;
+    private int sent;
+    private int failed;
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    /**
+     * Why the job stopped early, when FAILED
+     */
+    private String error;
+    /**
+     * Per-recipient outcome, once the job has finished
+     */
+    private BulkSendReport report;
+}
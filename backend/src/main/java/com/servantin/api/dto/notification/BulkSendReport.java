@@ -0,0 +1,31 @@
+package com.servantin.api.dto.notification;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk email send, per recipient
+ */
+@Data
+@Builder
+public class BulkSendReport {
+    private String templateName;
+    private int sent;
+    private int failed;
+    private List<RecipientStatus> recipients;
+
+    @Data
+    @Builder
+    public static class RecipientStatus {
+        private String email;
+        private boolean delivered;
+        /**
+         * SES status for the destination (e.g. Success, MessageRejected, Throttling), or NotSent
+         */
+        private String status;
+        private String messageId;
+        private String error;
+    }
+}
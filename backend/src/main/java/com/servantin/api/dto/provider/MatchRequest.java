@@ -1,5 +1,9 @@
 package com.servantin.api.dto.provider;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -23,4 +27,20 @@ public class MatchRequest {
     private String city;
 
     private Instant preferredTime;
+
+    /**
+     * Optional search radius around the postal code; when absent only exact postal code / city matches are returned
+     */
+    @DecimalMin(value = "0.0", message = "Radius must not be negative")
+    @DecimalMax(value = "50.0", message = "Radius must be at most 50 km")
+    private Double radiusKm;
+
+    @Min(value = 1, message = "Page size must be at least 1")
+    @Max(value = 50, message = "Page size must be at most 50")
+    private Integer pageSize = 20;
+
+    /**
+     * Opaque cursor from the previous page's {@code nextCursor}; omit for the first page
+     */
+    private String cursor;
 }
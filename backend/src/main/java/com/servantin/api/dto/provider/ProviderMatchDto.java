@@ -23,6 +23,7 @@ public class ProviderMatchDto {
     private Double averageRating;
     private Long ratingCount;
     private String city;
+    private Double distanceKm;
     private BigDecimal hourlyRate;
     private BigDecimal fixedPrice;
     private String pricingType;
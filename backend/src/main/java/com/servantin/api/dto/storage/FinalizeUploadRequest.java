@@ -0,0 +1,25 @@
+package com.servantin.api.dto.storage;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Confirms that a file was uploaded to a signed URL.
+ */
+@Data
+public class FinalizeUploadRequest {
+
+    /**
+     * Storage URL (e.g. gs://bucket/path) returned with the upload URL
+     */
+    @NotBlank(message = "Object URL is required")
+    private String objectUrl;
+
+    /**
+     * Original filename
+     */
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must be at most 255 characters")
+    private String fileName;
+}
@@ -15,7 +15,7 @@ import lombok.NoArgsConstructor;
 public class UploadResponse {
 
     /**
-     * GCS URL (gs://bucket/path) - internal storage reference
+     * Storage URL (e.g. gs://bucket/path) - internal storage reference
      */
     private String url;
 
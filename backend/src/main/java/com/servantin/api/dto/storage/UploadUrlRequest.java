@@ -0,0 +1,28 @@
+package com.servantin.api.dto.storage;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Request for a signed URL to upload a file directly to storage.
+ */
+@Data
+public class UploadUrlRequest {
+
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must be at most 255 characters")
+    private String fileName;
+
+    /**
+     * MIME type the client will upload with; the upload must send the same Content-Type
+     */
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    @NotNull(message = "File size is required")
+    @Positive(message = "File size must be positive")
+    private Long fileSize;
+}
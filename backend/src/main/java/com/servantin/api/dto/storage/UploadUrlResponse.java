@@ -0,0 +1,36 @@
+package com.servantin.api.dto.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Signed URL the client uploads a file to with an HTTP PUT.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadUrlResponse {
+
+    /**
+     * Signed URL to PUT the file body to
+     */
+    private String uploadUrl;
+
+    /**
+     * Headers the PUT must send exactly as given, or storage rejects the signature
+     */
+    private Map<String, String> requiredHeaders;
+
+    /**
+     * Storage URL (e.g. gs://bucket/path) to pass to the finalize endpoint once the upload is done
+     */
+    private String objectUrl;
+
+    private Instant expiresAt;
+}
@@ -5,10 +5,13 @@ import com.servantin.api.domain.model.BookingStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -24,35 +27,95 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     Optional<Booking> findByIdWithDetails(UUID id);
 
     /**
-     * Find bookings for a client
+     * First page of a client's bookings in the given statuses, newest first
      */
     @Query("SELECT b FROM Booking b " +
             "LEFT JOIN FETCH b.category " +
             "LEFT JOIN FETCH b.provider " +
-            "WHERE b.client.id = :clientId " +
-            "ORDER BY b.createdAt DESC")
-    List<Booking> findByClientIdOrderByCreatedAtDesc(UUID clientId);
+            "LEFT JOIN FETCH b.rating " +
+            "WHERE b.client.id = :clientId AND b.status IN :statuses " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findClientFeed(@Param("clientId") UUID clientId,
+            @Param("statuses") Collection<BookingStatus> statuses, Pageable pageable);
 
     /**
-     * Find bookings for a provider
+     * Page of a client's bookings following the keyset position ({@code createdAt}, {@code id})
+     */
+    @Query("SELECT b FROM Booking b " +
+            "LEFT JOIN FETCH b.category " +
+            "LEFT JOIN FETCH b.provider " +
+            "LEFT JOIN FETCH b.rating " +
+            "WHERE b.client.id = :clientId AND b.status IN :statuses " +
+            "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findClientFeedAfter(@Param("clientId") UUID clientId,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * First page of a provider's bookings in the given statuses, newest first
      */
     @Query("SELECT b FROM Booking b " +
             "LEFT JOIN FETCH b.category " +
             "LEFT JOIN FETCH b.client " +
-            "WHERE b.provider.id = :providerId " +
-            "ORDER BY b.createdAt DESC")
-    List<Booking> findByProviderIdOrderByCreatedAtDesc(UUID providerId);
+            "LEFT JOIN FETCH b.rating " +
+            "WHERE b.provider.id = :providerId AND b.status IN :statuses " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findProviderFeed(@Param("providerId") UUID providerId,
+            @Param("statuses") Collection<BookingStatus> statuses, Pageable pageable);
 
     /**
-     * Find new requests for a provider (where they're selected but haven't accepted
-     * yet)
+     * Page of a provider's bookings following the keyset position ({@code createdAt}, {@code id})
      */
     @Query("SELECT b FROM Booking b " +
             "LEFT JOIN FETCH b.category " +
             "LEFT JOIN FETCH b.client " +
-            "WHERE b.provider.id = :providerId AND b.status = 'REQUESTED' " +
-            "ORDER BY b.createdAt DESC")
-    List<Booking> findPendingRequestsForProvider(UUID providerId);
+            "LEFT JOIN FETCH b.rating " +
+            "WHERE b.provider.id = :providerId AND b.status IN :statuses " +
+            "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findProviderFeedAfter(@Param("providerId") UUID providerId,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Move a booking to {@code target} if it is still in one of {@code sources} and still assigned to the provider.
+     *
+     * @return number of rows updated; 0 when the booking is missing, in another status or with another provider
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status IN :sources AND b.provider.id = :providerId")
+    int updateStatusIfIn(@Param("id") UUID id, @Param("sources") Collection<BookingStatus> sources,
+            @Param("providerId") UUID providerId, @Param("target") BookingStatus target, @Param("now") Instant now);
+
+    /**
+     * Decline a booking still in one of {@code sources} and still assigned to the provider, releasing the provider
+     * so the client can select another
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target, b.provider = NULL, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status IN :sources AND b.provider.id = :providerId")
+    int declineIfIn(@Param("id") UUID id, @Param("sources") Collection<BookingStatus> sources,
+            @Param("providerId") UUID providerId, @Param("target") BookingStatus target, @Param("now") Instant now);
+
+    /**
+     * Complete a booking still in one of {@code sources} and still assigned to the provider
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target, b.completedAt = :now, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status IN :sources AND b.provider.id = :providerId")
+    int completeIfIn(@Param("id") UUID id, @Param("sources") Collection<BookingStatus> sources,
+            @Param("providerId") UUID providerId, @Param("target") BookingStatus target, @Param("now") Instant now);
+
+    /**
+     * Cancel a booking still in one of {@code sources} if the user is its client or current provider
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :target, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status IN :sources AND (b.client.id = :userId OR b.provider.id = :userId)")
+    int cancelIfIn(@Param("id") UUID id, @Param("sources") Collection<BookingStatus> sources,
+            @Param("userId") UUID userId, @Param("target") BookingStatus target, @Param("now") Instant now);
 
     /**
      * Find bookings by status
@@ -65,7 +128,8 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     @Query("SELECT b FROM Booking b " +
             "LEFT JOIN FETCH b.client " +
             "LEFT JOIN FETCH b.provider " +
-            "LEFT JOIN FETCH b.category")
+            "LEFT JOIN FETCH b.category " +
+            "LEFT JOIN FETCH b.rating")
     Page<Booking> findAllWithDetails(Pageable pageable);
 
     /**
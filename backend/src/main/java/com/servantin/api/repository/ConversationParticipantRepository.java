@@ -0,0 +1,73 @@
+package com.servantin.api.repository;
+
+import com.servantin.api.domain.entity.ConversationParticipant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ConversationParticipantRepository
+        extends JpaRepository<ConversationParticipant, ConversationParticipant.Key> {
+
+    /**
+     * Count one more unread message for a participant, creating its counter on the first message
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_participants (booking_id, user_id, unread_count, updated_at) " +
+            "VALUES (:bookingId, :userId, 1, NOW()) " +
+            "ON CONFLICT (booking_id, user_id) DO UPDATE " +
+            "SET unread_count = conversation_participants.unread_count + 1, updated_at = NOW()",
+            nativeQuery = true)
+    int incrementUnread(@Param("bookingId") UUID bookingId, @Param("userId") UUID userId);
+
+    /**
+     * Reset a participant's unread counter, creating it if needed. Run before reading the latest
+     * message: the row lock holds back concurrent senders' increments until the watermark is set.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_participants (booking_id, user_id, unread_count, updated_at) " +
+            "VALUES (:bookingId, :userId, 0, NOW()) " +
+            "ON CONFLICT (booking_id, user_id) DO UPDATE " +
+            "SET unread_count = 0, updated_at = NOW()",
+            nativeQuery = true)
+    int resetUnread(@Param("bookingId") UUID bookingId, @Param("userId") UUID userId);
+
+    /**
+     * Move a participant's read watermark forward to ({@code readAt}, {@code messageId}); never moves it back
+     */
+    @Modifying
+    @Query("UPDATE ConversationParticipant p " +
+            "SET p.lastReadAt = :readAt, p.lastReadMessageId = :messageId, p.updatedAt = :now " +
+            "WHERE p.id.bookingId = :bookingId AND p.id.userId = :userId " +
+            "AND (p.lastReadAt IS NULL OR p.lastReadAt < :readAt " +
+            "OR (p.lastReadAt = :readAt AND p.lastReadMessageId < :messageId))")
+    int advanceReadWatermark(@Param("bookingId") UUID bookingId, @Param("userId") UUID userId,
+            @Param("readAt") Instant readAt, @Param("messageId") UUID messageId, @Param("now") Instant now);
+
+    /**
+     * Participants of a booking's conversation
+     */
+    List<ConversationParticipant> findByIdBookingId(UUID bookingId);
+
+    /**
+     * Unread counters of a user across several bookings: [bookingId, unreadCount].
+     * Bookings without unread messages are omitted.
+     */
+    @Query("SELECT p.id.bookingId, p.unreadCount FROM ConversationParticipant p " +
+            "WHERE p.id.userId = :userId AND p.id.bookingId IN :bookingIds AND p.unreadCount > 0")
+    List<Object[]> findUnreadCounts(@Param("userId") UUID userId, @Param("bookingIds") Collection<UUID> bookingIds);
+
+    /**
+     * Unread counter of one participant, 0 when they have no counter yet
+     */
+    @Query("SELECT COALESCE(SUM(p.unreadCount), 0) FROM ConversationParticipant p " +
+            "WHERE p.id.bookingId = :bookingId AND p.id.userId = :userId")
+    long findUnreadCount(@Param("bookingId") UUID bookingId, @Param("userId") UUID userId);
+}
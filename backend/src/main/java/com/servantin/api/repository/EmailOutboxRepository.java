@@ -0,0 +1,43 @@
+package com.servantin.api.repository;
+
+import com.servantin.api.domain.entity.EmailOutboxMessage;
+import com.servantin.api.domain.model.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    /**
+     * Lock up to {@code limit} due pending emails, oldest due first. Rows locked by another sender
+     * are skipped rather than waited for, so concurrent senders claim disjoint batches.
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<EmailOutboxMessage> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Lock one email if it is pending, due and not locked by another sender
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+            "WHERE id = :id AND status = 'PENDING' AND next_attempt_at <= :now " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<EmailOutboxMessage> lockIfDue(@Param("id") UUID id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage e WHERE e.status = :status AND e.sentAt < :before")
+    int deleteByStatusSentBefore(@Param("status") EmailOutboxStatus status, @Param("before") Instant before);
+}
@@ -1,39 +1,90 @@
 package com.servantin.api.repository;
 
 import com.servantin.api.domain.entity.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, UUID> {
 
+    /**
+     * One row per booking of the inbox: the booking, the other participant, the latest message
+     * (picked by a LATERAL lookup on the (booking_id, created_at, id) index) and the caller's
+     * unread counter. Last activity is the latest message's time, or the booking's creation.
+     *
+     * Columns: booking id, status, category name, counterpart id, counterpart name, last message id,
+     * last message sender id, last message preview, last activity, unread count.
+     */
+    String INBOX_QUERY = "SELECT b.id, b.status, c.name, u.id, u.name, " +
+            "m.id, m.sender_id, LEFT(m.content, 140), " +
+            "COALESCE(m.created_at, b.created_at) AS last_activity_at, COALESCE(p.unread_count, 0) " +
+            "FROM bookings b " +
+            "JOIN categories c ON c.id = b.category_id " +
+            "LEFT JOIN users u ON u.id = CASE WHEN b.client_id = :userId THEN b.provider_id ELSE b.client_id END " +
+            "LEFT JOIN LATERAL (SELECT lm.id, lm.sender_id, lm.content, lm.created_at FROM messages lm " +
+            "WHERE lm.booking_id = b.id ORDER BY lm.created_at DESC, lm.id DESC LIMIT 1) m ON TRUE " +
+            "LEFT JOIN conversation_participants p ON p.booking_id = b.id AND p.user_id = :userId " +
+            "WHERE (b.client_id = :userId OR b.provider_id = :userId) ";
+
+    /**
+     * Most recently active conversations of a user; see {@link #INBOX_QUERY} for the columns
+     */
+    @Query(value = INBOX_QUERY +
+            "ORDER BY last_activity_at DESC, b.id DESC",
+            nativeQuery = true)
+    List<Object[]> findInbox(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Conversations of a user last active before the keyset position ({@code activityAt}, {@code bookingId})
+     */
+    @Query(value = INBOX_QUERY +
+            "AND (COALESCE(m.created_at, b.created_at), b.id) < (:activityAt, :bookingId) " +
+            "ORDER BY last_activity_at DESC, b.id DESC",
+            nativeQuery = true)
+    List<Object[]> findInboxBefore(@Param("userId") UUID userId, @Param("activityAt") Instant activityAt,
+            @Param("bookingId") UUID bookingId, Pageable pageable);
+
+    /**
+     * Latest messages of a booking, newest first
+     */
     @Query("SELECT m FROM Message m " +
             "LEFT JOIN FETCH m.sender " +
             "WHERE m.booking.id = :bookingId " +
-            "ORDER BY m.createdAt ASC")
-    List<Message> findByBookingIdOrderByCreatedAtAsc(UUID bookingId);
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findLatest(@Param("bookingId") UUID bookingId, Pageable pageable);
 
     /**
-     * Count unread messages for a user in a booking
+     * Messages of a booking older than the keyset position ({@code createdAt}, {@code id}), newest first
      */
-    @Query("SELECT COUNT(m) FROM Message m " +
+    @Query("SELECT m FROM Message m " +
+            "LEFT JOIN FETCH m.sender " +
             "WHERE m.booking.id = :bookingId " +
-            "AND m.sender.id != :userId " +
-            "AND m.isRead = false")
-    long countUnreadMessages(UUID bookingId, UUID userId);
+            "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+            "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findBefore(@Param("bookingId") UUID bookingId, @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id, Pageable pageable);
 
     /**
-     * Mark messages as read
+     * Messages of a booking newer than the keyset position ({@code createdAt}, {@code id}), oldest first
      */
-    @Modifying
-    @Query("UPDATE Message m SET m.isRead = true " +
+    @Query("SELECT m FROM Message m " +
+            "LEFT JOIN FETCH m.sender " +
             "WHERE m.booking.id = :bookingId " +
-            "AND m.sender.id != :userId " +
-            "AND m.isRead = false")
-    int markAsRead(UUID bookingId, UUID userId);
+            "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+            "ORDER BY m.createdAt ASC, m.id ASC")
+    List<Message> findAfter(@Param("bookingId") UUID bookingId, @Param("createdAt") Instant createdAt,
+            @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Latest message of a booking's conversation
+     */
+    Optional<Message> findFirstByBookingIdOrderByCreatedAtDescIdDesc(UUID bookingId);
 }
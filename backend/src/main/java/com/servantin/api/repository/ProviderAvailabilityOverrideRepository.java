@@ -3,9 +3,11 @@ package com.servantin.api.repository;
 import com.servantin.api.domain.entity.ProviderAvailabilityOverride;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +39,16 @@ public interface ProviderAvailabilityOverrideRepository extends JpaRepository<Pr
            "ORDER BY pao.specificDate ASC")
     List<ProviderAvailabilityOverride> findFutureOverrides(UUID providerProfileId, LocalDate fromDate);
 
+    /**
+     * Find the overrides of several providers on one date, with their time slots
+     */
+    @Query("SELECT DISTINCT pao FROM ProviderAvailabilityOverride pao " +
+           "LEFT JOIN FETCH pao.timeSlots " +
+           "WHERE pao.providerProfile.id IN :providerProfileIds " +
+           "AND pao.specificDate = :date")
+    List<ProviderAvailabilityOverride> findByProviderProfileIdsAndDate(
+            @Param("providerProfileIds") Collection<UUID> providerProfileIds, @Param("date") LocalDate date);
+
     /**
      * Delete past overrides (cleanup job)
      */
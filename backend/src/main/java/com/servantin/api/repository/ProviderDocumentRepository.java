@@ -17,6 +17,11 @@ public interface ProviderDocumentRepository extends JpaRepository<ProviderDocume
      */
     List<ProviderDocument> findByProviderProfile_Id(UUID providerProfileId);
 
+    /**
+     * Check whether a stored file already has a document record
+     */
+    boolean existsByDocumentUrl(String documentUrl);
+
     /**
      * Find all documents by verification status (for admin review)
      */
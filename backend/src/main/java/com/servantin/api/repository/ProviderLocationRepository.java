@@ -2,8 +2,11 @@ package com.servantin.api.repository;
 
 import com.servantin.api.domain.entity.ProviderLocation;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,5 +19,12 @@ public interface ProviderLocationRepository extends JpaRepository<ProviderLocati
 
     List<ProviderLocation> findByCityIgnoreCase(String city);
 
+    /**
+     * Service areas per profile: [profileId, postalCode, city]
+     */
+    @Query("SELECT pl.providerProfile.id, pl.postalCode, pl.city FROM ProviderLocation pl " +
+            "WHERE pl.providerProfile.id IN :ids")
+    List<Object[]> findPostalCodesAndCitiesByProfileIds(@Param("ids") Collection<UUID> ids);
+
     void deleteByProviderProfileId(UUID providerProfileId);
 }
@@ -4,6 +4,7 @@ import com.servantin.api.domain.entity.ProviderPricing;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,5 +16,10 @@ public interface ProviderPricingRepository extends JpaRepository<ProviderPricing
 
     Optional<ProviderPricing> findByProviderProfileIdAndCategoryId(UUID providerProfileId, UUID categoryId);
 
+    /**
+     * Pricing for one category across a batch of profiles in a single query
+     */
+    List<ProviderPricing> findByProviderProfileIdInAndCategoryId(Collection<UUID> providerProfileIds, UUID categoryId);
+
     void deleteByProviderProfileId(UUID providerProfileId);
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,18 +34,45 @@ public interface ProviderProfileRepository extends JpaRepository<ProviderProfile
         Optional<ProviderProfile> findByUserIdWithCategories(UUID userId);
 
         /**
-         * Find providers matching search criteria for the matching algorithm
+         * Load profiles with their user for a set of matched profile IDs
          */
-        @Query("SELECT DISTINCT pp FROM ProviderProfile pp " +
-                        "JOIN pp.categories pc " +
-                        "JOIN pp.locations pl " +
-                        "JOIN pp.user u " +
-                        "WHERE pc.category.id = :categoryId " +
-                        "AND (pl.postalCode = :postalCode OR LOWER(pl.city) = LOWER(:city))")
-        List<ProviderProfile> findMatchingProviders(
-                        @Param("categoryId") UUID categoryId,
-                        @Param("postalCode") String postalCode,
-                        @Param("city") String city);
+        @Query("SELECT pp FROM ProviderProfile pp " +
+                        "JOIN FETCH pp.user " +
+                        "WHERE pp.id IN :ids")
+        List<ProviderProfile> findAllByIdWithUser(@Param("ids") Collection<UUID> ids);
+
+        /**
+         * All profile IDs, used to (re)build the in-memory match index in batches
+         */
+        @Query("SELECT pp.id FROM ProviderProfile pp")
+        List<UUID> findAllIds();
+
+        /**
+         * Scalar matching attributes per profile: [id, isVerified, createdAt, userId, availabilityMask]
+         */
+        @Query("SELECT pp.id, pp.isVerified, pp.createdAt, pp.user.id, pp.availabilityMask FROM ProviderProfile pp " +
+                        "WHERE pp.id IN :ids")
+        List<Object[]> findMatchAttributesByIds(@Param("ids") Collection<UUID> ids);
+
+        /**
+         * Booking card details per provider user: [userId, photoUrl, isVerified]; the photo is the
+         * thumbnail once it has been generated
+         */
+        @Query("SELECT pp.user.id, COALESCE(pp.photoThumbnailUrl, pp.photoUrl), pp.isVerified FROM ProviderProfile pp WHERE pp.user.id IN :userIds")
+        List<Object[]> findPhotoAndVerificationByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+        /**
+         * Profile IDs for a batch of provider user IDs
+         */
+        @Query("SELECT pp.id FROM ProviderProfile pp WHERE pp.user.id IN :userIds")
+        List<UUID> findIdsByUserIds(@Param("userIds") Collection<UUID> userIds);
+
+        /**
+         * Category assignments per profile: [profileId, categoryId]
+         */
+        @Query("SELECT pc.providerProfile.id, pc.category.id FROM ProviderCategory pc " +
+                        "WHERE pc.providerProfile.id IN :ids")
+        List<Object[]> findCategoryIdsByProfileIds(@Param("ids") Collection<UUID> ids);
 
         /**
          * Find all providers with their full details for admin panel
@@ -0,0 +1,31 @@
+package com.servantin.api.repository;
+
+import com.servantin.api.domain.entity.ProviderRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProviderRatingStatsRepository extends JpaRepository<ProviderRatingStats, UUID> {
+
+    /**
+     * Rating aggregates for a batch of providers (by provider user ID) in a single query
+     */
+    List<ProviderRatingStats> findByProviderIdIn(Collection<UUID> providerIds);
+
+    /**
+     * Aggregates changed since a point in time (used to refresh derived read models)
+     */
+    List<ProviderRatingStats> findByUpdatedAtAfter(Instant since);
+
+    /**
+     * Latest aggregate update as written by the database, or null when there are no aggregates yet
+     */
+    @Query("SELECT MAX(s.updatedAt) FROM ProviderRatingStats s")
+    Instant findMaxUpdatedAt();
+}
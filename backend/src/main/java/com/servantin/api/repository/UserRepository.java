@@ -2,8 +2,10 @@ package com.servantin.api.repository;
 
 import com.servantin.api.domain.entity.User;
 import com.servantin.api.domain.model.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -19,6 +21,19 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findByRole(UserRole role);
 
+    /**
+     * Recipients after a user ID in ID order: [id, email, name], to walk every user one page at a time
+     */
+    @Query("SELECT u.id, u.email, u.name FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<Object[]> findRecipientsAfter(@Param("after") UUID after, Pageable pageable);
+
+    /**
+     * Recipients with a role after a user ID in ID order: [id, email, name]
+     */
+    @Query("SELECT u.id, u.email, u.name FROM User u WHERE u.role = :role AND u.id > :after ORDER BY u.id")
+    List<Object[]> findRecipientsByRoleAfter(@Param("role") UserRole role, @Param("after") UUID after,
+            Pageable pageable);
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.providerProfile WHERE u.email = :email")
     Optional<User> findByEmailWithProfile(String email);
 
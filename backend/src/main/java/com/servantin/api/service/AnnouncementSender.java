@@ -0,0 +1,213 @@
+package com.servantin.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servantin.api.domain.model.BulkSendJobStatus;
+import com.servantin.api.dto.notification.AnnouncementRequest;
+import com.servantin.api.dto.notification.BulkSendJobDto;
+import com.servantin.api.dto.notification.BulkSendReport;
+import com.servantin.api.exception.ConflictException;
+import com.servantin.api.exception.ResourceNotFoundException;
+import com.servantin.api.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emails platform announcements to every user, or every user with a role, in the background.
+ *
+ * At the SES sending rate an announcement to all users takes minutes, far longer than an HTTP
+ * request may stay open, so {@link #start} only queues a job and the admin polls {@link #get} for
+ * its progress and, once finished, the per-recipient report. Users are read one page at a time
+ * in ID order and each page goes out through {@link BulkEmailService}. A single worker runs the
+ * jobs one after another, since they share the account's sending rate anyway.
+ *
+ * Jobs are kept in memory on the instance that runs them, for {@code app.email.announcement.job-retention}
+ * after they were started; a restart loses queued and running jobs.
+ */
+@Slf4j
+@Component
+public class AnnouncementSender {
+
+    static final String TEMPLATE_NAME = "announcement";
+
+    private final BulkEmailService bulkEmailService;
+    private final UserRepository userRepository;
+    private final int pageSize;
+    private final Clock clock;
+    private final ThreadPoolExecutor executor;
+    private final Cache<UUID, Job> jobs;
+
+    @Autowired
+    public AnnouncementSender(
+            BulkEmailService bulkEmailService,
+            UserRepository userRepository,
+            @Value("${app.email.announcement.page-size:500}") int pageSize,
+            @Value("${app.email.announcement.queue-capacity:10}") int queueCapacity,
+            @Value("${app.email.announcement.job-retention:PT24H}") Duration jobRetention) {
+        this(bulkEmailService, userRepository, pageSize, queueCapacity, jobRetention, Clock.systemUTC());
+    }
+
+    AnnouncementSender(BulkEmailService bulkEmailService, UserRepository userRepository, int pageSize,
+            int queueCapacity, Duration jobRetention, Clock clock) {
+        this.bulkEmailService = bulkEmailService;
+        this.userRepository = userRepository;
+        this.pageSize = pageSize;
+        this.clock = clock;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "announcement-sender");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    /**
+     * Queue an announcement.
+     *
+     * @return the queued job, to poll with {@link #get}
+     * @throws ConflictException when too many announcements are already waiting
+     */
+    public BulkSendJobDto start(AnnouncementRequest request) {
+        Job job = new Job(UUID.randomUUID(), clock.instant());
+        BulkSendJobDto queued = job.toDto();
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, request));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            throw new ConflictException("Too many announcements are waiting to be sent", "ANNOUNCEMENT_QUEUE_FULL");
+        }
+        log.info("Queued announcement '{}' as job {}", request.getTitle(), job.id);
+        return queued;
+    }
+
+    /**
+     * Progress of a job and, once it has finished, its per-recipient report.
+     */
+    public BulkSendJobDto get(UUID jobId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Announcement job", jobId);
+        }
+        return job.toDto();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    void run(Job job, AnnouncementRequest request) {
+        job.start(clock.instant());
+        Map<String, String> defaults = Map.of("title", request.getTitle(), "body", request.getBody());
+        try {
+            UUID after = new UUID(0L, 0L);
+            while (!Thread.currentThread().isInterrupted()) {
+                PageRequest page = PageRequest.of(0, pageSize);
+                List<Object[]> users = request.getAudience() != null
+                        ? userRepository.findRecipientsByRoleAfter(request.getAudience(), after, page)
+                        : userRepository.findRecipientsAfter(after, page);
+                if (users.isEmpty()) {
+                    job.finish(BulkSendJobStatus.COMPLETED, null, clock.instant());
+                    log.info("Announcement job {} sent {} emails, {} failed", job.id, job.sent, job.failed);
+                    return;
+                }
+                List<BulkEmailService.Recipient> recipients = users.stream()
+                        .map(row -> new BulkEmailService.Recipient((String) row[1], Map.of("name", (String) row[2])))
+                        .toList();
+                job.add(bulkEmailService.send(TEMPLATE_NAME, request.getSubject(), defaults, recipients));
+                after = (UUID) users.get(users.size() - 1)[0];
+            }
+            job.finish(BulkSendJobStatus.FAILED, "Interrupted", clock.instant());
+        } catch (RuntimeException e) {
+            log.error("Announcement job {} stopped after {} recipients: {}", job.id, job.processed, e.getMessage(), e);
+            job.finish(BulkSendJobStatus.FAILED, e.getMessage(), clock.instant());
+        }
+    }
+
+    /**
+     * Job state, written by the worker and read by pollers.
+     */
+    static final class Job {
+        private final UUID id;
+        private final Instant createdAt;
+        private final List<BulkSendReport.RecipientStatus> recipients = new ArrayList<>();
+        private BulkSendJobStatus status = BulkSendJobStatus.QUEUED;
+        private Instant startedAt;
+        private Instant finishedAt;
+        private String error;
+        private int processed;
+        private int sent;
+        private int failed;
+
+        private Job(UUID id, Instant createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+
+        private synchronized void start(Instant now) {
+            status = BulkSendJobStatus.RUNNING;
+            startedAt = now;
+        }
+
+        private synchronized void add(BulkSendReport report) {
+            recipients.addAll(report.getRecipients());
+            processed += report.getRecipients().size();
+            sent += report.getSent();
+            failed += report.getFailed();
+        }
+
+        private synchronized void finish(BulkSendJobStatus finalStatus, String failure, Instant now) {
+            status = finalStatus;
+            error = failure;
+            finishedAt = now;
+        }
+
+        private synchronized BulkSendJobDto toDto() {
+            boolean finished = finishedAt != null;
+            return BulkSendJobDto.builder()
+                    .id(id)
+                    .status(status)
+                    .templateName(TEMPLATE_NAME)
+                    .processed(processed)
+                    .sent(sent)
+                    .failed(failed)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .report(finished
+                            ? BulkSendReport.builder()
+                                    .templateName(TEMPLATE_NAME)
+                                    .sent(sent)
+                                    .failed(failed)
+                                    .recipients(List.copyOf(recipients))
+                                    .build()
+                            : null)
+                    .build();
+        }
+    }
+}
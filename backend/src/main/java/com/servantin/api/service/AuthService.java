@@ -59,13 +59,9 @@ public class AuthService {
         user = userRepository.save(user);
         log.info("Registered new user: {} with role {}", user.getEmail(), role);
 
-        // Send verification and welcome emails (don't fail registration if email fails)
-        try {
-            emailService.sendVerificationEmail(user.getEmail(), user.getName(), verificationToken);
-            emailService.sendWelcomeEmail(user.getEmail(), user.getName(), role == UserRole.PROVIDER);
-        } catch (Exception e) {
-            log.error("Failed to send registration emails to {}: {}", user.getEmail(), e.getMessage());
-        }
+        // Send verification and welcome emails (queued in the outbox, committed with the user)
+        emailService.sendVerificationEmail(user.getEmail(), user.getName(), verificationToken);
+        emailService.sendWelcomeEmail(user.getEmail(), user.getName(), role == UserRole.PROVIDER);
 
         // Generate token
         String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name());
@@ -0,0 +1,156 @@
+package com.servantin.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servantin.api.domain.entity.ProviderAvailabilityOverride;
+import com.servantin.api.domain.event.ProviderAvailabilityOverrideChangedEvent;
+import com.servantin.api.domain.model.AvailabilityMask;
+import com.servantin.api.domain.model.TimeSlot;
+import com.servantin.api.repository.ProviderAvailabilityOverrideRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves which time slots providers actually work on a given date, by merging the weekly
+ * schedule ({@link AvailabilityMask}) with date-specific {@link ProviderAvailabilityOverride}s.
+ *
+ * Overrides are looked up for all requested providers in one query and cached per provider and
+ * date, including the fact that a provider has no override on that date. Cached days of a provider
+ * are evicted once a change to one of its overrides commits; days loaded while an eviction runs are
+ * returned but not cached.
+ */
+@Slf4j
+@Component
+public class AvailabilityCalendarResolver {
+
+    private static final int ALL_SLOTS = (1 << TimeSlot.values().length) - 1;
+    // Cached value for providers without an override on the date
+    private static final int NO_OVERRIDE = -1;
+
+    private final ProviderAvailabilityOverrideRepository overrideRepository;
+    private final Cache<DayKey, Integer> overrideSlots;
+    // Bumped before every eviction, so days loaded concurrently with it are not cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record DayKey(UUID profileId, LocalDate date) {
+    }
+
+    public AvailabilityCalendarResolver(
+            ProviderAvailabilityOverrideRepository overrideRepository,
+            @Value("${matching.calendar-cache.max-size:100000}") long maxSize,
+            @Value("${matching.calendar-cache.expire-after-write:PT6H}") Duration expireAfterWrite) {
+        this.overrideRepository = overrideRepository;
+        this.overrideSlots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * Resolve the slots each provider works on {@code date}.
+     *
+     * @param weeklyMasks weekly {@link AvailabilityMask} by provider profile ID
+     * @return by provider profile ID, a mask with bit {@code timeSlot.ordinal()} set for each slot worked
+     */
+    public Map<UUID, Integer> resolveDaySlots(Map<UUID, Integer> weeklyMasks, LocalDate date) {
+        if (weeklyMasks.isEmpty()) {
+            return Map.of();
+        }
+        List<DayKey> keys = weeklyMasks.keySet().stream().map(id -> new DayKey(id, date)).toList();
+        Map<DayKey, Integer> overrides = new HashMap<>(overrideSlots.getAllPresent(keys));
+        if (overrides.size() < keys.size()) {
+            Set<DayKey> missing = new HashSet<>(keys);
+            missing.removeAll(overrides.keySet());
+            long generation = evictions.get();
+            Map<DayKey, Integer> loaded = loadOverrideSlots(missing, date);
+            overrideSlots.putAll(loaded);
+            if (evictions.get() != generation) {
+                // An eviction ran while loading; the days read may predate the change
+                overrideSlots.invalidateAll(loaded.keySet());
+            }
+            overrides.putAll(loaded);
+        }
+
+        int weekday = date.getDayOfWeek().getValue() % 7; // Convert to 0=Sunday format
+        Map<UUID, Integer> daySlots = new HashMap<>();
+        weeklyMasks.forEach((profileId, weeklyMask) -> {
+            int override = overrides.getOrDefault(new DayKey(profileId, date), NO_OVERRIDE);
+            daySlots.put(profileId, override != NO_OVERRIDE ? override : weeklySlots(weeklyMask, weekday));
+        });
+        return daySlots;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOverrideChanged(ProviderAvailabilityOverrideChangedEvent event) {
+        // Evict every cached day of the provider: an update may have moved the override to another date
+        evictions.incrementAndGet();
+        overrideSlots.asMap().keySet().removeIf(key -> key.profileId().equals(event.profileId()));
+        log.debug("Evicted cached calendar days for profile {}", event.profileId());
+    }
+
+    private Map<DayKey, Integer> loadOverrideSlots(Set<? extends DayKey> keys, LocalDate date) {
+        Map<DayKey, Integer> loaded = new HashMap<>();
+        keys.forEach(key -> loaded.put(key, NO_OVERRIDE));
+        List<UUID> profileIds = keys.stream().map(DayKey::profileId).toList();
+        for (ProviderAvailabilityOverride override : overrideRepository.findByProviderProfileIdsAndDate(profileIds, date)) {
+            loaded.put(new DayKey(override.getProviderProfile().getId(), date), overrideSlots(override));
+        }
+        return loaded;
+    }
+
+    private static int weeklySlots(int weeklyMask, int weekday) {
+        int slots = 0;
+        for (TimeSlot timeSlot : TimeSlot.values()) {
+            if (AvailabilityMask.contains(weeklyMask, weekday, timeSlot)) {
+                slots |= 1 << timeSlot.ordinal();
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Slots covered by an override. Unavailable days cover nothing; available days without time
+     * ranges cover the whole day; otherwise each "HH:MM-HH:MM" range covers the slots it overlaps.
+     */
+    static int overrideSlots(ProviderAvailabilityOverride override) {
+        if (!Boolean.TRUE.equals(override.getIsAvailable())) {
+            return 0;
+        }
+        if (override.getTimeSlots() == null || override.getTimeSlots().isEmpty()) {
+            return ALL_SLOTS;
+        }
+        int slots = 0;
+        for (String range : override.getTimeSlots()) {
+            String[] bounds = range.split("-");
+            try {
+                if (bounds.length != 2) {
+                    throw new DateTimeParseException("Expected HH:MM-HH:MM", range, 0);
+                }
+                LocalTime start = LocalTime.parse(bounds[0].trim());
+                LocalTime end = LocalTime.parse(bounds[1].trim());
+                for (TimeSlot timeSlot : TimeSlot.values()) {
+                    if (start.isBefore(LocalTime.of(timeSlot.getEndHour(), 0))
+                            && end.isAfter(LocalTime.of(timeSlot.getStartHour(), 0))) {
+                        slots |= 1 << timeSlot.ordinal();
+                    }
+                }
+            } catch (DateTimeParseException e) {
+                log.warn("Ignoring malformed time range '{}' on availability override {}", range, override.getId());
+            }
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,142 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.Booking;
+import com.servantin.api.domain.entity.ProviderRatingStats;
+import com.servantin.api.domain.entity.User;
+import com.servantin.api.dto.booking.BookingDto;
+import com.servantin.api.dto.category.CategoryDto;
+import com.servantin.api.repository.ConversationParticipantRepository;
+import com.servantin.api.repository.ProviderProfileRepository;
+import com.servantin.api.repository.ProviderRatingStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link BookingDto}s for whole lists of bookings at once.
+ *
+ * Provider profile details, rating aggregates and unread message counters are fetched with one
+ * query each for the whole list, so a list endpoint runs a constant number of queries however
+ * many bookings it returns.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingDtoAssembler {
+
+    private final ProviderProfileRepository providerProfileRepository;
+    private final ProviderRatingStatsRepository ratingStatsRepository;
+    private final ConversationParticipantRepository participantRepository;
+
+    private record ProviderDetails(String photoUrl, Boolean isVerified) {
+    }
+
+    public BookingDto toDto(Booking booking, UUID currentUserId) {
+        return toDtos(List.of(booking), currentUserId).get(0);
+    }
+
+    /**
+     * @param currentUserId user the unread message counts are computed for, or null to skip them
+     */
+    public List<BookingDto> toDtos(List<Booking> bookings, UUID currentUserId) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        Set<UUID> providerIds = bookings.stream()
+                .map(Booking::getProvider)
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, ProviderDetails> providerDetails = new HashMap<>();
+        Map<UUID, Double> averageRatings = new HashMap<>();
+        if (!providerIds.isEmpty()) {
+            for (Object[] row : providerProfileRepository.findPhotoAndVerificationByUserIds(providerIds)) {
+                providerDetails.put((UUID) row[0], new ProviderDetails((String) row[1], (Boolean) row[2]));
+            }
+            for (ProviderRatingStats stats : ratingStatsRepository.findByProviderIdIn(providerIds)) {
+                averageRatings.put(stats.getProviderId(), stats.getAverageRating());
+            }
+        }
+
+        Map<UUID, Long> unreadCounts = new HashMap<>();
+        if (currentUserId != null) {
+            List<UUID> bookingIds = bookings.stream().map(Booking::getId).toList();
+            for (Object[] row : participantRepository.findUnreadCounts(currentUserId, bookingIds)) {
+                unreadCounts.put((UUID) row[0], ((Integer) row[1]).longValue());
+            }
+        }
+
+        return bookings.stream()
+                .map(b -> toDto(b, providerDetails, averageRatings, unreadCounts))
+                .toList();
+    }
+
+    private BookingDto toDto(Booking booking, Map<UUID, ProviderDetails> providerDetails,
+            Map<UUID, Double> averageRatings, Map<UUID, Long> unreadCounts) {
+        CategoryDto categoryDto = CategoryDto.builder()
+                .id(booking.getCategory().getId())
+                .slug(booking.getCategory().getSlug())
+                .name(booking.getCategory().getName())
+                .description(booking.getCategory().getDescription())
+                .icon(booking.getCategory().getIcon())
+                .build();
+
+        BookingDto.ClientDto clientDto = BookingDto.ClientDto.builder()
+                .id(booking.getClient().getId())
+                .name(booking.getClient().getName())
+                .email(booking.getClient().getEmail())
+                .phone(booking.getClient().getPhone())
+                .build();
+
+        BookingDto.ProviderDto providerDto = null;
+        if (booking.getProvider() != null) {
+            User provider = booking.getProvider();
+            ProviderDetails details = providerDetails.get(provider.getId());
+
+            providerDto = BookingDto.ProviderDto.builder()
+                    .id(provider.getId())
+                    .name(provider.getName())
+                    .email(provider.getEmail())
+                    .phone(provider.getPhone())
+                    .photoUrl(details != null ? details.photoUrl() : null)
+                    .isVerified(details != null && Boolean.TRUE.equals(details.isVerified()))
+                    .averageRating(averageRatings.get(provider.getId()))
+                    .build();
+        }
+
+        BookingDto.RatingDto ratingDto = null;
+        if (booking.getRating() != null) {
+            ratingDto = BookingDto.RatingDto.builder()
+                    .id(booking.getRating().getId())
+                    .score(booking.getRating().getScore())
+                    .comment(booking.getRating().getComment())
+                    .createdAt(booking.getRating().getCreatedAt())
+                    .build();
+        }
+
+        return BookingDto.builder()
+                .id(booking.getId())
+                .status(booking.getStatus())
+                .description(booking.getDescription())
+                .postalCode(booking.getPostalCode())
+                .city(booking.getCity())
+                .addressText(booking.getAddressText())
+                .scheduledAt(booking.getScheduledAt())
+                .urgency(booking.getUrgency())
+                .budgetMin(booking.getBudgetMin())
+                .budgetMax(booking.getBudgetMax())
+                .paymentStatus(booking.getPaymentStatus())
+                .createdAt(booking.getCreatedAt())
+                .updatedAt(booking.getUpdatedAt())
+                .completedAt(booking.getCompletedAt())
+                .category(categoryDto)
+                .client(clientDto)
+                .provider(providerDto)
+                .rating(ratingDto)
+                .unreadMessageCount(unreadCounts.getOrDefault(booking.getId(), 0L))
+                .build();
+    }
+}
@@ -1,20 +1,26 @@
 package com.servantin.api.service;
 
 import com.servantin.api.domain.entity.*;
+import com.servantin.api.domain.event.BookingStatusChangedEvent;
 import com.servantin.api.domain.model.BookingStatus;
 import com.servantin.api.dto.booking.BookingDto;
+import com.servantin.api.dto.booking.BookingFeedRequest;
 import com.servantin.api.dto.booking.CreateBookingRequest;
-import com.servantin.api.dto.category.CategoryDto;
+import com.servantin.api.dto.common.CursorPage;
 import com.servantin.api.dto.common.PageResponse;
 import com.servantin.api.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,10 +32,10 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final MessageRepository messageRepository;
-    private final RatingRepository ratingRepository;
-    private final ProviderProfileRepository providerProfileRepository;
     private final EmailService emailService;
+    private final BookingDtoAssembler bookingDtoAssembler;
+    private final BookingStateMachine bookingStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BookingDto createBooking(UUID clientId, CreateBookingRequest request) {
@@ -64,30 +70,26 @@ public class BookingService {
         log.info("Created booking {} for client {} with provider {}",
                 booking.getId(), clientId, request.getProviderId());
 
-        // Send email notifications (don't fail booking creation if email fails)
-        try {
-            emailService.sendBookingRequestedToClient(
-                    client.getEmail(),
-                    client.getName(),
+        // Send email notifications (queued in the outbox, committed with the booking)
+        emailService.sendBookingRequestedToClient(
+                client.getEmail(),
+                client.getName(),
+                booking.getId().toString(),
+                category.getName()
+        );
+
+        if (provider != null) {
+            emailService.sendBookingRequestedToProvider(
+                    provider.getEmail(),
+                    provider.getName(),
                     booking.getId().toString(),
-                    category.getName()
+                    client.getName(),
+                    category.getName(),
+                    request.getDescription() != null ? request.getDescription() : ""
             );
-
-            if (provider != null) {
-                emailService.sendBookingRequestedToProvider(
-                        provider.getEmail(),
-                        provider.getName(),
-                        booking.getId().toString(),
-                        client.getName(),
-                        category.getName(),
-                        request.getDescription() != null ? request.getDescription() : ""
-                );
-            }
-        } catch (Exception e) {
-            log.error("Failed to send booking creation emails for booking {}: {}", booking.getId(), e.getMessage());
         }
 
-        return toDto(booking, clientId);
+        return bookingDtoAssembler.toDto(booking, clientId);
     }
 
     @Transactional(readOnly = true)
@@ -101,28 +103,66 @@ public class BookingService {
             throw new RuntimeException("Access denied to this booking");
         }
 
-        return toDto(booking, userId);
+        return bookingDtoAssembler.toDto(booking, userId);
     }
 
+    /**
+     * Page of a client's bookings, newest first.
+     */
     @Transactional(readOnly = true)
-    public List<BookingDto> getClientBookings(UUID clientId) {
-        return bookingRepository.findByClientIdOrderByCreatedAtDesc(clientId).stream()
-                .map(b -> toDto(b, clientId))
-                .toList();
+    public CursorPage<BookingDto> getClientBookings(UUID clientId, BookingFeedRequest request) {
+        return feedPage(request, clientId, (statuses, after, pageable) -> after == null
+                ? bookingRepository.findClientFeed(clientId, statuses, pageable)
+                : bookingRepository.findClientFeedAfter(clientId, statuses, after.createdAt(), after.id(), pageable));
     }
 
+    /**
+     * Page of a provider's bookings, newest first.
+     */
     @Transactional(readOnly = true)
-    public List<BookingDto> getProviderBookings(UUID providerId) {
-        return bookingRepository.findByProviderIdOrderByCreatedAtDesc(providerId).stream()
-                .map(b -> toDto(b, providerId))
-                .toList();
+    public CursorPage<BookingDto> getProviderBookings(UUID providerId, BookingFeedRequest request) {
+        return feedPage(request, providerId, (statuses, after, pageable) -> after == null
+                ? bookingRepository.findProviderFeed(providerId, statuses, pageable)
+                : bookingRepository.findProviderFeedAfter(providerId, statuses, after.createdAt(), after.id(), pageable));
     }
 
+    /**
+     * Page of the requests a provider has been selected for but not answered yet, newest first.
+     */
     @Transactional(readOnly = true)
-    public List<BookingDto> getProviderPendingRequests(UUID providerId) {
-        return bookingRepository.findPendingRequestsForProvider(providerId).stream()
-                .map(b -> toDto(b, providerId))
-                .toList();
+    public CursorPage<BookingDto> getProviderPendingRequests(UUID providerId, BookingFeedRequest request) {
+        BookingFeedRequest pending = new BookingFeedRequest();
+        pending.setStatus(List.of(BookingStatus.REQUESTED));
+        pending.setPageSize(request.getPageSize());
+        pending.setCursor(request.getCursor());
+        return getProviderBookings(providerId, pending);
+    }
+
+    @FunctionalInterface
+    private interface FeedQuery {
+        List<Booking> find(Collection<BookingStatus> statuses, CursorCodec.Position after, Pageable pageable);
+    }
+
+    private CursorPage<BookingDto> feedPage(BookingFeedRequest request, UUID currentUserId, FeedQuery query) {
+        int pageSize = request.getPageSize() != null ? request.getPageSize() : 20;
+        Collection<BookingStatus> statuses = request.getStatus() == null || request.getStatus().isEmpty()
+                ? EnumSet.allOf(BookingStatus.class)
+                : EnumSet.copyOf(request.getStatus());
+
+        // Fetch one extra row to tell whether another page follows
+        List<Booking> bookings = query.find(statuses, CursorCodec.Position.decode(request.getCursor()),
+                PageRequest.of(0, pageSize + 1));
+        boolean hasMore = bookings.size() > pageSize;
+        if (hasMore) {
+            bookings = bookings.subList(0, pageSize);
+        }
+        Booking last = bookings.isEmpty() ? null : bookings.get(bookings.size() - 1);
+
+        return CursorPage.<BookingDto>builder()
+                .content(bookingDtoAssembler.toDtos(bookings, currentUserId))
+                .nextCursor(hasMore ? new CursorCodec.Position(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     @Transactional
@@ -130,31 +170,23 @@ public class BookingService {
         Booking booking = bookingRepository.findByIdWithDetails(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        if (!booking.getProvider().getId().equals(providerId)) {
+        if (booking.getProvider() == null || !booking.getProvider().getId().equals(providerId)) {
             throw new RuntimeException("Only the selected provider can accept this booking");
         }
 
-        if (booking.getStatus() != BookingStatus.REQUESTED) {
-            throw new RuntimeException("Booking is not in REQUESTED status");
-        }
-
-        booking.setStatus(BookingStatus.ACCEPTED);
-        booking = bookingRepository.save(booking);
+        bookingStateMachine.apply(bookingId, BookingStateMachine.Transition.ACCEPT, providerId);
+        booking = reload(bookingId);
         log.info("Provider {} accepted booking {}", providerId, bookingId);
 
         // Send email notification to client
-        try {
-            emailService.sendBookingAccepted(
-                    booking.getClient().getEmail(),
-                    booking.getClient().getName(),
-                    booking.getProvider().getName(),
-                    booking.getId().toString()
-            );
-        } catch (Exception e) {
-            log.error("Failed to send booking accepted email for booking {}: {}", bookingId, e.getMessage());
-        }
-
-        return toDto(booking, providerId);
+        emailService.sendBookingAccepted(
+                booking.getClient().getEmail(),
+                booking.getClient().getName(),
+                booking.getProvider().getName(),
+                booking.getId().toString()
+        );
+
+        return bookingDtoAssembler.toDto(booking, providerId);
     }
 
     @Transactional
@@ -162,33 +194,25 @@ public class BookingService {
         Booking booking = bookingRepository.findByIdWithDetails(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        if (!booking.getProvider().getId().equals(providerId)) {
+        if (booking.getProvider() == null || !booking.getProvider().getId().equals(providerId)) {
             throw new RuntimeException("Only the selected provider can decline this booking");
         }
 
-        if (booking.getStatus() != BookingStatus.REQUESTED) {
-            throw new RuntimeException("Booking is not in REQUESTED status");
-        }
-
-        booking.setStatus(BookingStatus.DECLINED);
         String providerName = booking.getProvider().getName();
-        booking.setProvider(null); // Allow client to select another provider
-        booking = bookingRepository.save(booking);
+        // Also releases the provider, allowing the client to select another one
+        bookingStateMachine.apply(bookingId, BookingStateMachine.Transition.DECLINE, providerId);
+        booking = reload(bookingId);
         log.info("Provider {} declined booking {}: {}", providerId, bookingId, reason);
 
         // Send email notification to client
-        try {
-            emailService.sendBookingDeclined(
-                    booking.getClient().getEmail(),
-                    booking.getClient().getName(),
-                    providerName,
-                    booking.getId().toString()
-            );
-        } catch (Exception e) {
-            log.error("Failed to send booking declined email for booking {}: {}", bookingId, e.getMessage());
-        }
-
-        return toDto(booking, providerId);
+        emailService.sendBookingDeclined(
+                booking.getClient().getEmail(),
+                booking.getClient().getName(),
+                providerName,
+                booking.getId().toString()
+        );
+
+        return bookingDtoAssembler.toDto(booking, providerId);
     }
 
     @Transactional
@@ -196,40 +220,31 @@ public class BookingService {
         Booking booking = bookingRepository.findByIdWithDetails(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        if (!booking.getProvider().getId().equals(providerId)) {
+        if (booking.getProvider() == null || !booking.getProvider().getId().equals(providerId)) {
             throw new RuntimeException("Only the provider can complete this booking");
         }
 
-        if (booking.getStatus() != BookingStatus.ACCEPTED && booking.getStatus() != BookingStatus.IN_PROGRESS) {
-            throw new RuntimeException("Booking cannot be completed in current status");
-        }
-
-        booking.setStatus(BookingStatus.COMPLETED);
-        booking.setCompletedAt(Instant.now());
-        booking = bookingRepository.save(booking);
+        bookingStateMachine.apply(bookingId, BookingStateMachine.Transition.COMPLETE, providerId);
+        booking = reload(bookingId);
         log.info("Provider {} completed booking {}", providerId, bookingId);
 
         // Send email notification to both parties
-        try {
-            // Notify client
-            emailService.sendBookingCompleted(
-                    booking.getClient().getEmail(),
-                    booking.getClient().getName(),
-                    booking.getId().toString(),
-                    false
-            );
-            // Notify provider
-            emailService.sendBookingCompleted(
-                    booking.getProvider().getEmail(),
-                    booking.getProvider().getName(),
-                    booking.getId().toString(),
-                    true
-            );
-        } catch (Exception e) {
-            log.error("Failed to send booking completed email for booking {}: {}", bookingId, e.getMessage());
-        }
-
-        return toDto(booking, providerId);
+        // Notify client
+        emailService.sendBookingCompleted(
+                booking.getClient().getEmail(),
+                booking.getClient().getName(),
+                booking.getId().toString(),
+                false
+        );
+        // Notify provider
+        emailService.sendBookingCompleted(
+                booking.getProvider().getEmail(),
+                booking.getProvider().getName(),
+                booking.getId().toString(),
+                true
+        );
+
+        return bookingDtoAssembler.toDto(booking, providerId);
     }
 
     @Transactional
@@ -243,37 +258,34 @@ public class BookingService {
             throw new RuntimeException("Access denied to cancel this booking");
         }
 
-        if (booking.getStatus() == BookingStatus.COMPLETED) {
-            throw new RuntimeException("Completed bookings cannot be canceled");
-        }
-
-        booking.setStatus(BookingStatus.CANCELED);
-        booking = bookingRepository.save(booking);
+        bookingStateMachine.apply(bookingId, BookingStateMachine.Transition.CANCEL, userId);
+        booking = reload(bookingId);
         log.info("User {} canceled booking {}", userId, bookingId);
 
         // Send email notification to the other party
-        try {
-            boolean canceledByClient = booking.getClient().getId().equals(userId);
-            if (canceledByClient && booking.getProvider() != null) {
-                // Client canceled, notify provider
-                emailService.sendBookingCanceled(
-                        booking.getProvider().getEmail(),
-                        booking.getProvider().getName(),
-                        booking.getId().toString()
-                );
-            } else if (!canceledByClient) {
-                // Provider canceled, notify client
-                emailService.sendBookingCanceled(
-                        booking.getClient().getEmail(),
-                        booking.getClient().getName(),
-                        booking.getId().toString()
-                );
-            }
-        } catch (Exception e) {
-            log.error("Failed to send booking canceled email for booking {}: {}", bookingId, e.getMessage());
+        boolean canceledByClient = booking.getClient().getId().equals(userId);
+        if (canceledByClient && booking.getProvider() != null) {
+            // Client canceled, notify provider
+            emailService.sendBookingCanceled(
+                    booking.getProvider().getEmail(),
+                    booking.getProvider().getName(),
+                    booking.getId().toString()
+            );
+        } else if (!canceledByClient) {
+            // Provider canceled, notify client
+            emailService.sendBookingCanceled(
+                    booking.getClient().getEmail(),
+                    booking.getClient().getName(),
+                    booking.getId().toString()
+            );
         }
 
-        return toDto(booking, userId);
+        return bookingDtoAssembler.toDto(booking, userId);
+    }
+
+    private Booking reload(UUID bookingId) {
+        return bookingRepository.findByIdWithDetails(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
     }
 
     // Admin methods
@@ -281,9 +293,7 @@ public class BookingService {
     public PageResponse<BookingDto> getAllBookings(Pageable pageable) {
         Page<Booking> page = bookingRepository.findAllWithDetails(pageable);
 
-        List<BookingDto> content = page.getContent().stream()
-                .map(b -> toDto(b, null))
-                .toList();
+        List<BookingDto> content = bookingDtoAssembler.toDtos(page.getContent(), null);
 
         return PageResponse.<BookingDto>builder()
                 .content(content)
@@ -306,86 +316,8 @@ public class BookingService {
             booking.setCompletedAt(Instant.now());
         }
         booking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(bookingId, status));
 
-        return toDto(booking, null);
-    }
-
-    private BookingDto toDto(Booking booking, UUID currentUserId) {
-        CategoryDto categoryDto = CategoryDto.builder()
-                .id(booking.getCategory().getId())
-                .slug(booking.getCategory().getSlug())
-                .name(booking.getCategory().getName())
-                .description(booking.getCategory().getDescription())
-                .icon(booking.getCategory().getIcon())
-                .build();
-
-        BookingDto.ClientDto clientDto = BookingDto.ClientDto.builder()
-                .id(booking.getClient().getId())
-                .name(booking.getClient().getName())
-                .email(booking.getClient().getEmail())
-                .phone(booking.getClient().getPhone())
-                .build();
-
-        BookingDto.ProviderDto providerDto = null;
-        if (booking.getProvider() != null) {
-            User provider = booking.getProvider();
-            Double avgRating = ratingRepository.getAverageRatingForProvider(provider.getId());
-
-            // Get provider profile for photo
-            String photoUrl = providerProfileRepository.findByUser_Id(provider.getId())
-                    .map(ProviderProfile::getPhotoUrl)
-                    .orElse(null);
-
-            Boolean isVerified = providerProfileRepository.findByUser_Id(provider.getId())
-                    .map(ProviderProfile::getIsVerified)
-                    .orElse(false);
-
-            providerDto = BookingDto.ProviderDto.builder()
-                    .id(provider.getId())
-                    .name(provider.getName())
-                    .email(provider.getEmail())
-                    .phone(provider.getPhone())
-                    .photoUrl(photoUrl)
-                    .isVerified(isVerified)
-                    .averageRating(avgRating)
-                    .build();
-        }
-
-        BookingDto.RatingDto ratingDto = null;
-        if (booking.getRating() != null) {
-            ratingDto = BookingDto.RatingDto.builder()
-                    .id(booking.getRating().getId())
-                    .score(booking.getRating().getScore())
-                    .comment(booking.getRating().getComment())
-                    .createdAt(booking.getRating().getCreatedAt())
-                    .build();
-        }
-
-        Long unreadCount = 0L;
-        if (currentUserId != null) {
-            unreadCount = messageRepository.countUnreadMessages(booking.getId(), currentUserId);
-        }
-
-        return BookingDto.builder()
-                .id(booking.getId())
-                .status(booking.getStatus())
-                .description(booking.getDescription())
-                .postalCode(booking.getPostalCode())
-                .city(booking.getCity())
-                .addressText(booking.getAddressText())
-                .scheduledAt(booking.getScheduledAt())
-                .urgency(booking.getUrgency())
-                .budgetMin(booking.getBudgetMin())
-                .budgetMax(booking.getBudgetMax())
-                .paymentStatus(booking.getPaymentStatus())
-                .createdAt(booking.getCreatedAt())
-                .updatedAt(booking.getUpdatedAt())
-                .completedAt(booking.getCompletedAt())
-                .category(categoryDto)
-                .client(clientDto)
-                .provider(providerDto)
-                .rating(ratingDto)
-                .unreadMessageCount(unreadCount)
-                .build();
+        return bookingDtoAssembler.toDto(booking, null);
     }
 }
@@ -0,0 +1,74 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.event.BookingStatusChangedEvent;
+import com.servantin.api.domain.model.BookingStatus;
+import com.servantin.api.exception.ConflictException;
+import com.servantin.api.repository.BookingRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies booking status transitions.
+ *
+ * Each transition is a single conditional UPDATE guarded on the statuses it may start from and on
+ * the acting user (the assigned provider, or either participant for a cancel), so concurrent
+ * transitions of the same booking serialise on the row and exactly one of them wins; the others
+ * find the status or provider already changed and fail with a 409 instead of overwriting it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingStateMachine {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Transition {
+        ACCEPT(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.ACCEPTED),
+        DECLINE(EnumSet.of(BookingStatus.REQUESTED), BookingStatus.DECLINED),
+        COMPLETE(EnumSet.of(BookingStatus.ACCEPTED, BookingStatus.IN_PROGRESS), BookingStatus.COMPLETED),
+        CANCEL(EnumSet.of(BookingStatus.REQUESTED, BookingStatus.ACCEPTED, BookingStatus.DECLINED,
+                BookingStatus.IN_PROGRESS), BookingStatus.CANCELED);
+
+        private final Set<BookingStatus> sources;
+        private final BookingStatus target;
+    }
+
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Apply {@code transition} to a booking on behalf of a user. Clears the persistence context, so
+     * entities loaded before the call must be re-read.
+     *
+     * @param userId the booking's provider, or for {@link Transition#CANCEL} its client or provider
+     * @throws ConflictException if the booking is no longer in a status the transition starts from,
+     *                           or the user is no longer its provider or participant
+     */
+    @Transactional
+    public void apply(UUID bookingId, Transition transition, UUID userId) {
+        Instant now = Instant.now();
+        Set<BookingStatus> sources = transition.getSources();
+        BookingStatus target = transition.getTarget();
+        int updated = switch (transition) {
+            case ACCEPT -> bookingRepository.updateStatusIfIn(bookingId, sources, userId, target, now);
+            case DECLINE -> bookingRepository.declineIfIn(bookingId, sources, userId, target, now);
+            case COMPLETE -> bookingRepository.completeIfIn(bookingId, sources, userId, target, now);
+            case CANCEL -> bookingRepository.cancelIfIn(bookingId, sources, userId, target, now);
+        };
+        if (updated == 0) {
+            log.info("Booking {} transition {} lost to a concurrent change", bookingId, transition);
+            throw new ConflictException("Booking can no longer be moved to " + transition.getTarget(),
+                    "BOOKING_STATE_CONFLICT");
+        }
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(bookingId, transition.getTarget()));
+    }
+}
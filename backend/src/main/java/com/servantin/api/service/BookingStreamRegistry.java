@@ -0,0 +1,226 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.event.BookingMessageSentEvent;
+import com.servantin.api.domain.event.BookingStatusChangedEvent;
+import com.servantin.api.domain.event.ConversationReadEvent;
+import com.servantin.api.dto.booking.BookingStatusUpdateDto;
+import com.servantin.api.dto.message.MessageDto;
+import com.servantin.api.dto.message.ReadReceiptDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pushes booking conversation events to subscribed participants over server-sent events.
+ *
+ * Subscribers are grouped per booking in memory. Events are fanned out once their transaction
+ * commits, into a bounded buffer per subscriber that a small dispatcher pool drains, so a slow
+ * client never blocks the publishing request or other subscribers. A subscriber whose buffer
+ * overflows is disconnected; clients re-fetch the conversation when they reconnect.
+ *
+ * Events are named {@code message}, {@code read} and {@code status}.
+ */
+@Slf4j
+@Component
+public class BookingStreamRegistry {
+
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService dispatcher;
+    private final Duration timeout;
+    private final int bufferSize;
+    private final Counter overflows;
+
+    public BookingStreamRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${streaming.timeout:PT15M}") Duration timeout,
+            @Value("${streaming.buffer-size:64}") int bufferSize,
+            @Value("${streaming.dispatcher-threads:4}") int dispatcherThreads) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("booking.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open booking conversation streams")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("booking.stream.overflows")
+                .description("Subscribers disconnected because their event buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream of a booking's events for a participant. Access must have been checked by the caller.
+     */
+    public SseEmitter subscribe(UUID bookingId, UUID userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(bookingId, userId, emitter);
+        // Add and remove within compute, so an emptied set is never dropped while a subscriber joins it
+        subscribers.compute(bookingId, (id, set) -> {
+            Set<Subscriber> joined = set != null ? set : ConcurrentHashMap.newKeySet();
+            joined.add(subscriber);
+            return joined;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> remove(subscriber));
+        // Complete on timeout so the stream closes cleanly instead of ending in an async request timeout error
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> remove(subscriber));
+        log.debug("User {} subscribed to booking {}", userId, bookingId);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(BookingMessageSentEvent event) {
+        MessageDto message = event.message();
+        publish(event.bookingId(), "message", userId -> message.toBuilder()
+                .isOwnMessage(message.getSenderId().equals(userId))
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onConversationRead(ConversationReadEvent event) {
+        ReadReceiptDto receipt = ReadReceiptDto.builder()
+                .bookingId(event.bookingId())
+                .userId(event.userId())
+                .lastReadMessageId(event.lastReadMessageId())
+                .lastReadAt(event.lastReadAt())
+                .build();
+        publish(event.bookingId(), "read", userId -> receipt);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        BookingStatusUpdateDto update = BookingStatusUpdateDto.builder()
+                .bookingId(event.bookingId())
+                .status(event.status())
+                .build();
+        publish(event.bookingId(), "status", userId -> update);
+    }
+
+    /**
+     * Keep idle streams alive through proxies and detect clients that went away.
+     */
+    @Scheduled(fixedDelayString = "${streaming.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("ping"))));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+        dispatcher.shutdown();
+    }
+
+    /**
+     * Whether a participant currently has a booking's conversation open.
+     */
+    public boolean isSubscribed(UUID bookingId, UUID userId) {
+        return subscribers.getOrDefault(bookingId, Set.of()).stream()
+                .anyMatch(subscriber -> subscriber.userId.equals(userId));
+    }
+
+    int subscriberCount(UUID bookingId) {
+        return subscribers.getOrDefault(bookingId, Set.of()).size();
+    }
+
+    private void publish(UUID bookingId, String name, Function<UUID, Object> payloadForUser) {
+        Set<Subscriber> bookingSubscribers = subscribers.get(bookingId);
+        if (bookingSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : bookingSubscribers) {
+            subscriber.offer(SseEmitter.event().name(name).data(payloadForUser.apply(subscriber.userId)));
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(subscriber.bookingId, (id, set) -> {
+            removed.set(set.remove(subscriber));
+            return set.isEmpty() ? null : set;
+        });
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+            log.debug("User {} unsubscribed from booking {}", subscriber.userId, subscriber.bookingId);
+        }
+    }
+
+    private final class Subscriber {
+        private final UUID bookingId;
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> buffer = new ArrayBlockingQueue<>(bufferSize);
+        // Set while a dispatcher task owns this subscriber, so events are sent by one thread at a time, in order
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(UUID bookingId, UUID userId, SseEmitter emitter) {
+            this.bookingId = bookingId;
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (!buffer.offer(event)) {
+                log.info("Dropping slow subscriber {} of booking {}", userId, bookingId);
+                overflows.increment();
+                remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client disconnected or the emitter already completed
+                remove(this);
+                buffer.clear();
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
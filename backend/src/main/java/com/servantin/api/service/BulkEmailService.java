@@ -0,0 +1,254 @@
+package com.servantin.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servantin.api.dto.notification.BulkSendReport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.ses.SesClient;
+import software.amazon.awssdk.services.ses.model.AlreadyExistsException;
+import software.amazon.awssdk.services.ses.model.BulkEmailDestination;
+import software.amazon.awssdk.services.ses.model.BulkEmailDestinationStatus;
+import software.amazon.awssdk.services.ses.model.CreateTemplateRequest;
+import software.amazon.awssdk.services.ses.model.Destination;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailRequest;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailResponse;
+import software.amazon.awssdk.services.ses.model.Template;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends one email template to many recipients with SES bulk templated sends.
+ *
+ * The Thymeleaf template is rendered once with {{placeholders}} for the per-recipient variables and
+ * registered as an SES template named after a hash of its content, so an edited template gets a new
+ * SES template instead of changing one that sends may be using. Recipients go out 50 to a call (the
+ * SES limit), each with its own replacement data, through the same rate limiter as single emails.
+ *
+ * Bulk sends bypass the outbox: they are started by an admin, who gets the per-recipient outcome
+ * back (see {@link AnnouncementSender}) and can resend to the recipients that failed.
+ */
+@Slf4j
+@Service
+public class BulkEmailService {
+
+    static final int MAX_DESTINATIONS_PER_CALL = 50;
+
+    private static final int MAX_THROTTLE_RETRIES = 3;
+    private static final String NOT_SENT = "NotSent";
+
+    private final SesClient sesClient;
+    private final EmailTemplateRegistry templateRegistry;
+    private final SesSendRateLimiter sendRateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Duration throttleBackoff;
+    private final Set<String> syncedTemplates = ConcurrentHashMap.newKeySet();
+
+    @Value("${aws.ses.from-email:noreply@servantin.com}")
+    private String fromEmail;
+
+    @Value("${aws.ses.from-name:Servantin}")
+    private String fromName;
+
+    @Autowired
+    public BulkEmailService(
+            @Autowired(required = false) SesClient sesClient,
+            EmailTemplateRegistry templateRegistry,
+            SesSendRateLimiter sendRateLimiter,
+            ObjectMapper objectMapper,
+            @Value("${aws.ses.bulk.throttle-backoff:PT1S}") Duration throttleBackoff) {
+        this.sesClient = sesClient;
+        this.templateRegistry = templateRegistry;
+        this.sendRateLimiter = sendRateLimiter;
+        this.objectMapper = objectMapper;
+        this.throttleBackoff = throttleBackoff;
+    }
+
+    /**
+     * A recipient and the template variables personal to them.
+     */
+    public record Recipient(String email, Map<String, String> variables) {
+    }
+
+    /**
+     * Send a template to every recipient.
+     *
+     * @param templateName email template name (without .html extension)
+     * @param subject      subject line; may use the same {{placeholders}} as the template
+     * @param defaults     variables shared by all recipients
+     * @param recipients   recipients and their personal variables, which override the defaults
+     * @return the outcome for each recipient, in order
+     */
+    public BulkSendReport send(String templateName, String subject, Map<String, String> defaults,
+            List<Recipient> recipients) {
+        List<BulkSendReport.RecipientStatus> statuses = new ArrayList<>(recipients.size());
+
+        if (sesClient == null) {
+            log.info("=== BULK EMAIL (not sent - SES not configured) ===");
+            log.info("Template: {}, recipients: {}", templateName, recipients.size());
+            recipients.forEach(recipient -> statuses.add(notSent(recipient, "SES not configured")));
+            return report(templateName, statuses);
+        }
+
+        Set<String> variableNames = new LinkedHashSet<>(defaults.keySet());
+        recipients.forEach(recipient -> variableNames.addAll(recipient.variables().keySet()));
+        String sesTemplateName = syncTemplate(templateName, subject, variableNames);
+        String defaultData = toJson(defaults);
+
+        for (int from = 0; from < recipients.size(); from += MAX_DESTINATIONS_PER_CALL) {
+            List<Recipient> chunk = recipients.subList(from, Math.min(from + MAX_DESTINATIONS_PER_CALL,
+                    recipients.size()));
+            try {
+                statuses.addAll(sendChunk(sesTemplateName, defaultData, chunk));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                recipients.subList(from, recipients.size())
+                        .forEach(recipient -> statuses.add(notSent(recipient, "Interrupted")));
+                break;
+            }
+        }
+
+        BulkSendReport report = report(templateName, statuses);
+        log.info("Bulk '{}' email sent to {} recipients, {} failed", templateName, report.getSent(),
+                report.getFailed());
+        return report;
+    }
+
+    private List<BulkSendReport.RecipientStatus> sendChunk(String sesTemplateName, String defaultData,
+            List<Recipient> chunk) throws InterruptedException {
+        SendBulkTemplatedEmailRequest request = SendBulkTemplatedEmailRequest.builder()
+                .source(String.format("%s <%s>", fromName, fromEmail))
+                .template(sesTemplateName)
+                .defaultTemplateData(defaultData)
+                .destinations(chunk.stream()
+                        .map(recipient -> BulkEmailDestination.builder()
+                                .destination(Destination.builder().toAddresses(recipient.email()).build())
+                                .replacementTemplateData(toJson(recipient.variables()))
+                                .build())
+                        .toList())
+                .build();
+
+        SendBulkTemplatedEmailResponse response;
+        int attempt = 0;
+        while (true) {
+            sendRateLimiter.acquire(chunk.size());
+            try {
+                response = sesClient.sendBulkTemplatedEmail(request);
+                break;
+            } catch (SdkException e) {
+                // Service errors (SesException) and client errors such as timeouts both fail only this chunk
+                if (e instanceof SdkServiceException serviceException && serviceException.isThrottlingException()
+                        && ++attempt <= MAX_THROTTLE_RETRIES) {
+                    log.debug("Bulk send throttled, retry {} of {}", attempt, MAX_THROTTLE_RETRIES);
+                    Thread.sleep(throttleBackoff.multipliedBy(1L << (attempt - 1)).toMillis());
+                    continue;
+                }
+                log.warn("Bulk send of {} emails failed: {}", chunk.size(), e.getMessage());
+                String code = e instanceof AwsServiceException awsException && awsException.awsErrorDetails() != null
+                        ? awsException.awsErrorDetails().errorCode()
+                        : null;
+                return chunk.stream()
+                        .map(recipient -> BulkSendReport.RecipientStatus.builder()
+                                .email(recipient.email())
+                                .status(code != null ? code : NOT_SENT)
+                                .error(e.getMessage())
+                                .build())
+                        .toList();
+            }
+        }
+
+        // SES returns one status per destination, in request order
+        List<BulkEmailDestinationStatus> results = response.status();
+        List<BulkSendReport.RecipientStatus> statuses = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkEmailDestinationStatus result = i < results.size() ? results.get(i) : null;
+            if (result == null) {
+                statuses.add(notSent(chunk.get(i), "No status returned"));
+                continue;
+            }
+            statuses.add(BulkSendReport.RecipientStatus.builder()
+                    .email(chunk.get(i).email())
+                    .delivered("Success".equals(result.statusAsString()))
+                    .status(result.statusAsString())
+                    .messageId(result.messageId())
+                    .error(result.error())
+                    .build());
+        }
+        return statuses;
+    }
+
+    /**
+     * Register the SES template for a Thymeleaf template, once per content version.
+     */
+    private String syncTemplate(String templateName, String subject, Set<String> variableNames) {
+        String html = templateRegistry.renderPlaceholders(templateName, variableNames);
+        String sesTemplateName = "servantin-" + templateName + "-" + sha256(subject + "\n" + html).substring(0, 16);
+        if (syncedTemplates.contains(sesTemplateName)) {
+            return sesTemplateName;
+        }
+        try {
+            sesClient.createTemplate(CreateTemplateRequest.builder()
+                    .template(Template.builder()
+                            .templateName(sesTemplateName)
+                            .subjectPart(subject)
+                            .htmlPart(html)
+                            .build())
+                    .build());
+            log.info("Created SES template {}", sesTemplateName);
+        } catch (AlreadyExistsException e) {
+            // Created by an earlier run or another instance
+        }
+        syncedTemplates.add(sesTemplateName);
+        return sesTemplateName;
+    }
+
+    private String toJson(Map<String, String> data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize template data", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static BulkSendReport.RecipientStatus notSent(Recipient recipient, String error) {
+        return BulkSendReport.RecipientStatus.builder()
+                .email(recipient.email())
+                .status(NOT_SENT)
+                .error(error)
+                .build();
+    }
+
+    private static BulkSendReport report(String templateName, List<BulkSendReport.RecipientStatus> statuses) {
+        int sent = (int) statuses.stream().filter(BulkSendReport.RecipientStatus::isDelivered).count();
+        return BulkSendReport.builder()
+                .templateName(templateName)
+                .sent(sent)
+                .failed(statuses.size() - sent)
+                .recipients(statuses)
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.servantin.api.service;
+
+import com.servantin.api.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursor strings.
+ * Clients must treat cursors as black boxes; only the issuing service decodes them.
+ */
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Keyset position in a feed ordered on ({@code createdAt}, {@code id}).
+     */
+    public record Position(Instant createdAt, UUID id) {
+
+        public String encode() {
+            return CursorCodec.encode(createdAt, id);
+        }
+
+        /**
+         * @return the decoded position, or null for a null or blank cursor
+         * @throws BadRequestException if the cursor is malformed
+         */
+        public static Position decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            String[] parts = CursorCodec.decode(cursor, 2);
+            try {
+                return new Position(Instant.parse(parts[0]), UUID.fromString(parts[1]));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw invalid();
+            }
+        }
+    }
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(parts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor produced by {@link #encode(Object...)}.
+     *
+     * @throws BadRequestException if the cursor is malformed or has the wrong number of parts
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != expectedParts) {
+                throw invalid();
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    public static BadRequestException invalid() {
+        return new BadRequestException("Invalid pagination cursor", "INVALID_CURSOR");
+    }
+}
@@ -95,20 +95,16 @@ public class DocumentVerificationService {
         log.info("Admin {} verified document {} as {}", adminId, documentId, status);
 
         // Send notification email to provider
-        try {
-            User providerUser = document.getProviderProfile().getUser();
-            if (status == VerificationStatus.APPROVED) {
-                // Check if all required documents are now approved
-                long pendingCount = documentRepository.countByProviderProfile_IdAndVerificationStatus(
-                        document.getProviderProfile().getId(), VerificationStatus.PENDING);
-                if (pendingCount == 0) {
-                    emailService.sendProviderVerified(providerUser.getEmail(), providerUser.getName());
-                }
-            } else if (status == VerificationStatus.REJECTED) {
-                emailService.sendProviderRejected(providerUser.getEmail(), providerUser.getName(), notes);
+        User providerUser = document.getProviderProfile().getUser();
+        if (status == VerificationStatus.APPROVED) {
+            // Check if all required documents are now approved
+            long pendingCount = documentRepository.countByProviderProfile_IdAndVerificationStatus(
+                    document.getProviderProfile().getId(), VerificationStatus.PENDING);
+            if (pendingCount == 0) {
+                emailService.sendProviderVerified(providerUser.getEmail(), providerUser.getName());
             }
-        } catch (Exception e) {
-            log.error("Failed to send verification email: {}", e.getMessage());
+        } else if (status == VerificationStatus.REJECTED) {
+            emailService.sendProviderRejected(providerUser.getEmail(), providerUser.getName(), notes);
         }
 
         return toDto(document);
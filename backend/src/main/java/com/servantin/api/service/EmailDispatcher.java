@@ -0,0 +1,150 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.EmailOutboxMessage;
+import com.servantin.api.domain.event.EmailRequestedEvent;
+import com.servantin.api.domain.model.EmailOutboxStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.exceptions.TemplateEngineException;
+import software.amazon.awssdk.services.ses.model.MessageRejectedException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends emails from the outbox on a small worker pool.
+ *
+ * A freshly enqueued email is claimed and sent right after its transaction commits; everything
+ * else (retries, emails whose fast path found the queue full, leases left by a dead instance) is
+ * picked up by polling the outbox. The worker queue is bounded and polling only claims as many
+ * emails as it has room for, so a slow SES leaves the backlog in the table rather than in memory.
+ */
+@Slf4j
+@Component
+public class EmailDispatcher {
+
+    private final EmailService emailService;
+    private final EmailOutbox emailOutbox;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final Timer sendTimer;
+    private final Timer latencyTimer;
+    private final Counter deferred;
+    private final Counter retried;
+    private final Counter dead;
+
+    public EmailDispatcher(
+            EmailService emailService,
+            EmailOutbox emailOutbox,
+            MeterRegistry meterRegistry,
+            @Value("${app.email.dispatch.worker-threads:4}") int workerThreads,
+            @Value("${app.email.dispatch.queue-capacity:500}") int queueCapacity,
+            @Value("${app.email.outbox.batch-size:50}") int batchSize) {
+        this.emailService = emailService;
+        this.emailOutbox = emailOutbox;
+        this.batchSize = batchSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "email-dispatch-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("email.dispatch.queue.size", executor.getQueue(), BlockingQueue::size)
+                .description("Emails waiting for a dispatch worker")
+                .register(meterRegistry);
+        Gauge.builder("email.dispatch.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Emails being rendered and sent")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("email.dispatch.send")
+                .description("Time to render and send one email")
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("email.dispatch.latency")
+                .description("Time from an email being enqueued to it being sent, retries included")
+                .register(meterRegistry);
+        this.deferred = Counter.builder("email.dispatch.deferred")
+                .description("Emails left to the outbox poll because the dispatch queue was full")
+                .register(meterRegistry);
+        this.retried = Counter.builder("email.dispatch.failures")
+                .tag("outcome", "retry")
+                .description("Failed sends, by whether the email will be retried")
+                .register(meterRegistry);
+        this.dead = Counter.builder("email.dispatch.failures")
+                .tag("outcome", "dead")
+                .description("Failed sends, by whether the email will be retried")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEmailRequested(EmailRequestedEvent event) {
+        try {
+            executor.execute(() -> emailOutbox.claim(event.outboxId()).ifPresent(this::send));
+        } catch (RejectedExecutionException e) {
+            deferred.increment();
+            log.debug("Email dispatch queue full, leaving email {} to the outbox poll", event.outboxId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:5000}")
+    public void pollOutbox() {
+        int room;
+        while ((room = Math.min(batchSize, executor.getQueue().remainingCapacity())) > 0) {
+            List<EmailOutboxMessage> claimed = emailOutbox.claimDue(room);
+            for (EmailOutboxMessage email : claimed) {
+                try {
+                    executor.execute(() -> send(email));
+                } catch (RejectedExecutionException e) {
+                    emailOutbox.release(email.getId());
+                }
+            }
+            if (claimed.size() < room) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Let queued emails go out before the application stops; unsent ones stay in the outbox.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void send(EmailOutboxMessage email) {
+        String sesMessageId;
+        try {
+            sesMessageId = sendTimer.recordCallable(() -> emailService.deliver(email));
+        } catch (Exception e) {
+            // Unknown recipients and broken templates fail the same way every time
+            boolean retryable = !(e instanceof MessageRejectedException || e instanceof TemplateEngineException);
+            EmailOutboxStatus status = emailOutbox.markFailed(email.getId(), e.getMessage(), retryable);
+            (status == EmailOutboxStatus.DEAD ? dead : retried).increment();
+            log.warn("Failed to send '{}' email {} to {}: {}", email.getTemplateName(), email.getId(),
+                    email.getRecipient(), e.getMessage());
+            return;
+        }
+        emailOutbox.markSent(email.getId(), sesMessageId);
+        latencyTimer.record(Duration.between(email.getCreatedAt(), Instant.now()));
+    }
+}
@@ -0,0 +1,148 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.EmailOutboxMessage;
+import com.servantin.api.domain.model.EmailOutboxStatus;
+import com.servantin.api.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The email_outbox table: emails are enqueued in the caller's transaction and claimed by senders.
+ *
+ * Claiming locks due rows with SKIP LOCKED and leases them by moving {@code nextAttemptAt} past the
+ * send, then commits, so no lock or connection is held while SES is called and other instances skip
+ * the row. A sender that dies mid-send leaves the row to be retried once the lease expires, so
+ * delivery is at least once. Failed attempts are retried with exponential backoff until the email
+ * is marked dead.
+ */
+@Slf4j
+@Component
+public class EmailOutbox {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    public EmailOutbox(
+            EmailOutboxRepository outboxRepository,
+            @Value("${app.email.outbox.lease:PT5M}") Duration lease,
+            @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.email.outbox.initial-backoff:PT30S}") Duration initialBackoff,
+            @Value("${app.email.outbox.max-backoff:PT1H}") Duration maxBackoff,
+            @Value("${app.email.outbox.retention:P7D}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+    }
+
+    /**
+     * Add an email to the outbox, in the caller's transaction if there is one.
+     */
+    @Transactional
+    public UUID enqueue(String to, String subject, String templateName, Map<String, Object> variables) {
+        return outboxRepository.save(EmailOutboxMessage.builder()
+                .recipient(to)
+                .subject(subject)
+                .templateName(templateName)
+                .variables(variables)
+                .nextAttemptAt(Instant.now())
+                .build()).getId();
+    }
+
+    /**
+     * Lease up to {@code limit} due emails to the calling sender.
+     */
+    @Transactional
+    public List<EmailOutboxMessage> claimDue(int limit) {
+        Instant now = Instant.now();
+        List<EmailOutboxMessage> claimed = outboxRepository.lockDue(now, limit);
+        claimed.forEach(email -> email.setNextAttemptAt(now.plus(lease)));
+        return claimed;
+    }
+
+    /**
+     * Lease one email to the calling sender, unless it was sent, is not due or another sender holds it.
+     */
+    @Transactional
+    public Optional<EmailOutboxMessage> claim(UUID id) {
+        Instant now = Instant.now();
+        Optional<EmailOutboxMessage> claimed = outboxRepository.lockIfDue(id, now);
+        claimed.ifPresent(email -> email.setNextAttemptAt(now.plus(lease)));
+        return claimed;
+    }
+
+    /**
+     * Hand a claimed email back without counting an attempt, for another sender to pick up now.
+     */
+    @Transactional
+    public void release(UUID id) {
+        outboxRepository.findById(id).ifPresent(email -> email.setNextAttemptAt(Instant.now()));
+    }
+
+    @Transactional
+    public void markSent(UUID id, String sesMessageId) {
+        outboxRepository.findById(id).ifPresent(email -> {
+            email.setStatus(EmailOutboxStatus.SENT);
+            email.setSesMessageId(sesMessageId);
+            email.setSentAt(Instant.now());
+        });
+    }
+
+    /**
+     * Record a failed attempt: schedule a retry, or mark the email dead after a permanent error or
+     * the last allowed attempt.
+     *
+     * @return the email's status after the failure
+     */
+    @Transactional
+    public EmailOutboxStatus markFailed(UUID id, String error, boolean retryable) {
+        EmailOutboxMessage email = outboxRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Outbox email not found"));
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(error);
+        if (!retryable || attempts >= maxAttempts) {
+            email.setStatus(EmailOutboxStatus.DEAD);
+            log.error("Giving up on '{}' email {} to {} after {} attempts: {}", email.getTemplateName(), id,
+                    email.getRecipient(), attempts, error);
+        } else {
+            email.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        }
+        return email.getStatus();
+    }
+
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeSent() {
+        int purged = outboxRepository.deleteByStatusSentBefore(EmailOutboxStatus.SENT, Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} sent emails from the outbox", purged);
+        }
+    }
+
+    /**
+     * Delay before retrying after the {@code attempts}-th failure: the initial backoff, doubled each
+     * attempt, capped at the max backoff.
+     */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = initialBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -1,21 +1,24 @@
 package com.servantin.api.service;
 
+import com.servantin.api.domain.entity.EmailOutboxMessage;
+import com.servantin.api.domain.event.EmailRequestedEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 import software.amazon.awssdk.services.ses.SesClient;
 import software.amazon.awssdk.services.ses.model.*;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * Email service for sending transactional emails via AWS SES.
- * Handles all 13 notification touchpoints identified in the application.
+ * Handles all 14 notification touchpoints identified in the application.
  * 
+ * Emails are written to the {@link EmailOutbox} with the change that triggers them and sent by
+ * {@link EmailDispatcher}, which retries failed sends.
  * When AWS SES is not configured, emails are logged instead of being sent.
  */
 @Slf4j
@@ -23,7 +26,10 @@ import java.util.Map;
 public class EmailService {
 
     private final SesClient sesClient;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRegistry templateRegistry;
+    private final EmailOutbox emailOutbox;
+    private final SesSendRateLimiter sendRateLimiter;
+    private final ApplicationEventPublisher eventPublisher;
     private final boolean emailEnabled;
 
     @Value("${aws.ses.from-email:noreply@servantin.com}")
@@ -38,9 +44,15 @@ public class EmailService {
     @Autowired
     public EmailService(
             @Autowired(required = false) SesClient sesClient,
-            TemplateEngine templateEngine) {
+            EmailTemplateRegistry templateRegistry,
+            EmailOutbox emailOutbox,
+            SesSendRateLimiter sendRateLimiter,
+            ApplicationEventPublisher eventPublisher) {
         this.sesClient = sesClient;
-        this.templateEngine = templateEngine;
+        this.templateRegistry = templateRegistry;
+        this.emailOutbox = emailOutbox;
+        this.sendRateLimiter = sendRateLimiter;
+        this.eventPublisher = eventPublisher;
         this.emailEnabled = sesClient != null;
 
         if (!emailEnabled) {
@@ -51,7 +63,8 @@ public class EmailService {
     }
 
     /**
-     * Send HTML email using Thymeleaf template.
+     * Queue an HTML email rendered from a Thymeleaf template. It is written to the outbox in the
+     * current transaction, so it is sent once that commits and never if it rolls back.
      *
      * @param to           recipient email address
      * @param subject      email subject
@@ -59,54 +72,50 @@ public class EmailService {
      * @param variables    template variables
      */
     public void sendEmail(String to, String subject, String templateName, Map<String, Object> variables) {
-        // Make variables mutable if it isn't already
-        Map<String, Object> mutableVariables = new HashMap<>(variables);
-
-        try {
-            // Add common variables available to all templates
-            mutableVariables.put("frontendUrl", frontendUrl);
+        UUID outboxId = emailOutbox.enqueue(to, subject, templateName, variables);
+        eventPublisher.publishEvent(new EmailRequestedEvent(outboxId));
+    }
 
-            // Process template
-            Context context = new Context();
-            context.setVariables(mutableVariables);
-            String htmlBody = templateEngine.process("email/" + templateName, context);
+    /**
+     * Render and send an email from the outbox. Runs on the email dispatcher.
+     *
+     * @return the SES message ID, or null when SES is not configured and the email was only logged
+     * @throws SesException or a Thymeleaf exception if the email could not be sent
+     */
+    public String deliver(EmailOutboxMessage email) throws InterruptedException {
+        String to = email.getRecipient();
+        String subject = email.getSubject();
+        String templateName = email.getTemplateName();
 
-            if (!emailEnabled) {
-                // Log email instead of sending when SES is not configured
-                log.info("=== EMAIL (not sent - SES not configured) ===");
-                log.info("To: {}", to);
-                log.info("Subject: {}", subject);
-                log.info("Template: {}", templateName);
-                log.debug("Body preview: {}", htmlBody.substring(0, Math.min(200, htmlBody.length())) + "...");
-                return;
-            }
+        String htmlBody = templateRegistry.render(templateName, email.getVariables());
 
-            // Build email request
-            SendEmailRequest request = SendEmailRequest.builder()
-                    .source(String.format("%s <%s>", fromName, fromEmail))
-                    .destination(Destination.builder().toAddresses(to).build())
-                    .message(Message.builder()
-                            .subject(Content.builder().data(subject).charset("UTF-8").build())
-                            .body(Body.builder()
-                                    .html(Content.builder().data(htmlBody).charset("UTF-8").build())
-                                    .build())
-                            .build())
-                    .build();
+        if (!emailEnabled) {
+            // Log email instead of sending when SES is not configured
+            log.info("=== EMAIL (not sent - SES not configured) ===");
+            log.info("To: {}", to);
+            log.info("Subject: {}", subject);
+            log.info("Template: {}", templateName);
+            log.debug("Body preview: {}", htmlBody.substring(0, Math.min(200, htmlBody.length())) + "...");
+            return null;
+        }
 
-            // Send email
-            SendEmailResponse response = sesClient.sendEmail(request);
-            log.info("Email sent successfully to {} - MessageId: {}", to, response.messageId());
+        // Build email request
+        SendEmailRequest request = SendEmailRequest.builder()
+                .source(String.format("%s <%s>", fromName, fromEmail))
+                .destination(Destination.builder().toAddresses(to).build())
+                .message(Message.builder()
+                        .subject(Content.builder().data(subject).charset("UTF-8").build())
+                        .body(Body.builder()
+                                .html(Content.builder().data(htmlBody).charset("UTF-8").build())
+                                .build())
+                        .build())
+                .build();
 
-        } catch (SesException e) {
-            log.error("Failed to send email to {}: {}", to, e.awsErrorDetails().errorMessage(), e);
-            // Don't throw - email failures should not break the application flow
-            // throw new RuntimeException("Failed to send email: " +
-            // e.awsErrorDetails().errorMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error sending email to {}: {}", to, e.getMessage(), e);
-            // Don't throw - email failures should not break the application flow
-            // throw new RuntimeException("Failed to send email", e);
-        }
+        // Send email; failures are retried from the outbox by the dispatcher
+        sendRateLimiter.acquire(1);
+        SendEmailResponse response = sesClient.sendEmail(request);
+        log.info("Email sent successfully to {} - MessageId: {}", to, response.messageId());
+        return response.messageId();
     }
 
     // ==================== Notification Methods ====================
@@ -282,4 +291,21 @@ public class EmailService {
         sendEmail(to, "Provider Verification Update - Servantin", "provider-rejected", variables);
         log.info("Provider verification rejection email sent to {}", to);
     }
+
+    /**
+     * 14. Notify recipient of several new messages in a booking conversation, sent as one digest
+     */
+    public void sendNewMessagesDigest(String to, String recipientName, String senderName,
+            String bookingId, int messageCount, String latestMessagePreview) {
+        Map<String, Object> variables = Map.of(
+                "recipientName", recipientName,
+                "senderName", senderName,
+                "messageCount", messageCount,
+                "messagePreview", latestMessagePreview,
+                "bookingId", bookingId,
+                "bookingLink", frontendUrl + "/dashboard/bookings/" + bookingId);
+        sendEmail(to, messageCount + " New Messages from " + senderName + " - Servantin", "new-messages-digest",
+                variables);
+        log.info("New messages digest ({} messages) sent to {} from {}", messageCount, to, senderName);
+    }
 }
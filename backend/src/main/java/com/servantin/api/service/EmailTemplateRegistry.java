@@ -0,0 +1,121 @@
+package com.servantin.api.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * The email templates under templates/email, parsed once at startup. Layouts are not emails and
+ * are left out.
+ *
+ * Every template is run through the engine when the application starts, which fills Thymeleaf's
+ * parsed-template cache before the first email and fails startup on a template that cannot be
+ * parsed, instead of every email using it ending up dead in the outbox.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRegistry {
+
+    private static final String TEMPLATE_PATTERN = "classpath*:templates/email/*.html";
+
+    // Fragment hosts that only render with content inserted, not as emails on their own
+    private static final Set<String> LAYOUTS = Set.of("layout");
+
+    private final TemplateEngine templateEngine;
+    private final String frontendUrl;
+    private final Set<String> templateNames;
+
+    public EmailTemplateRegistry(
+            TemplateEngine templateEngine,
+            @Value("${app.url.frontend:http://localhost:3000}") String frontendUrl) {
+        this.templateEngine = templateEngine;
+        this.frontendUrl = frontendUrl;
+        this.templateNames = discoverTemplates();
+    }
+
+    /**
+     * Parse every template into the engine's cache. Rendering without variables may fail on some
+     * expressions; only parse errors matter here.
+     */
+    @PostConstruct
+    public void preload() {
+        for (String templateName : templateNames) {
+            try {
+                templateEngine.process(path(templateName), new Context());
+            } catch (TemplateInputException e) {
+                throw new IllegalStateException("Email template '" + templateName + "' cannot be parsed", e);
+            } catch (TemplateProcessingException e) {
+                log.debug("Email template '{}' parsed; sample render without variables failed: {}",
+                        templateName, e.getMessage());
+            }
+        }
+        log.info("Preloaded {} email templates", templateNames.size());
+    }
+
+    /**
+     * Render a template with {@code variables} plus the variables common to all emails.
+     *
+     * @throws TemplateInputException if there is no such template
+     */
+    public String render(String templateName, Map<String, Object> variables) {
+        if (!templateNames.contains(templateName)) {
+            throw new TemplateInputException("Unknown email template '" + templateName + "'");
+        }
+        Context context = new Context(Locale.getDefault(), variables);
+        context.setVariable("frontendUrl", frontendUrl);
+        return templateEngine.process(path(templateName), context);
+    }
+
+    /**
+     * Render a template with each of {@code variableNames} replaced by a {@code {{name}}} placeholder,
+     * giving the HTML of an SES template that SES personalises per recipient. Only suited to
+     * templates that print these variables, not ones that branch or compute on them.
+     */
+    public String renderPlaceholders(String templateName, Collection<String> variableNames) {
+        Map<String, Object> placeholders = variableNames.stream()
+                .collect(Collectors.toMap(name -> name, name -> "{{" + name + "}}"));
+        return render(templateName, placeholders);
+    }
+
+    public Set<String> getTemplateNames() {
+        return templateNames;
+    }
+
+    private static String path(String templateName) {
+        return "email/" + templateName;
+    }
+
+    private static Set<String> discoverTemplates() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(TEMPLATE_PATTERN);
+            return Arrays.stream(resources)
+                    .map(Resource::getFilename)
+                    .filter(Objects::nonNull)
+                    .map(filename -> filename.substring(0, filename.length() - ".html".length()))
+                    .filter(name -> !LAYOUTS.contains(name))
+                    .collect(Collectors.collectingAndThen(Collectors.toCollection(TreeSet::new),
+                            Collections::unmodifiableSortedSet));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list email templates", e);
+        }
+    }
+}
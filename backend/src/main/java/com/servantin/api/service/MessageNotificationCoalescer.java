@@ -0,0 +1,173 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.User;
+import com.servantin.api.domain.event.BookingMessageSentEvent;
+import com.servantin.api.dto.message.MessageDto;
+import com.servantin.api.repository.ConversationParticipantRepository;
+import com.servantin.api.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Emails conversation participants about messages they have not seen, one email per burst.
+ *
+ * Messages are buffered per (recipient, booking) until the conversation has been quiet for the
+ * quiet window, or the first buffered message is older than the max delay, then summarised in a
+ * single email. Nothing is sent if the recipient had the conversation open when a message was
+ * pushed, is connected when the burst closes, or has read the conversation in the meantime.
+ *
+ * Bursts live in memory: after a restart the messages are still stored and counted as unread,
+ * only their email is not sent.
+ */
+@Slf4j
+@Component
+public class MessageNotificationCoalescer {
+
+    private static final int PREVIEW_LENGTH = 100;
+
+    private final Map<Key, Burst> bursts = new ConcurrentHashMap<>();
+    private final ConversationParticipantRepository participantRepository;
+    private final UserRepository userRepository;
+    private final BookingStreamRegistry streamRegistry;
+    private final EmailService emailService;
+    private final Duration quietWindow;
+    private final Duration maxDelay;
+
+    public MessageNotificationCoalescer(
+            ConversationParticipantRepository participantRepository,
+            UserRepository userRepository,
+            BookingStreamRegistry streamRegistry,
+            EmailService emailService,
+            @Value("${notifications.message-digest.quiet-window:PT2M}") Duration quietWindow,
+            @Value("${notifications.message-digest.max-delay:PT10M}") Duration maxDelay) {
+        this.participantRepository = participantRepository;
+        this.userRepository = userRepository;
+        this.streamRegistry = streamRegistry;
+        this.emailService = emailService;
+        this.quietWindow = quietWindow;
+        this.maxDelay = maxDelay;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(BookingMessageSentEvent event) {
+        onMessageSent(event, Instant.now());
+    }
+
+    void onMessageSent(BookingMessageSentEvent event, Instant now) {
+        UUID recipientId = event.recipientId();
+        if (recipientId == null || streamRegistry.isSubscribed(event.bookingId(), recipientId)) {
+            // No one to notify yet, or the message was pushed to the open conversation
+            return;
+        }
+        bursts.compute(new Key(recipientId, event.bookingId()),
+                (key, burst) -> (burst != null ? burst : new Burst(now)).add(event.message(), now));
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.message-digest.sweep-interval-ms:15000}")
+    public void flushDue() {
+        flushDue(Instant.now());
+    }
+
+    /**
+     * Send what is still buffered, so a deploy does not swallow the notifications of a burst.
+     */
+    @PreDestroy
+    public void flushAll() {
+        flushDue(Instant.MAX);
+    }
+
+    void flushDue(Instant now) {
+        for (Key key : bursts.keySet()) {
+            // Detach the burst only if it is still due; a message arriving meanwhile keeps it open
+            AtomicReference<Burst> due = new AtomicReference<>();
+            bursts.computeIfPresent(key, (k, burst) -> {
+                if (!burst.isDue(now)) {
+                    return burst;
+                }
+                due.set(burst);
+                return null;
+            });
+            if (due.get() != null) {
+                notify(key, due.get());
+            }
+        }
+    }
+
+    int pendingCount() {
+        return bursts.size();
+    }
+
+    private void notify(Key key, Burst burst) {
+        // Email failures must not affect the conversation itself
+        try {
+            if (participantRepository.findUnreadCount(key.bookingId(), key.recipientId()) == 0) {
+                log.debug("User {} already read booking {}, skipping email", key.recipientId(), key.bookingId());
+                return;
+            }
+            if (streamRegistry.isSubscribed(key.bookingId(), key.recipientId())) {
+                log.debug("User {} is viewing booking {}, skipping email", key.recipientId(), key.bookingId());
+                return;
+            }
+            User recipient = userRepository.findById(key.recipientId()).orElse(null);
+            if (recipient == null) {
+                return;
+            }
+
+            if (burst.messageCount == 1) {
+                emailService.sendNewMessageNotification(recipient.getEmail(), recipient.getName(),
+                        burst.senderName, key.bookingId().toString(), burst.latestPreview);
+            } else {
+                emailService.sendNewMessagesDigest(recipient.getEmail(), recipient.getName(),
+                        burst.senderName, key.bookingId().toString(), burst.messageCount, burst.latestPreview);
+            }
+        } catch (Exception e) {
+            log.error("Failed to send new message email notification for booking {}: {}", key.bookingId(), e.getMessage());
+        }
+    }
+
+    private record Key(UUID recipientId, UUID bookingId) {
+    }
+
+    /**
+     * Messages buffered for one recipient; only touched inside the map's compute functions.
+     */
+    private final class Burst {
+        private final Instant firstAt;
+        private Instant lastAt;
+        private int messageCount;
+        private String senderName;
+        private String latestPreview;
+
+        private Burst(Instant firstAt) {
+            this.firstAt = firstAt;
+        }
+
+        private Burst add(MessageDto message, Instant now) {
+            lastAt = now;
+            messageCount++;
+            senderName = message.getSenderName();
+            latestPreview = message.getContent().length() > PREVIEW_LENGTH
+                    ? message.getContent().substring(0, PREVIEW_LENGTH) + "..."
+                    : message.getContent();
+            return this;
+        }
+
+        private boolean isDue(Instant now) {
+            return now == Instant.MAX
+                    || !lastAt.plus(quietWindow).isAfter(now)
+                    || !firstAt.plus(maxDelay).isAfter(now);
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package com.servantin.api.service;
 
 import com.servantin.api.domain.entity.Booking;
+import com.servantin.api.domain.entity.ConversationParticipant;
 import com.servantin.api.domain.entity.Message;
 import com.servantin.api.domain.entity.User;
+import com.servantin.api.domain.event.BookingMessageSentEvent;
+import com.servantin.api.domain.event.ConversationReadEvent;
+import com.servantin.api.domain.model.BookingStatus;
+import com.servantin.api.dto.common.CursorPage;
+import com.servantin.api.dto.message.ConversationSummaryDto;
+import com.servantin.api.dto.message.InboxRequest;
 import com.servantin.api.dto.message.MessageDto;
+import com.servantin.api.dto.message.MessageHistoryRequest;
 import com.servantin.api.dto.message.SendMessageRequest;
+import com.servantin.api.exception.BadRequestException;
 import com.servantin.api.repository.BookingRepository;
+import com.servantin.api.repository.ConversationParticipantRepository;
 import com.servantin.api.repository.MessageRepository;
 import com.servantin.api.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,12 +38,21 @@ import java.util.UUID;
 public class MessageService {
 
     private final MessageRepository messageRepository;
+    private final ConversationParticipantRepository participantRepository;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
-    private final EmailService emailService;
+    private final BookingStreamRegistry streamRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * One page of a booking's conversation, oldest message first: the latest messages, or the ones
+     * before / after a cursor. {@code nextCursor} continues in the same direction.
+     */
     @Transactional(readOnly = true)
-    public List<MessageDto> getBookingMessages(UUID bookingId, UUID userId) {
+    public CursorPage<MessageDto> getBookingMessages(UUID bookingId, UUID userId, MessageHistoryRequest request) {
+        if (request.getBefore() != null && request.getAfter() != null) {
+            throw new BadRequestException("Only one of before and after may be set", "INVALID_CURSOR");
+        }
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
@@ -37,11 +62,83 @@ public class MessageService {
             throw new RuntimeException("Access denied to this booking");
         }
 
-        return messageRepository.findByBookingIdOrderByCreatedAtAsc(bookingId).stream()
-                .map(m -> toDto(m, userId))
+        int limit = request.getLimit() != null ? request.getLimit() : 50;
+        CursorCodec.Position before = CursorCodec.Position.decode(request.getBefore());
+        CursorCodec.Position after = CursorCodec.Position.decode(request.getAfter());
+
+        // Fetch one extra row to tell whether more messages follow in the paging direction
+        PageRequest pageable = PageRequest.of(0, limit + 1);
+        List<Message> messages = after != null
+                ? messageRepository.findAfter(bookingId, after.createdAt(), after.id(), pageable)
+                : before != null
+                        ? messageRepository.findBefore(bookingId, before.createdAt(), before.id(), pageable)
+                        : messageRepository.findLatest(bookingId, pageable);
+        boolean hasMore = messages.size() > limit;
+        if (hasMore) {
+            messages = messages.subList(0, limit);
+        }
+        Message last = messages.isEmpty() ? null : messages.get(messages.size() - 1);
+        if (after == null) {
+            messages = messages.reversed();
+        }
+
+        List<ConversationParticipant> participants = participantRepository.findByIdBookingId(bookingId);
+        return CursorPage.<MessageDto>builder()
+                .content(messages.stream().map(m -> toDto(m, userId, participants)).toList())
+                .nextCursor(hasMore ? new CursorCodec.Position(last.getCreatedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * One page of a user's conversations, most recently active first, each with its latest message
+     * and the user's unread count. Built by a single query, whatever the number of bookings.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ConversationSummaryDto> getInbox(UUID userId, InboxRequest request) {
+        int pageSize = request.getPageSize() != null ? request.getPageSize() : 20;
+        CursorCodec.Position cursor = CursorCodec.Position.decode(request.getCursor());
+
+        // Fetch one extra row to tell whether another page follows
+        PageRequest pageable = PageRequest.of(0, pageSize + 1);
+        List<Object[]> rows = cursor == null
+                ? messageRepository.findInbox(userId, pageable)
+                : messageRepository.findInboxBefore(userId, cursor.createdAt(), cursor.id(), pageable);
+        boolean hasMore = rows.size() > pageSize;
+        List<ConversationSummaryDto> content = rows.stream()
+                .limit(pageSize)
+                .map(row -> toConversationSummary(row, userId))
                 .toList();
+
+        ConversationSummaryDto last = content.isEmpty() ? null : content.get(content.size() - 1);
+        return CursorPage.<ConversationSummaryDto>builder()
+                .content(content)
+                .nextCursor(hasMore ? new CursorCodec.Position(last.getLastActivityAt(), last.getBookingId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
+    /**
+     * Subscribe a participant to a booking's new messages, read receipts and status changes.
+     */
+    @Transactional(readOnly = true)
+    public SseEmitter subscribe(UUID bookingId, UUID userId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+
+        // Verify user has access
+        if (!booking.getClient().getId().equals(userId) &&
+                (booking.getProvider() == null || !booking.getProvider().getId().equals(userId))) {
+            throw new RuntimeException("Access denied to this booking");
+        }
+
+        return streamRegistry.subscribe(bookingId, userId);
+    }
+
+    /**
+     * Store a message and bump the recipient's unread counter. The recipient's email is sent later,
+     * by {@link MessageNotificationCoalescer}, once the conversation goes quiet.
+     */
     @Transactional
     public MessageDto sendMessage(UUID bookingId, UUID senderId, SendMessageRequest request) {
         Booking booking = bookingRepository.findById(bookingId)
@@ -60,55 +157,98 @@ public class MessageService {
                 .booking(booking)
                 .sender(sender)
                 .content(request.getContent())
-                .isRead(false)
                 .build();
 
         message = messageRepository.save(message);
         log.info("User {} sent message in booking {}", senderId, bookingId);
 
-        // Send email notification to the recipient (don't fail message sending if email fails)
-        try {
-            boolean senderIsClient = booking.getClient().getId().equals(senderId);
-            User recipient = senderIsClient ? booking.getProvider() : booking.getClient();
-
-            if (recipient != null) {
-                String messagePreview = request.getContent().length() > 100
-                        ? request.getContent().substring(0, 100) + "..."
-                        : request.getContent();
-                emailService.sendNewMessageNotification(
-                        recipient.getEmail(),
-                        recipient.getName(),
-                        sender.getName(),
-                        booking.getId().toString(),
-                        messagePreview
-                );
-            }
-        } catch (Exception e) {
-            log.error("Failed to send new message email notification for booking {}: {}", bookingId, e.getMessage());
+        boolean senderIsClient = booking.getClient().getId().equals(senderId);
+        User recipient = senderIsClient ? booking.getProvider() : booking.getClient();
+        if (recipient != null) {
+            participantRepository.incrementUnread(bookingId, recipient.getId());
         }
 
-        return toDto(message, senderId);
+        MessageDto dto = toDto(message, senderId, List.of());
+        eventPublisher.publishEvent(new BookingMessageSentEvent(bookingId, recipient != null ? recipient.getId() : null, dto));
+        return dto;
     }
 
     @Transactional
     public void markMessagesAsRead(UUID bookingId, UUID userId) {
-        int updated = messageRepository.markAsRead(bookingId, userId);
-        log.debug("Marked {} messages as read for user {} in booking {}", updated, userId, bookingId);
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+
+        // Verify user has access before touching read state or notifying the participants
+        if (!booking.getClient().getId().equals(userId) &&
+                (booking.getProvider() == null || !booking.getProvider().getId().equals(userId))) {
+            throw new RuntimeException("Access denied to this booking");
+        }
+
+        // Reset the counter first: its row lock holds back concurrent senders until the watermark is set,
+        // so messages committed after the lookup below count as unread again
+        participantRepository.resetUnread(bookingId, userId);
+        messageRepository.findFirstByBookingIdOrderByCreatedAtDescIdDesc(bookingId).ifPresent(latest -> {
+            int advanced = participantRepository.advanceReadWatermark(bookingId, userId, latest.getCreatedAt(),
+                    latest.getId(), Instant.now());
+            if (advanced > 0) {
+                eventPublisher.publishEvent(
+                        new ConversationReadEvent(bookingId, userId, latest.getCreatedAt(), latest.getId()));
+                log.debug("User {} read booking {} up to message {}", userId, bookingId, latest.getId());
+            }
+        });
     }
 
     @Transactional(readOnly = true)
     public long countUnreadMessages(UUID bookingId, UUID userId) {
-        return messageRepository.countUnreadMessages(bookingId, userId);
+        return participantRepository.findUnreadCount(bookingId, userId);
+    }
+
+    /**
+     * @param row an inbox row, columns as documented on {@link MessageRepository#INBOX_QUERY}
+     */
+    private ConversationSummaryDto toConversationSummary(Object[] row, UUID userId) {
+        return ConversationSummaryDto.builder()
+                .bookingId((UUID) row[0])
+                .bookingStatus(BookingStatus.valueOf((String) row[1]))
+                .categoryName((String) row[2])
+                .counterpartId((UUID) row[3])
+                .counterpartName((String) row[4])
+                .lastMessageId((UUID) row[5])
+                .lastMessageIsOwn(userId.equals(row[6]))
+                .lastMessagePreview((String) row[7])
+                .lastActivityAt(toInstant(row[8]))
+                .unreadCount(((Number) row[9]).intValue())
+                .build();
+    }
+
+    /**
+     * Native queries return timestamptz columns as OffsetDateTime or Timestamp depending on the Hibernate type mapping
+     */
+    private static Instant toInstant(Object value) {
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        return (Instant) value;
     }
 
-    private MessageDto toDto(Message message, UUID currentUserId) {
+    /**
+     * @param participants conversation participants; a message is read once another participant's watermark covers it
+     */
+    private MessageDto toDto(Message message, UUID currentUserId, List<ConversationParticipant> participants) {
+        UUID senderId = message.getSender().getId();
+        boolean isRead = participants.stream()
+                .anyMatch(p -> !p.getId().getUserId().equals(senderId)
+                        && p.hasRead(message.getCreatedAt(), message.getId()));
         return MessageDto.builder()
                 .id(message.getId())
                 .bookingId(message.getBooking().getId())
                 .senderId(message.getSender().getId())
                 .senderName(message.getSender().getName())
                 .content(message.getContent())
-                .isRead(message.getIsRead())
+                .isRead(isRead)
                 .isOwnMessage(message.getSender().getId().equals(currentUserId))
                 .createdAt(message.getCreatedAt())
                 .build();
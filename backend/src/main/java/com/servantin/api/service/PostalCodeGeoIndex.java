@@ -0,0 +1,147 @@
+package com.servantin.api.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * In-memory spatial index of Swiss postal-code centroids, loaded from the bundled
+ * {@code geo/ch-postal-codes.csv} dataset.
+ *
+ * Centroids are bucketed into a fixed grid of {@value #CELL_DEGREES} degree cells, so a radius
+ * query only looks at the cells overlapping the radius' bounding box instead of every postal code.
+ */
+@Slf4j
+@Component
+public class PostalCodeGeoIndex {
+
+    private static final String DATASET = "geo/ch-postal-codes.csv";
+    private static final double CELL_DEGREES = 0.1;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE_LATITUDE = 111.32;
+
+    public record GeoPoint(double latitude, double longitude) {
+    }
+
+    private record Centroid(String postalCode, GeoPoint location) {
+    }
+
+    private final Map<String, GeoPoint> byPostalCode = new HashMap<>();
+    private final Map<String, GeoPoint> byLocality = new HashMap<>();
+    private final Map<Long, List<Centroid>> cells = new HashMap<>();
+
+    public PostalCodeGeoIndex() {
+        this(new ClassPathResource(DATASET));
+    }
+
+    PostalCodeGeoIndex(Resource dataset) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            boolean header = true;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] columns = line.split(",");
+                String postalCode = columns[0].trim();
+                GeoPoint location = new GeoPoint(Double.parseDouble(columns[3]), Double.parseDouble(columns[4]));
+                byPostalCode.put(postalCode, location);
+                // Localities spanning several postal codes resolve to the first one listed
+                byLocality.putIfAbsent(normalizeLocality(columns[1]), location);
+                cells.computeIfAbsent(cellKey(location.latitude(), location.longitude()), k -> new ArrayList<>())
+                        .add(new Centroid(postalCode, location));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load postal code dataset " + dataset, e);
+        }
+        log.info("Postal code geo index loaded with {} postal codes", byPostalCode.size());
+    }
+
+    /**
+     * Resolve a location by postal code, falling back to the locality name.
+     */
+    public Optional<GeoPoint> locate(String postalCode, String locality) {
+        if (postalCode != null) {
+            GeoPoint location = byPostalCode.get(postalCode.trim());
+            if (location != null) {
+                return Optional.of(location);
+            }
+        }
+        return locality != null
+                ? Optional.ofNullable(byLocality.get(normalizeLocality(locality)))
+                : Optional.empty();
+    }
+
+    /**
+     * Find every known postal code whose centroid lies within {@code radiusKm} of {@code center}.
+     *
+     * @return distance in km by postal code, nearest first
+     */
+    public LinkedHashMap<String, Double> postalCodesWithin(GeoPoint center, double radiusKm) {
+        double latitudeDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double longitudeDelta = radiusKm
+                / (KM_PER_DEGREE_LATITUDE * Math.max(0.01, Math.cos(Math.toRadians(center.latitude()))));
+        long minLatCell = cell(center.latitude() - latitudeDelta);
+        long maxLatCell = cell(center.latitude() + latitudeDelta);
+        long minLonCell = cell(center.longitude() - longitudeDelta);
+        long maxLonCell = cell(center.longitude() + longitudeDelta);
+
+        List<Map.Entry<String, Double>> inRange = new ArrayList<>();
+        for (long latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (long lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                for (Centroid centroid : cells.getOrDefault(cellKey(latCell, lonCell), List.of())) {
+                    double distance = distanceKm(center, centroid.location());
+                    if (distance <= radiusKm) {
+                        inRange.add(Map.entry(centroid.postalCode(), distance));
+                    }
+                }
+            }
+        }
+        inRange.sort(Map.Entry.comparingByValue());
+
+        LinkedHashMap<String, Double> result = new LinkedHashMap<>();
+        inRange.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    /**
+     * Great-circle (haversine) distance in km.
+     */
+    public static double distanceKm(GeoPoint from, GeoPoint to) {
+        double dLat = Math.toRadians(to.latitude() - from.latitude());
+        double dLon = Math.toRadians(to.longitude() - from.longitude());
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(from.latitude())) * Math.cos(Math.toRadians(to.latitude()))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static long cell(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return cellKey(cell(latitude), cell(longitude));
+    }
+
+    private static long cellKey(long latCell, long lonCell) {
+        return latCell << 32 | (lonCell & 0xffffffffL);
+    }
+
+    private static String normalizeLocality(String locality) {
+        return locality.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,156 @@
+package com.servantin.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.servantin.api.domain.event.ProviderAvailabilityOverrideChangedEvent;
+import com.servantin.api.domain.event.ProviderMatchIndexUpdatedEvent;
+import com.servantin.api.domain.model.TimeSlot;
+import com.servantin.api.dto.common.CursorPage;
+import com.servantin.api.dto.provider.ProviderMatchDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of match result pages, keyed by the normalised search.
+ *
+ * Every entry remembers the providers that matched its category and location, before the
+ * availability filter. When a provider changes, only the entries that listed it, or that it
+ * would match in its new state, are dropped:
+ * <ul>
+ * <li>profile, pricing, verification and rating changes arrive once {@link ProviderMatchIndex} has
+ * been refreshed ({@link ProviderMatchIndexUpdatedEvent});</li>
+ * <li>availability override changes only drop entries searching that date, or the date an
+ * update moved the override away from.</li>
+ * </ul>
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics tagged {@code cache=providerMatches}.
+ */
+@Slf4j
+@Component
+public class ProviderMatchCache {
+
+    public static final String CACHE_NAME = "providerMatches";
+
+    private final ProviderMatchIndex matchIndex;
+    private final PostalCodeGeoIndex geoIndex;
+    private final Cache<Key, Entry> entries;
+    // Bumped before every invalidation, so results computed concurrently with it are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Normalised match search; the preferred time is reduced to its date and time slot.
+     */
+    public record Key(UUID categoryId, String postalCode, String city, Double radiusKm,
+            LocalDate date, TimeSlot timeSlot, int pageSize, String cursor) {
+
+        public Key {
+            postalCode = postalCode == null ? "" : postalCode.trim();
+            city = city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A cached page and the profile IDs that matched category and location when it was computed.
+     */
+    public record Entry(CursorPage<ProviderMatchDto> page, Set<UUID> candidateIds) {
+    }
+
+    public ProviderMatchCache(
+            ProviderMatchIndex matchIndex,
+            PostalCodeGeoIndex geoIndex,
+            MeterRegistry meterRegistry,
+            @Value("${matching.result-cache.max-size:10000}") long maxSize,
+            @Value("${matching.result-cache.expire-after-write:PT5M}") Duration expireAfterWrite) {
+        this.matchIndex = matchIndex;
+        this.geoIndex = geoIndex;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+    }
+
+    /**
+     * Return the cached page for {@code key}, computing and caching it on a miss.
+     */
+    public CursorPage<ProviderMatchDto> get(Key key, Supplier<Entry> loader) {
+        Entry cached = entries.getIfPresent(key);
+        if (cached != null) {
+            return cached.page();
+        }
+        long generation = invalidations.get();
+        Entry computed = loader.get();
+        entries.put(key, computed);
+        if (invalidations.get() != generation) {
+            // An invalidation ran while computing; the result may predate it
+            entries.invalidate(key);
+        }
+        return computed.page();
+    }
+
+    @EventListener
+    public void onMatchIndexUpdated(ProviderMatchIndexUpdatedEvent event) {
+        List<ProviderMatchIndex.IndexedProvider> current = event.profileIds().stream()
+                .map(matchIndex::get)
+                .filter(Objects::nonNull)
+                .toList();
+        invalidate(key -> true, event.profileIds(), current);
+    }
+
+    // Runs after AvailabilityCalendarResolver has evicted the provider's resolved days
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOverrideChanged(ProviderAvailabilityOverrideChangedEvent event) {
+        Set<LocalDate> dates = event.dates();
+        invalidate(key -> key.date() != null && dates.contains(key.date()), Set.of(event.profileId()), List.of());
+    }
+
+    /**
+     * Drop the entries that listed one of the providers, or that one of them matches in its current state.
+     *
+     * @param affected entries the change can affect at all
+     */
+    private void invalidate(Predicate<Key> affected, Collection<UUID> profileIds,
+            List<ProviderMatchIndex.IndexedProvider> current) {
+        invalidations.incrementAndGet();
+        int before = entries.asMap().size();
+        entries.asMap().entrySet().removeIf(entry -> affected.test(entry.getKey())
+                && (profileIds.stream().anyMatch(entry.getValue().candidateIds()::contains)
+                        || current.stream().anyMatch(provider -> couldMatch(entry.getKey(), provider))));
+        log.debug("Invalidated {} cached match pages for profiles {}", before - entries.asMap().size(), profileIds);
+    }
+
+    private boolean couldMatch(Key key, ProviderMatchIndex.IndexedProvider provider) {
+        if (!provider.categoryIds().contains(key.categoryId())) {
+            return false;
+        }
+        boolean sameCity = provider.cities().stream()
+                .anyMatch(city -> city != null && city.trim().toLowerCase(Locale.ROOT).equals(key.city()));
+        boolean samePostalCode = provider.postalCodes().stream()
+                .anyMatch(postalCode -> postalCode != null && postalCode.trim().equals(key.postalCode()));
+        if (sameCity || samePostalCode || key.radiusKm() == null) {
+            return sameCity || samePostalCode;
+        }
+        Optional<PostalCodeGeoIndex.GeoPoint> center = geoIndex.locate(key.postalCode(), key.city());
+        // Unknown centres were searched by exact match, already checked above
+        return center.isPresent() && provider.postalCodes().stream()
+                .map(postalCode -> geoIndex.locate(postalCode, null))
+                .flatMap(Optional::stream)
+                .anyMatch(location -> PostalCodeGeoIndex.distanceKm(center.get(), location) <= key.radiusKm());
+    }
+}
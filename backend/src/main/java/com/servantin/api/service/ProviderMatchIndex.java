@@ -0,0 +1,312 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.model.AvailabilityMask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Resident inverted index used by provider matching.
+ *
+ * Every indexed provider gets a dense integer ordinal. Postings are kept as bitsets over those
+ * ordinals: category -> postal code / city -> providers. A match is then a handful of bitset
+ * unions, without touching the database. Availability on a date depends on overrides as well as
+ * the weekly schedule, so it is resolved by {@link AvailabilityCalendarResolver} from the weekly
+ * masks kept here.
+ *
+ * The index is populated by {@link ProviderMatchIndexLoader} at startup and refreshed per provider
+ * after profile changes commit.
+ */
+@Slf4j
+@Component
+public class ProviderMatchIndex {
+
+    // Upper bound for creation timestamps in the score (2^40 s after 1970 is far beyond any real date)
+    private static final long SENIORITY_EPOCH_SECONDS = (1L << 40) - 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final List<IndexedProvider> providers = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private final Map<UUID, CategoryPostings> categories = new HashMap<>();
+
+    /**
+     * Snapshot of the matching attributes of one provider profile.
+     *
+     * @param averageRating    average rating, or null when the provider has not been rated
+     * @param availabilityMask weekly schedule, see {@link AvailabilityMask}
+     */
+    public record IndexedProvider(
+            UUID profileId,
+            boolean verified,
+            Instant createdAt,
+            Double averageRating,
+            Set<UUID> categoryIds,
+            Set<String> postalCodes,
+            Set<String> cities,
+            int availabilityMask) {
+
+        /**
+         * Composite ranking score, higher is better: verified first, then average rating
+         * (two decimals), then seniority (older profiles first).
+         */
+        public long score() {
+            long verifiedBit = verified ? 1L : 0L;
+            long rating = averageRating != null ? Math.round(averageRating * 100) : 0L;
+            long seniority = createdAt != null ? SENIORITY_EPOCH_SECONDS - createdAt.getEpochSecond() : 0L;
+            return verifiedBit << 62 | rating << 40 | Math.max(0L, seniority);
+        }
+    }
+
+    /**
+     * Find provider profile IDs offering the category at the postal code or city.
+     *
+     * @return unordered candidates with their ranking score
+     */
+    public List<ProviderMatchRanker.RankedProvider> match(
+            UUID categoryId, String postalCode, String city) {
+        lock.readLock().lock();
+        try {
+            CategoryPostings postings = categories.get(categoryId);
+            if (postings == null) {
+                return List.of();
+            }
+
+            BitSet result = new BitSet();
+            BitSet byPostalCode = postings.byPostalCode.get(normalizePostalCode(postalCode));
+            if (byPostalCode != null) {
+                result.or(byPostalCode);
+            }
+            BitSet byCity = postings.byCity.get(normalizeCity(city));
+            if (byCity != null) {
+                result.or(byCity);
+            }
+
+            List<ProviderMatchRanker.RankedProvider> matches = new ArrayList<>(result.cardinality());
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                IndexedProvider provider = providers.get(ordinal);
+                matches.add(new ProviderMatchRanker.RankedProvider(provider.profileId(), 0, provider.score()));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find provider profile IDs offering the category at the postal code or city, or in any of the
+     * given nearby postal codes. Each provider is reported once, at the distance of its nearest postal
+     * code; matches at the requested postal code or city count as distance 0, so the result always
+     * includes what {@link #match} would return.
+     *
+     * @param distanceKmByPostalCode postal codes to search, iterated nearest first
+     * @return unordered candidates with their distance and ranking score
+     */
+    public List<ProviderMatchRanker.RankedProvider> matchNearby(
+            UUID categoryId, String postalCode, String city, Map<String, Double> distanceKmByPostalCode) {
+        lock.readLock().lock();
+        try {
+            CategoryPostings postings = categories.get(categoryId);
+            if (postings == null) {
+                return List.of();
+            }
+            BitSet seen = new BitSet();
+            List<ProviderMatchRanker.RankedProvider> matches = new ArrayList<>();
+            collectNearby(postings.byCity.get(normalizeCity(city)), 0, seen, matches);
+            collectNearby(postings.byPostalCode.get(normalizePostalCode(postalCode)), 0, seen, matches);
+            for (Map.Entry<String, Double> entry : distanceKmByPostalCode.entrySet()) {
+                int distanceMeters = (int) Math.round(entry.getValue() * 1000);
+                collectNearby(postings.byPostalCode.get(normalizePostalCode(entry.getKey())),
+                        distanceMeters, seen, matches);
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectNearby(BitSet posting, int distanceMeters, BitSet seen,
+            List<ProviderMatchRanker.RankedProvider> matches) {
+        if (posting == null) {
+            return;
+        }
+        BitSet fresh = (BitSet) posting.clone();
+        fresh.andNot(seen);
+        seen.or(fresh);
+        for (int ordinal = fresh.nextSetBit(0); ordinal >= 0; ordinal = fresh.nextSetBit(ordinal + 1)) {
+            IndexedProvider provider = providers.get(ordinal);
+            matches.add(new ProviderMatchRanker.RankedProvider(provider.profileId(), distanceMeters, provider.score()));
+        }
+    }
+
+    /**
+     * Insert or replace the postings of a provider.
+     */
+    public void put(IndexedProvider provider) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(provider.profileId());
+            if (existing != null) {
+                unindex(existing);
+            }
+            int ordinal = existing != null ? existing : allocateOrdinal();
+            ordinals.put(provider.profileId(), ordinal);
+            providers.set(ordinal, provider);
+            index(ordinal, provider);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop a provider from every posting list.
+     */
+    public void remove(UUID profileId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(profileId);
+            if (ordinal != null) {
+                unindex(ordinal);
+                providers.set(ordinal, null);
+                freeOrdinals.push(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the whole index content, e.g. after a full reload from the database.
+     */
+    public void replaceAll(Collection<IndexedProvider> snapshot) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            providers.clear();
+            freeOrdinals.clear();
+            categories.clear();
+            for (IndexedProvider provider : snapshot) {
+                int ordinal = allocateOrdinal();
+                ordinals.put(provider.profileId(), ordinal);
+                providers.set(ordinal, provider);
+                index(ordinal, provider);
+            }
+            log.info("Provider match index loaded with {} providers across {} categories",
+                    ordinals.size(), categories.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Currently indexed entry for a profile, or null when the profile is not indexed.
+     */
+    public IndexedProvider get(UUID profileId) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(profileId);
+            return ordinal != null ? providers.get(ordinal) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Weekly availability masks of the given providers; providers not indexed are omitted.
+     */
+    public Map<UUID, Integer> availabilityMasks(Collection<UUID> profileIds) {
+        lock.readLock().lock();
+        try {
+            Map<UUID, Integer> masks = new HashMap<>();
+            for (UUID profileId : profileIds) {
+                Integer ordinal = ordinals.get(profileId);
+                if (ordinal != null) {
+                    masks.put(profileId, providers.get(ordinal).availabilityMask());
+                }
+            }
+            return masks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int allocateOrdinal() {
+        if (!freeOrdinals.isEmpty()) {
+            return freeOrdinals.pop();
+        }
+        providers.add(null);
+        return providers.size() - 1;
+    }
+
+    private void index(int ordinal, IndexedProvider provider) {
+        for (UUID categoryId : provider.categoryIds()) {
+            CategoryPostings postings = categories.computeIfAbsent(categoryId, id -> new CategoryPostings());
+            for (String postalCode : provider.postalCodes()) {
+                postings.byPostalCode.computeIfAbsent(normalizePostalCode(postalCode), k -> new BitSet()).set(ordinal);
+            }
+            for (String city : provider.cities()) {
+                postings.byCity.computeIfAbsent(normalizeCity(city), k -> new BitSet()).set(ordinal);
+            }
+        }
+    }
+
+    private void unindex(int ordinal) {
+        IndexedProvider previous = providers.get(ordinal);
+        if (previous == null) {
+            return;
+        }
+        for (UUID categoryId : previous.categoryIds()) {
+            CategoryPostings postings = categories.get(categoryId);
+            if (postings == null) {
+                continue;
+            }
+            for (String postalCode : previous.postalCodes()) {
+                clear(postings.byPostalCode, normalizePostalCode(postalCode), ordinal);
+            }
+            for (String city : previous.cities()) {
+                clear(postings.byCity, normalizeCity(city), ordinal);
+            }
+            if (postings.byPostalCode.isEmpty() && postings.byCity.isEmpty()) {
+                categories.remove(categoryId);
+            }
+        }
+    }
+
+    private static void clear(Map<String, BitSet> postings, String key, int ordinal) {
+        BitSet bits = postings.get(key);
+        if (bits != null) {
+            bits.clear(ordinal);
+            if (bits.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static String normalizePostalCode(String postalCode) {
+        return postalCode == null ? "" : postalCode.trim();
+    }
+
+    private static String normalizeCity(String city) {
+        return city == null ? "" : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class CategoryPostings {
+        private final Map<String, BitSet> byPostalCode = new HashMap<>();
+        private final Map<String, BitSet> byCity = new HashMap<>();
+    }
+}
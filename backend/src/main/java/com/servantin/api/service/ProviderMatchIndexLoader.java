@@ -0,0 +1,205 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.ProviderRatingStats;
+import com.servantin.api.domain.event.ProviderMatchIndexUpdatedEvent;
+import com.servantin.api.domain.event.ProviderProfileChangedEvent;
+import com.servantin.api.repository.ProviderLocationRepository;
+import com.servantin.api.repository.ProviderProfileRepository;
+import com.servantin.api.repository.ProviderRatingStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@link ProviderMatchIndex} in sync with the database.
+ *
+ * The full index is built once before the application starts serving requests, using scalar
+ * queries in batches of profile IDs. Afterwards each committed profile change reloads only the
+ * affected provider, and providers whose rating aggregates changed are picked up by a periodic poll
+ * (ratings are aggregated by a database trigger, so there is no application event for them).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProviderMatchIndexLoader implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 500;
+    // Re-read a short window before the last seen update, for rows committed by long transactions
+    private static final Duration RATING_REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final ProviderMatchIndex matchIndex;
+    private final ProviderProfileRepository providerProfileRepository;
+    private final ProviderLocationRepository providerLocationRepository;
+    private final ProviderRatingStatsRepository ratingStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Latest updated_at read from provider_rating_stats (database clock), null while there are none
+    private volatile Instant ratingWatermark;
+    // updated_at already applied per provider within the overlap window, so re-read rows are skipped
+    private final Map<UUID, Instant> appliedRatingUpdates = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Reload every provider profile into a fresh index.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        // Taken before loading, so aggregates changed during the rebuild are polled again
+        Instant latestRatingUpdate = ratingStatsRepository.findMaxUpdatedAt();
+        appliedRatingUpdates.clear();
+        ratingWatermark = null;
+        if (latestRatingUpdate != null) {
+            markApplied(ratingStatsRepository.findByUpdatedAtAfter(latestRatingUpdate.minus(RATING_REFRESH_OVERLAP)));
+        }
+        List<UUID> ids = providerProfileRepository.findAllIds();
+        List<ProviderMatchIndex.IndexedProvider> snapshot = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            snapshot.addAll(load(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))).values());
+        }
+        matchIndex.replaceAll(snapshot);
+        log.info("Provider match index rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onProviderProfileChanged(ProviderProfileChangedEvent event) {
+        reload(List.of(event.profileId()));
+        log.debug("Provider match index refreshed for profile {}", event.profileId());
+    }
+
+    /**
+     * Re-rank providers whose rating aggregates changed since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${matching.rating-refresh-interval-ms:30000}")
+    @Transactional(readOnly = true)
+    public void refreshRatings() {
+        Instant watermark = ratingWatermark;
+        List<ProviderRatingStats> read = watermark != null
+                ? ratingStatsRepository.findByUpdatedAtAfter(watermark.minus(RATING_REFRESH_OVERLAP))
+                : ratingStatsRepository.findAll();
+        List<ProviderRatingStats> changed = read.stream()
+                .filter(stats -> !stats.getUpdatedAt().equals(appliedRatingUpdates.get(stats.getProviderId())))
+                .toList();
+        markApplied(read);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        List<UUID> profileIds = providerProfileRepository.findIdsByUserIds(
+                changed.stream().map(ProviderRatingStats::getProviderId).toList());
+        reload(profileIds);
+        log.debug("Provider match index re-ranked {} providers after rating changes", profileIds.size());
+    }
+
+    /**
+     * Record aggregates as applied and advance the watermark to the latest of them, forgetting
+     * providers whose last update fell out of the overlap window.
+     */
+    private void markApplied(List<ProviderRatingStats> stats) {
+        Instant latest = ratingWatermark;
+        for (ProviderRatingStats stat : stats) {
+            appliedRatingUpdates.put(stat.getProviderId(), stat.getUpdatedAt());
+            if (latest == null || stat.getUpdatedAt().isAfter(latest)) {
+                latest = stat.getUpdatedAt();
+            }
+        }
+        if (latest != null) {
+            Instant windowStart = latest.minus(RATING_REFRESH_OVERLAP);
+            appliedRatingUpdates.values().removeIf(updatedAt -> !updatedAt.isAfter(windowStart));
+        }
+        ratingWatermark = latest;
+    }
+
+    private void reload(Collection<UUID> profileIds) {
+        if (profileIds.isEmpty()) {
+            return;
+        }
+        Map<UUID, ProviderMatchIndex.IndexedProvider> loaded = load(profileIds);
+        for (UUID profileId : profileIds) {
+            ProviderMatchIndex.IndexedProvider provider = loaded.get(profileId);
+            if (provider == null) {
+                matchIndex.remove(profileId);
+            } else {
+                matchIndex.put(provider);
+            }
+        }
+        eventPublisher.publishEvent(new ProviderMatchIndexUpdatedEvent(List.copyOf(profileIds)));
+    }
+
+    private Map<UUID, ProviderMatchIndex.IndexedProvider> load(Collection<UUID> ids) {
+        Map<UUID, Builder> builders = new LinkedHashMap<>();
+        for (Object[] row : providerProfileRepository.findMatchAttributesByIds(ids)) {
+            builders.put((UUID) row[0], new Builder((UUID) row[0], (Boolean) row[1], (Instant) row[2], (UUID) row[3],
+                    (Integer) row[4]));
+        }
+        if (builders.isEmpty()) {
+            return Map.of();
+        }
+        Map<UUID, Builder> byUserId = new HashMap<>();
+        builders.values().forEach(builder -> byUserId.put(builder.userId, builder));
+        for (ProviderRatingStats stats : ratingStatsRepository.findByProviderIdIn(byUserId.keySet())) {
+            Builder builder = byUserId.get(stats.getProviderId());
+            if (builder != null) {
+                builder.averageRating = stats.getAverageRating();
+            }
+        }
+        for (Object[] row : providerProfileRepository.findCategoryIdsByProfileIds(ids)) {
+            Builder builder = builders.get((UUID) row[0]);
+            if (builder != null) {
+                builder.categoryIds.add((UUID) row[1]);
+            }
+        }
+        for (Object[] row : providerLocationRepository.findPostalCodesAndCitiesByProfileIds(ids)) {
+            Builder builder = builders.get((UUID) row[0]);
+            if (builder != null) {
+                builder.postalCodes.add((String) row[1]);
+                builder.cities.add((String) row[2]);
+            }
+        }
+
+        Map<UUID, ProviderMatchIndex.IndexedProvider> providers = new HashMap<>();
+        builders.forEach((id, builder) -> providers.put(id, builder.build()));
+        return providers;
+    }
+
+    private static final class Builder {
+        private final UUID profileId;
+        private final boolean verified;
+        private final Instant createdAt;
+        private final UUID userId;
+        private Double averageRating;
+        private final Set<UUID> categoryIds = new HashSet<>();
+        private final Set<String> postalCodes = new HashSet<>();
+        private final Set<String> cities = new HashSet<>();
+        private final int availabilityMask;
+
+        private Builder(UUID profileId, Boolean verified, Instant createdAt, UUID userId, Integer availabilityMask) {
+            this.profileId = profileId;
+            this.verified = Boolean.TRUE.equals(verified);
+            this.createdAt = createdAt;
+            this.userId = userId;
+            this.availabilityMask = availabilityMask != null ? availabilityMask : 0;
+        }
+
+        private ProviderMatchIndex.IndexedProvider build() {
+            return new ProviderMatchIndex.IndexedProvider(profileId, verified, createdAt, averageRating,
+                    Set.copyOf(categoryIds), Set.copyOf(postalCodes), Set.copyOf(cities), availabilityMask);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.servantin.api.service;
+
+import java.util.*;
+
+/**
+ * Bounded top-K selection over match candidates.
+ *
+ * Candidates are ordered best-first: nearest first, then by composite score (see
+ * {@link ProviderMatchIndex.IndexedProvider#score()}), ties broken by profile ID so the order is
+ * total and stable across pages. A page is selected with a min-heap of at most {@code limit}
+ * entries, so work is O(n log k) and memory O(k) regardless of how many providers match.
+ */
+public final class ProviderMatchRanker {
+
+    private ProviderMatchRanker() {
+    }
+
+    /**
+     * A match candidate and its position in the ranking.
+     *
+     * @param distanceMeters distance to the requested location, 0 for exact postal code / city matches
+     */
+    public record RankedProvider(UUID profileId, int distanceMeters, long score) implements Comparable<RankedProvider> {
+
+        /**
+         * Negative when this candidate ranks before {@code other}.
+         */
+        @Override
+        public int compareTo(RankedProvider other) {
+            int byDistance = Integer.compare(distanceMeters, other.distanceMeters);
+            if (byDistance != 0) {
+                return byDistance;
+            }
+            int byScore = Long.compare(other.score, score);
+            return byScore != 0 ? byScore : profileId.compareTo(other.profileId);
+        }
+
+        public String toCursor() {
+            return CursorCodec.encode(distanceMeters, score, profileId);
+        }
+
+        public static RankedProvider fromCursor(String cursor) {
+            String[] parts = CursorCodec.decode(cursor, 3);
+            try {
+                return new RankedProvider(UUID.fromString(parts[2]), Integer.parseInt(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException e) {
+                throw CursorCodec.invalid();
+            }
+        }
+    }
+
+    /**
+     * Select the best {@code limit} candidates ranking strictly after {@code after}.
+     *
+     * @param after position of the last candidate of the previous page, or null for the first page
+     * @return selected candidates, best first
+     */
+    public static List<RankedProvider> top(Collection<RankedProvider> candidates, RankedProvider after, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Max-heap on rank: the head is the worst candidate kept so far
+        PriorityQueue<RankedProvider> heap = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        for (RankedProvider candidate : candidates) {
+            if (after != null && candidate.compareTo(after) <= 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (candidate.compareTo(heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<RankedProvider> selected = new ArrayList<>(heap);
+        Collections.sort(selected);
+        return selected;
+    }
+}
@@ -0,0 +1,223 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.event.ProviderPhotoChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the small versions of provider photos shown in match results and booking cards.
+ *
+ * When a profile gets a new photo, the photo is read back from storage on a small worker pool,
+ * center-cropped to squares of {@value #THUMBNAIL_SIZE}px and {@value #MEDIUM_SIZE}px, written as
+ * JPEG next to the original and recorded on the profile. The pool and its queue are bounded because
+ * a decoded photo takes far more memory than the file; photos that do not fit in the queue keep
+ * being shown at full size until they are changed again.
+ */
+@Slf4j
+@Component
+public class ProviderPhotoProcessor {
+
+    static final int THUMBNAIL_SIZE = 96;
+    static final int MEDIUM_SIZE = 320;
+
+    // Larger images are not decoded; 40 MP already takes 160 MB as ARGB
+    private static final long MAX_SOURCE_PIXELS = 40_000_000L;
+    private static final float JPEG_QUALITY = 0.82f;
+
+    private final StorageService storageService;
+    private final ProviderService providerService;
+    private final ThreadPoolExecutor executor;
+    private final Timer processTimer;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public ProviderPhotoProcessor(
+            StorageService storageService,
+            ProviderService providerService,
+            MeterRegistry meterRegistry,
+            @Value("${app.images.worker-threads:2}") int workerThreads,
+            @Value("${app.images.queue-capacity:100}") int queueCapacity) {
+        this.storageService = storageService;
+        this.providerService = providerService;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-derivatives-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("images.derivatives.queue.size", executor.getQueue(), BlockingQueue::size)
+                .description("Provider photos waiting to be resized")
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("images.derivatives.process")
+                .description("Time to read, resize and store the versions of one provider photo")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("images.derivatives.dropped")
+                .description("Provider photos not resized because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("images.derivatives.failures")
+                .description("Provider photos that could not be resized")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPhotoChanged(ProviderPhotoChangedEvent event) {
+        if (!storageService.isStoredFile(event.photoUrl())) {
+            // Photos hosted elsewhere are shown as they are
+            return;
+        }
+        if (!storageService.isProfilePhotoOf(event.photoUrl(), event.userId())) {
+            // Never decode, or write versions next to, another user's files
+            log.warn("Not resizing photo {} of profile {}: outside the provider's photo folder",
+                    event.photoUrl(), event.profileId());
+            return;
+        }
+        try {
+            executor.execute(() -> process(event));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            log.warn("Photo resize queue full, profile {} keeps its full-size photo", event.profileId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    void process(ProviderPhotoChangedEvent event) {
+        try {
+            processTimer.recordCallable(() -> {
+                BufferedImage source = decode(storageService.readFile(event.photoUrl()));
+                String thumbnailUrl = store(event.photoUrl(), source, THUMBNAIL_SIZE);
+                String mediumUrl = store(event.photoUrl(), source, MEDIUM_SIZE);
+                if (!providerService.applyPhotoDerivatives(event.profileId(), event.photoUrl(), thumbnailUrl, mediumUrl)) {
+                    log.debug("Profile {} changed its photo while resizing, discarding", event.profileId());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to resize photo {} of profile {}: {}", event.photoUrl(), event.profileId(),
+                    e.getMessage());
+        }
+    }
+
+    private String store(String photoUrl, BufferedImage source, int size) throws IOException {
+        String url = derivativeUrl(photoUrl, size);
+        storageService.writeFile(url, encodeJpeg(squareCrop(source, size)), "image/jpeg");
+        return url;
+    }
+
+    /**
+     * Where the {@code size}px version of a photo is stored: next to it, named after it, so
+     * resizing the same photo again overwrites rather than adds files.
+     */
+    static String derivativeUrl(String photoUrl, int size) {
+        int slash = photoUrl.lastIndexOf('/');
+        int dot = photoUrl.lastIndexOf('.');
+        String base = dot > slash ? photoUrl.substring(0, dot) : photoUrl;
+        return base + "-" + size + ".jpg";
+    }
+
+    /**
+     * Decode an image, refusing ones too large to decode safely before allocating their pixels.
+     */
+    static BufferedImage decode(byte[] content) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image too large to resize: " + pixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Center-crop to a square and scale it to {@code size}px, on white where the source is
+     * transparent since JPEG has no alpha.
+     */
+    static BufferedImage squareCrop(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage image = source.getSubimage(
+                (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        // Halve in steps first; a single bilinear pass over a large reduction drops most pixels
+        while (image.getWidth() / 2 >= size) {
+            image = scale(image, image.getWidth() / 2);
+        }
+        return scale(image, size);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, size, size, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
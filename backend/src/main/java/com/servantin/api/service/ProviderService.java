@@ -1,22 +1,35 @@
 package com.servantin.api.service;
 
 import com.servantin.api.domain.entity.*;
+import com.servantin.api.domain.event.ProviderPhotoChangedEvent;
+import com.servantin.api.domain.event.ProviderProfileChangedEvent;
+import com.servantin.api.domain.model.AvailabilityMask;
 import com.servantin.api.domain.model.DocumentType;
 import com.servantin.api.domain.model.PricingType;
 import com.servantin.api.domain.model.TimeSlot;
 import com.servantin.api.domain.model.UserRole;
 import com.servantin.api.domain.model.VerificationStatus;
 import com.servantin.api.dto.category.CategoryDto;
+import com.servantin.api.dto.common.CursorPage;
 import com.servantin.api.dto.provider.*;
+import com.servantin.api.dto.storage.FinalizeUploadRequest;
+import com.servantin.api.dto.storage.UploadResponse;
+import com.servantin.api.dto.storage.UploadUrlRequest;
+import com.servantin.api.dto.storage.UploadUrlResponse;
+import com.servantin.api.exception.ConflictException;
+import com.servantin.api.exception.ForbiddenException;
 import com.servantin.api.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.DayOfWeek;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,16 +39,25 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProviderService {
 
+        private static final int DEFAULT_MATCH_PAGE_SIZE = 20;
+
         private final ProviderProfileRepository providerProfileRepository;
         private final UserRepository userRepository;
         private final CategoryRepository categoryRepository;
         private final ProviderLocationRepository providerLocationRepository;
         private final ProviderAvailabilityRepository providerAvailabilityRepository;
         private final ProviderPricingRepository providerPricingRepository;
-        private final RatingRepository ratingRepository;
+        private final ProviderRatingStatsRepository ratingStatsRepository;
         private final ProviderDocumentRepository providerDocumentRepository;
         private final StorageService storageService;
+        private final SignedUrlCache signedUrlCache;
         private final EmailService emailService;
+        private final ProviderMatchIndex matchIndex;
+        private final PostalCodeGeoIndex geoIndex;
+        private final AvailabilityCalendarResolver calendarResolver;
+        private final ProviderMatchCache matchCache;
+        private final TransactionTemplate transactionTemplate;
+        private final ApplicationEventPublisher eventPublisher;
 
         @Transactional(readOnly = true)
         public ProviderProfileDto getProviderProfile(UUID userId) {
@@ -53,6 +75,12 @@ public class ProviderService {
 
         @Transactional
         public ProviderProfileDto createOrUpdateProfile(UUID userId, ProviderProfileRequest request) {
+                // A photo in our storage must be one the caller uploaded, not any other file in the bucket
+                if (storageService.isStoredFile(request.getPhotoUrl())
+                                && !storageService.isProfilePhotoOf(request.getPhotoUrl(), userId)) {
+                        throw ForbiddenException.notResourceOwner();
+                }
+
                 User user = userRepository.findById(userId)
                                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -72,7 +100,16 @@ public class ProviderService {
 
                 // Update basic fields
                 profile.setBio(request.getBio());
-                profile.setPhotoUrl(request.getPhotoUrl());
+                if (!Objects.equals(profile.getPhotoUrl(), request.getPhotoUrl())) {
+                        // Resized versions of the old photo must not be shown for the new one
+                        profile.setPhotoUrl(request.getPhotoUrl());
+                        profile.setPhotoThumbnailUrl(null);
+                        profile.setPhotoMediumUrl(null);
+                        if (request.getPhotoUrl() != null) {
+                                eventPublisher.publishEvent(new ProviderPhotoChangedEvent(profile.getId(), userId,
+                                                request.getPhotoUrl()));
+                        }
+                }
                 profile.setLanguages(request.getLanguages());
 
                 // Update categories
@@ -102,6 +139,7 @@ public class ProviderService {
                 // Update availabilities
                 if (request.getAvailabilities() != null) {
                         providerAvailabilityRepository.deleteByProviderProfileId(profile.getId());
+                        int availabilityMask = 0;
                         for (ProviderProfileRequest.AvailabilityDto avail : request.getAvailabilities()) {
                                 ProviderAvailability pa = ProviderAvailability.builder()
                                                 .providerProfile(profile)
@@ -109,7 +147,10 @@ public class ProviderService {
                                                 .timeSlot(avail.getTimeSlot())
                                                 .build();
                                 profile.getAvailabilities().add(pa);
+                                availabilityMask = AvailabilityMask.with(availabilityMask, avail.getWeekday(),
+                                                avail.getTimeSlot());
                         }
+                        profile.setAvailabilityMask(availabilityMask);
                 }
 
                 // Update pricings
@@ -132,61 +173,134 @@ public class ProviderService {
                 }
 
                 profile = providerProfileRepository.save(profile);
+                eventPublisher.publishEvent(new ProviderProfileChangedEvent(profile.getId()));
                 return toDto(profile);
         }
 
         /**
-         * Match providers based on category, location, and optionally time
+         * Match providers based on category, location, and optionally time.
+         * Pages are served from {@link ProviderMatchCache}; only misses open a transaction.
          */
-        @Transactional(readOnly = true)
-        public List<ProviderMatchDto> matchProviders(MatchRequest request) {
+        public CursorPage<ProviderMatchDto> matchProviders(MatchRequest request) {
                 log.info("Matching providers for category={}, postalCode={}, city={}",
                                 request.getCategoryId(), request.getPostalCode(), request.getCity());
 
-                // Step 1: Find providers matching category and location
-                List<ProviderProfile> matchingProviders = new ArrayList<>(
-                                providerProfileRepository.findMatchingProviders(
-                                                request.getCategoryId(),
-                                                request.getPostalCode(),
-                                                request.getCity()));
+                int pageSize = request.getPageSize() != null ? request.getPageSize() : DEFAULT_MATCH_PAGE_SIZE;
+                Instant preferredTime = request.getPreferredTime();
+                ProviderMatchCache.Key key = new ProviderMatchCache.Key(
+                                request.getCategoryId(),
+                                request.getPostalCode(),
+                                request.getCity(),
+                                request.getRadiusKm(),
+                                preferredTime != null ? preferredTime.atZone(ZoneId.of("Europe/Zurich")).toLocalDate() : null,
+                                preferredTime != null ? getTimeSlot(preferredTime) : null,
+                                pageSize,
+                                request.getCursor());
+                return matchCache.get(key, () -> transactionTemplate.execute(status -> computeMatches(request, pageSize)));
+        }
 
-                // Step 2: Filter by availability if time is specified
+        private ProviderMatchCache.Entry computeMatches(MatchRequest request, int pageSize) {
+                // Step 1: Union category and location postings in memory
+                List<ProviderMatchRanker.RankedProvider> candidates = findMatchCandidates(request);
+                Set<UUID> candidateIds = candidates.stream()
+                                .map(ProviderMatchRanker.RankedProvider::profileId)
+                                .collect(Collectors.toSet());
+
+                // Step 2 (optional): Keep providers working the requested slot on that date, overrides included
                 if (request.getPreferredTime() != null) {
-                        int weekday = request.getPreferredTime()
-                                        .atZone(ZoneId.of("Europe/Zurich"))
-                                        .getDayOfWeek()
-                                        .getValue() % 7; // Convert to 0=Sunday format
-                        TimeSlot timeSlot = getTimeSlot(request.getPreferredTime());
-
-                        matchingProviders = matchingProviders.stream()
-                                        .filter(p -> hasAvailability(p, weekday, timeSlot))
-                                        .collect(Collectors.toList());
+                        candidates = filterAvailableAt(candidates, request.getPreferredTime());
+                }
+
+                // Step 3: Keep the nearest / best pageSize + 1 candidates after the cursor (the extra one signals another page)
+                ProviderMatchRanker.RankedProvider after = request.getCursor() != null
+                                ? ProviderMatchRanker.RankedProvider.fromCursor(request.getCursor())
+                                : null;
+                List<ProviderMatchRanker.RankedProvider> ranked = ProviderMatchRanker.top(candidates, after, pageSize + 1);
+                boolean hasMore = ranked.size() > pageSize;
+                List<ProviderMatchRanker.RankedProvider> page = hasMore ? ranked.subList(0, pageSize) : ranked;
+                if (page.isEmpty()) {
+                        return new ProviderMatchCache.Entry(CursorPage.<ProviderMatchDto>builder()
+                                        .content(List.of())
+                                        .hasMore(false)
+                                        .build(), candidateIds);
+                }
+
+                // Step 4: Load only the profiles, rating aggregates, pricings and cities of this page
+                Map<UUID, ProviderProfile> profiles = providerProfileRepository.findAllByIdWithUser(
+                                page.stream().map(ProviderMatchRanker.RankedProvider::profileId).toList())
+                                .stream()
+                                .collect(Collectors.toMap(ProviderProfile::getId, p -> p));
+                Map<UUID, ProviderRatingStats> ratingStats = ratingStatsRepository.findByProviderIdIn(
+                                profiles.values().stream().map(p -> p.getUser().getId()).toList())
+                                .stream()
+                                .collect(Collectors.toMap(ProviderRatingStats::getProviderId, s -> s));
+                Map<UUID, ProviderPricing> pricings = request.getCategoryId() == null ? Map.of()
+                                : providerPricingRepository.findByProviderProfileIdInAndCategoryId(
+                                                profiles.keySet(), request.getCategoryId())
+                                                .stream()
+                                                .collect(Collectors.toMap(p -> p.getProviderProfile().getId(), p -> p,
+                                                                (first, second) -> first));
+                Map<UUID, String> cities = new HashMap<>();
+                for (Object[] row : providerLocationRepository.findPostalCodesAndCitiesByProfileIds(profiles.keySet())) {
+                        cities.putIfAbsent((UUID) row[0], (String) row[2]);
                 }
 
-                // Step 3: Sort by priority (verified first, then rating, then seniority)
-                matchingProviders.sort((p1, p2) -> {
-                        // Verified first
-                        if (p1.getIsVerified() != p2.getIsVerified()) {
-                                return p2.getIsVerified().compareTo(p1.getIsVerified());
+                // Step 5: Convert to DTOs in rank order (nearest first, then verified, rating and seniority)
+                List<ProviderMatchDto> content = new ArrayList<>(page.size());
+                for (ProviderMatchRanker.RankedProvider rankedProvider : page) {
+                        ProviderProfile profile = profiles.get(rankedProvider.profileId());
+                        if (profile != null) {
+                                ProviderMatchDto dto = toMatchDto(profile, ratingStats.get(profile.getUser().getId()),
+                                                pricings.get(profile.getId()), cities.get(profile.getId()));
+                                if (request.getRadiusKm() != null) {
+                                        dto.setDistanceKm(Math.round(rankedProvider.distanceMeters() / 100.0) / 10.0);
+                                }
+                                content.add(dto);
                         }
-                        // Then by rating
-                        Double rating1 = ratingRepository.getAverageRatingForProvider(p1.getUser().getId());
-                        Double rating2 = ratingRepository.getAverageRatingForProvider(p2.getUser().getId());
-                        if (rating1 == null)
-                                rating1 = 0.0;
-                        if (rating2 == null)
-                                rating2 = 0.0;
-                        if (!rating1.equals(rating2)) {
-                                return rating2.compareTo(rating1);
+                }
+
+                return new ProviderMatchCache.Entry(CursorPage.<ProviderMatchDto>builder()
+                                .content(content)
+                                .nextCursor(hasMore ? page.get(page.size() - 1).toCursor() : null)
+                                .hasMore(hasMore)
+                                .build(), candidateIds);
+        }
+
+        private List<ProviderMatchRanker.RankedProvider> findMatchCandidates(MatchRequest request) {
+                if (request.getRadiusKm() != null) {
+                        Optional<PostalCodeGeoIndex.GeoPoint> center = geoIndex.locate(
+                                        request.getPostalCode(), request.getCity());
+                        if (center.isPresent()) {
+                                return matchIndex.matchNearby(
+                                                request.getCategoryId(),
+                                                request.getPostalCode(),
+                                                request.getCity(),
+                                                geoIndex.postalCodesWithin(center.get(), request.getRadiusKm()));
                         }
-                        // Then by seniority (older accounts first)
-                        return p1.getCreatedAt().compareTo(p2.getCreatedAt());
-                });
-
-                // Step 4: Convert to DTOs
-                return matchingProviders.stream()
-                                .map(p -> toMatchDto(p, request.getCategoryId()))
-                                .collect(Collectors.toList());
+                        log.debug("No centroid for postalCode={}, city={}; falling back to exact matching",
+                                        request.getPostalCode(), request.getCity());
+                }
+                return matchIndex.match(
+                                request.getCategoryId(),
+                                request.getPostalCode(),
+                                request.getCity());
+        }
+
+        private List<ProviderMatchRanker.RankedProvider> filterAvailableAt(
+                        List<ProviderMatchRanker.RankedProvider> candidates, Instant preferredTime) {
+                if (candidates.isEmpty()) {
+                        return candidates;
+                }
+                LocalDate date = preferredTime.atZone(ZoneId.of("Europe/Zurich")).toLocalDate();
+                int slotBit = 1 << getTimeSlot(preferredTime).ordinal();
+                Map<UUID, Integer> daySlots = calendarResolver.resolveDaySlots(
+                                matchIndex.availabilityMasks(candidates.stream()
+                                                .map(ProviderMatchRanker.RankedProvider::profileId)
+                                                .toList()),
+                                date);
+                return candidates.stream()
+                                .filter(c -> (daySlots.getOrDefault(c.profileId(), 0) & slotBit) != 0)
+                                .toList();
         }
 
         @Transactional(readOnly = true)
@@ -203,24 +317,21 @@ public class ProviderService {
                 profile.setIsVerified(verified);
                 profile.setVerificationNotes(notes);
                 profile = providerProfileRepository.save(profile);
+                eventPublisher.publishEvent(new ProviderProfileChangedEvent(profile.getId()));
 
                 // Send email notification to provider
-                try {
-                        User provider = profile.getUser();
-                        if (verified) {
-                                emailService.sendProviderVerified(
-                                                provider.getEmail(),
-                                                provider.getName()
-                                );
-                        } else {
-                                emailService.sendProviderRejected(
-                                                provider.getEmail(),
-                                                provider.getName(),
-                                                notes != null ? notes : "Please contact support for more information"
-                                );
-                        }
-                } catch (Exception e) {
-                        log.error("Failed to send provider verification email for profile {}: {}", profileId, e.getMessage());
+                User provider = profile.getUser();
+                if (verified) {
+                        emailService.sendProviderVerified(
+                                        provider.getEmail(),
+                                        provider.getName()
+                        );
+                } else {
+                        emailService.sendProviderRejected(
+                                        provider.getEmail(),
+                                        provider.getName(),
+                                        notes != null ? notes : "Please contact support for more information"
+                        );
                 }
 
                 return toDto(profile);
@@ -237,13 +348,7 @@ public class ProviderService {
                 ProviderProfile profile = providerProfileRepository.findByUser_Id(userId)
                                 .orElseThrow(() -> new RuntimeException("Provider profile not found"));
 
-                // Parse document type
-                DocumentType documentType;
-                try {
-                        documentType = DocumentType.valueOf(documentTypeStr.toUpperCase());
-                } catch (IllegalArgumentException e) {
-                        throw new RuntimeException("Invalid document type: " + documentTypeStr);
-                }
+                DocumentType documentType = parseDocumentType(documentTypeStr);
 
                 // Upload file to GCS
                 String gcsUrl;
@@ -254,21 +359,85 @@ public class ProviderService {
                         throw new RuntimeException("Failed to upload document: " + e.getMessage(), e);
                 }
 
+                return saveDocument(userId, profile, documentType, gcsUrl, file.getOriginalFilename(), file.getSize(),
+                                file.getContentType());
+        }
+
+        /**
+         * Issue a signed URL for the provider to upload a verification document directly to storage
+         */
+        @Transactional(readOnly = true)
+        public UploadUrlResponse createDocumentUploadUrl(UUID userId, UploadUrlRequest request, String documentTypeStr) {
+                ProviderProfile profile = providerProfileRepository.findByUser_Id(userId)
+                                .orElseThrow(() -> new RuntimeException("Provider profile not found"));
+                // Fail before the upload rather than at finalize
+                parseDocumentType(documentTypeStr);
+
+                return storageService.createProviderDocumentUploadUrl(request, profile.getId());
+        }
+
+        /**
+         * Record a verification document uploaded to a signed URL, once storage has validated it
+         */
+        @Transactional
+        public ProviderDocumentDto finalizeProviderDocument(UUID userId, FinalizeUploadRequest request,
+                        String documentTypeStr) {
+                ProviderProfile profile = providerProfileRepository.findByUser_Id(userId)
+                                .orElseThrow(() -> new RuntimeException("Provider profile not found"));
+                DocumentType documentType = parseDocumentType(documentTypeStr);
+
+                if (providerDocumentRepository.existsByDocumentUrl(request.getObjectUrl())) {
+                        throw new ConflictException("Document upload was already finalized", "DOCUMENT_EXISTS");
+                }
+
+                UploadResponse upload = storageService.finalizeProviderDocument(request.getObjectUrl(), profile.getId());
+                return saveDocument(userId, profile, documentType, upload.getUrl(), request.getFileName(),
+                                upload.getFileSize(), upload.getMimeType());
+        }
+
+        private DocumentType parseDocumentType(String documentTypeStr) {
+                try {
+                        return DocumentType.valueOf(documentTypeStr.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                        throw new RuntimeException("Invalid document type: " + documentTypeStr);
+                }
+        }
+
+        private ProviderDocumentDto saveDocument(UUID userId, ProviderProfile profile, DocumentType documentType,
+                        String gcsUrl, String fileName, Long fileSizeBytes, String mimeType) {
                 // Create document record
                 ProviderDocument document = ProviderDocument.builder()
                                 .providerProfile(profile)
                                 .documentType(documentType)
                                 .documentUrl(gcsUrl)
-                                .fileName(file.getOriginalFilename())
-                                .fileSizeBytes(file.getSize())
-                                .mimeType(file.getContentType())
+                                .fileName(fileName)
+                                .fileSizeBytes(fileSizeBytes)
+                                .mimeType(mimeType)
                                 .verificationStatus(VerificationStatus.PENDING)
                                 .build();
 
                 document = providerDocumentRepository.save(document);
                 log.info("Provider {} uploaded document: type={}, id={}", userId, documentType, document.getId());
 
-                return toDocumentDto(document);
+                return toDocumentDto(document, signedUrl(document));
+        }
+
+        /**
+         * Record the resized versions of a provider photo, unless the photo was changed meanwhile
+         *
+         * @return false if the profile no longer has {@code photoUrl}
+         */
+        @Transactional
+        public boolean applyPhotoDerivatives(UUID profileId, String photoUrl, String thumbnailUrl, String mediumUrl) {
+                ProviderProfile profile = providerProfileRepository.findById(profileId)
+                                .orElseThrow(() -> new RuntimeException("Provider profile not found"));
+                if (!photoUrl.equals(profile.getPhotoUrl())) {
+                        return false;
+                }
+                profile.setPhotoThumbnailUrl(thumbnailUrl);
+                profile.setPhotoMediumUrl(mediumUrl);
+                eventPublisher.publishEvent(new ProviderProfileChangedEvent(profileId));
+                return true;
         }
 
         /**
@@ -279,16 +448,15 @@ public class ProviderService {
                 ProviderProfile profile = providerProfileRepository.findByUser_Id(userId)
                                 .orElseThrow(() -> new RuntimeException("Provider profile not found"));
 
-                return providerDocumentRepository.findByProviderProfile_Id(profile.getId()).stream()
-                                .map(this::toDocumentDto)
+                List<ProviderDocument> documents = providerDocumentRepository.findByProviderProfile_Id(profile.getId());
+                Map<String, String> signedUrls = signedUrlCache.getAll(documents.stream()
+                                .map(ProviderDocument::getDocumentUrl)
+                                .toList());
+                return documents.stream()
+                                .map(document -> toDocumentDto(document, signedUrls.get(document.getDocumentUrl())))
                                 .toList();
         }
 
-        private boolean hasAvailability(ProviderProfile profile, int weekday, TimeSlot timeSlot) {
-                return profile.getAvailabilities().stream()
-                                .anyMatch(a -> a.getWeekday().equals(weekday) && a.getTimeSlot() == timeSlot);
-        }
-
         private TimeSlot getTimeSlot(Instant time) {
                 int hour = time.atZone(ZoneId.of("Europe/Zurich")).getHour();
                 if (hour >= 8 && hour < 12)
@@ -310,8 +478,9 @@ public class ProviderService {
 
         private ProviderProfileDto toDto(ProviderProfile profile) {
                 User user = profile.getUser();
-                Double avgRating = ratingRepository.getAverageRatingForProvider(user.getId());
-                Long ratingCount = ratingRepository.countByProviderId(user.getId());
+                ProviderRatingStats stats = ratingStatsRepository.findById(user.getId()).orElse(null);
+                Double avgRating = stats != null ? stats.getAverageRating() : null;
+                Long ratingCount = stats != null ? stats.getRatingCount() : 0L;
 
                 List<CategoryDto> categories = profile.getCategories().stream()
                                 .map(pc -> CategoryDto.builder()
@@ -375,28 +544,18 @@ public class ProviderService {
                                 .build();
         }
 
-        private ProviderMatchDto toMatchDto(ProviderProfile profile, UUID categoryId) {
+        private ProviderMatchDto toMatchDto(ProviderProfile profile, ProviderRatingStats stats,
+                        ProviderPricing pricing, String city) {
                 User user = profile.getUser();
-                Double avgRating = ratingRepository.getAverageRatingForProvider(user.getId());
-                Long ratingCount = ratingRepository.countByProviderId(user.getId());
-
-                // Get pricing for the specific category
-                ProviderPricing pricing = profile.getPricings().stream()
-                                .filter(p -> p.getCategory().getId().equals(categoryId))
-                                .findFirst()
-                                .orElse(null);
-
-                // Get first location city
-                String city = profile.getLocations().stream()
-                                .findFirst()
-                                .map(ProviderLocation::getCity)
-                                .orElse(null);
+                Double avgRating = stats != null ? stats.getAverageRating() : null;
+                Long ratingCount = stats != null ? stats.getRatingCount() : 0L;
 
                 return ProviderMatchDto.builder()
                                 .id(profile.getId())
                                 .userId(user.getId())
                                 .name(user.getName())
-                                .photoUrl(profile.getPhotoUrl())
+                                .photoUrl(profile.getPhotoMediumUrl() != null ? profile.getPhotoMediumUrl()
+                                                : profile.getPhotoUrl())
                                 .bio(profile.getBio())
                                 .languages(profile.getLanguages())
                                 .isVerified(profile.getIsVerified())
@@ -410,15 +569,16 @@ public class ProviderService {
                                 .build();
         }
 
-        private ProviderDocumentDto toDocumentDto(ProviderDocument document) {
-                // Generate signed URL for accessing the document
-                String signedUrl = null;
+        private String signedUrl(ProviderDocument document) {
                 try {
-                        signedUrl = storageService.generateSignedUrl(document.getDocumentUrl());
+                        return signedUrlCache.get(document.getDocumentUrl());
                 } catch (Exception e) {
                         log.warn("Failed to generate signed URL for document {}: {}", document.getId(), e.getMessage());
+                        return null;
                 }
+        }
 
+        private ProviderDocumentDto toDocumentDto(ProviderDocument document, String signedUrl) {
                 return ProviderDocumentDto.builder()
                                 .id(document.getId())
                                 .documentType(document.getDocumentType())
@@ -0,0 +1,61 @@
+package com.servantin.api.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket holding every SES send to the account's maximum send rate.
+ *
+ * One token is one recipient, refilled at the send rate, with up to one second of sends saved up
+ * for bursts. A caller taking more tokens than are available may go into debt and waits until it
+ * is paid off, so a bulk chunk of 50 recipients is never refused but delays the sends after it.
+ */
+@Component
+public class SesSendRateLimiter {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long refilledAt;
+
+    @Autowired
+    public SesSendRateLimiter(@Value("${aws.ses.max-send-rate:14}") double maxSendRate) {
+        this(maxSendRate, System::nanoTime);
+    }
+
+    SesSendRateLimiter(double maxSendRate, LongSupplier nanoClock) {
+        this.tokensPerNano = maxSendRate / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = maxSendRate;
+        this.nanoClock = nanoClock;
+        this.tokens = maxSendRate;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Wait until {@code recipients} sends fit in the rate.
+     */
+    public void acquire(int recipients) throws InterruptedException {
+        long waitNanos = reserve(recipients);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Take {@code recipients} tokens now.
+     *
+     * @return how long the caller must wait before sending, in nanoseconds
+     */
+    synchronized long reserve(int recipients) {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        tokens -= recipients;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
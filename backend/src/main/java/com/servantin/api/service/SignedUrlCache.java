@@ -0,0 +1,107 @@
+package com.servantin.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Signed storage URLs, reused until shortly before they expire.
+ *
+ * Signing is a V4 RSA operation per URL on GCS while a URL stays valid for
+ * {@code gcp.storage.signed-url-validity}, so listings that show the same documents again get the
+ * URL signed the first time. An entry is dropped {@code gcp.storage.signed-url-refresh-margin}
+ * before its URL expires, leaving the client that receives it at least that long to use it.
+ * Entries are never evicted on writes: every upload gets a new object name, so a cached URL never
+ * points at replaced content, and the URL of a deleted file fails on its own until the entry expires.
+ * Hit and miss counts are published as {@code cache.*} metrics tagged {@code cache=signedUrls},
+ * signing time as {@code storage.url.sign}.
+ */
+@Slf4j
+@Component
+public class SignedUrlCache {
+
+    public static final String CACHE_NAME = "signedUrls";
+
+    private final StorageService storageService;
+    private final Cache<String, String> urls;
+    private final Timer signTimer;
+
+    @Autowired
+    public SignedUrlCache(
+            StorageService storageService,
+            MeterRegistry meterRegistry,
+            @Value("${gcp.storage.signed-url-validity:PT15M}") Duration validity,
+            @Value("${gcp.storage.signed-url-refresh-margin:PT2M}") Duration refreshMargin,
+            @Value("${gcp.storage.signed-url-cache-size:10000}") long maxSize) {
+        this(storageService, meterRegistry, validity, refreshMargin, maxSize, Ticker.systemTicker());
+    }
+
+    SignedUrlCache(StorageService storageService, MeterRegistry meterRegistry, Duration validity,
+            Duration refreshMargin, long maxSize, Ticker ticker) {
+        if (refreshMargin.compareTo(validity) >= 0) {
+            throw new IllegalArgumentException("Signed URL refresh margin must be shorter than the URL validity");
+        }
+        this.storageService = storageService;
+        this.urls = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(validity.minus(refreshMargin))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, urls, CACHE_NAME);
+        this.signTimer = Timer.builder("storage.url.sign")
+                .description("Time to sign a GCS URL")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Signed URL for a stored file.
+     *
+     * @param gcsUrl GCS URI (gs://bucket/path)
+     * @throws RuntimeException if the URL cannot be signed
+     */
+    public String get(String gcsUrl) {
+        return urls.get(gcsUrl, this::sign);
+    }
+
+    /**
+     * Signed URLs for several stored files, signing only those not cached. A file whose URL cannot
+     * be signed is logged and left out of the result instead of failing the others.
+     *
+     * @param gcsUrls GCS URIs (gs://bucket/path)
+     * @return signed URL by GCS URI
+     */
+    public Map<String, String> getAll(Collection<String> gcsUrls) {
+        Set<String> requested = new LinkedHashSet<>(gcsUrls);
+        Map<String, String> signed = new HashMap<>(urls.getAllPresent(requested));
+        for (String gcsUrl : requested) {
+            if (signed.containsKey(gcsUrl)) {
+                continue;
+            }
+            try {
+                signed.put(gcsUrl, get(gcsUrl));
+            } catch (RuntimeException e) {
+                log.warn("Failed to generate signed URL for {}: {}", gcsUrl, e.getMessage());
+            }
+        }
+        return signed;
+    }
+
+    private String sign(String gcsUrl) {
+        return signTimer.record(() -> storageService.generateSignedUrl(gcsUrl));
+    }
+}
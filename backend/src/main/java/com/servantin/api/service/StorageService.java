@@ -1,6 +1,13 @@
 package com.servantin.api.service;
 
-import com.google.cloud.storage.*;
+import com.servantin.api.dto.storage.UploadResponse;
+import com.servantin.api.dto.storage.UploadUrlRequest;
+import com.servantin.api.dto.storage.UploadUrlResponse;
+import com.servantin.api.exception.BadRequestException;
+import com.servantin.api.exception.ForbiddenException;
+import com.servantin.api.storage.StorageBackend;
+import com.servantin.api.storage.StorageBackend.SignedUpload;
+import com.servantin.api.storage.StorageBackend.StoredObject;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.tika.Tika;
@@ -9,14 +16,22 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
 
 /**
- * Service for managing file uploads to Google Cloud Storage.
+ * Service for managing file uploads to the configured {@link StorageBackend} (Google Cloud Storage,
+ * or a local directory in development and tests).
  * Handles provider profile photos and verification documents with validation.
  */
 @Slf4j
@@ -24,11 +39,16 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class StorageService {
 
-    private final Storage storage;
+    // Enough for Tika's magic-number detection of the image and document types we accept
+    static final int SNIFF_BYTES = 8 * 1024;
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final StorageBackend backend;
     private final Tika tika = new Tika();
 
-    @Value("${gcp.storage.bucket-name}")
-    private String bucketName;
+    @Value("${gcp.storage.signed-url-validity:PT15M}")
+    private Duration signedUrlValidity;
 
     @Value("${upload.max-file-size}")
     private long maxFileSize;
@@ -39,43 +59,61 @@ public class StorageService {
     @Value("${upload.allowed-document-types}")
     private String allowedDocumentTypes;
 
+    @Value("${upload.signed-url-validity:PT10M}")
+    private Duration uploadUrlValidity;
+
     /**
-     * Upload file to GCS with validation.
+     * Upload file to storage with validation.
+     *
+     * The file is read once: its MIME type is sniffed from the first {@value #SNIFF_BYTES} bytes,
+     * then those and the rest of the stream are written through the backend's writer (on GCS a
+     * resumable upload in chunks of {@code upload.stream-chunk-size}), so memory per upload does not
+     * grow with the file. Size and CRC32C are computed on the way and checked against the stored object.
      *
      * @param file file to upload
      * @param folder folder path within bucket (e.g., "profiles/userId")
      * @param allowedTypes list of allowed MIME types
-     * @return GCS URI (gs://bucket/path)
+     * @return storage URI (e.g. gs://bucket/path)
      * @throws IOException if file read fails
      * @throws RuntimeException if validation fails
      */
     public String uploadFile(MultipartFile file, String folder, List<String> allowedTypes) throws IOException {
-        // Validate file
-        validateFile(file, allowedTypes);
-
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename != null && originalFilename.contains(".")
-                ? originalFilename.substring(originalFilename.lastIndexOf("."))
-                : "";
-        String filename = folder + "/" + UUID.randomUUID() + extension;
-
-        // Detect MIME type using Tika (more reliable than file.getContentType())
-        String mimeType = tika.detect(file.getBytes());
-
-        // Upload to GCS
-        BlobId blobId = BlobId.of(bucketName, filename);
-        BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
-                .setContentType(mimeType)
-                .build();
-
-        Blob blob = storage.create(blobInfo, file.getBytes());
+        // Validate size before reading anything
+        validateFileSize(file);
+
+        try (InputStream in = file.getInputStream()) {
+            // Detect MIME type using Tika (more reliable than file.getContentType())
+            byte[] header = in.readNBytes(SNIFF_BYTES);
+            String mimeType = detectAllowedType(header, allowedTypes);
+
+            // Generate unique filename
+            String filename = objectName(folder, file.getOriginalFilename());
+
+            // Stream to storage
+            CRC32C crc32c = new CRC32C();
+            long size;
+            try {
+                try (WritableByteChannel writer = backend.openWriter(filename, mimeType)) {
+                    size = write(writer, header, header.length, crc32c);
+                    byte[] buffer = new byte[COPY_BUFFER_BYTES];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        size += write(writer, buffer, read, crc32c);
+                    }
+                }
+                verifyUpload(filename, size, crc32c);
+            } catch (IOException | RuntimeException e) {
+                // Closing the channel commits whatever was written, so drop the partial object
+                backend.delete(filename);
+                throw e;
+            }
 
-        log.info("File uploaded successfully: {} (size: {} bytes, type: {})",
-                filename, file.getSize(), mimeType);
+            log.info("File uploaded successfully: {} (size: {} bytes, type: {})",
+                    filename, size, mimeType);
 
-        // Return GCS URI
-        return String.format("gs://%s/%s", bucketName, filename);
+            // Return storage URI
+            return backend.uriPrefix() + filename;
+        }
     }
 
     /**
@@ -83,7 +121,7 @@ public class StorageService {
      *
      * @param file photo file (JPEG/PNG)
      * @param userId user ID
-     * @return GCS URI
+     * @return storage URI
      * @throws IOException if upload fails
      */
     public String uploadProfilePhoto(MultipartFile file, UUID userId) throws IOException {
@@ -97,7 +135,7 @@ public class StorageService {
      *
      * @param file document file (PDF/JPEG/PNG)
      * @param providerId provider user ID
-     * @return GCS URI
+     * @return storage URI
      * @throws IOException if upload fails
      */
     public String uploadProviderDocument(MultipartFile file, UUID providerId) throws IOException {
@@ -107,32 +145,194 @@ public class StorageService {
     }
 
     /**
-     * Generate signed URL for private file access.
-     * URL is valid for 15 minutes.
+     * Issue a signed URL for the client to PUT a file directly to storage, skipping the API.
      *
-     * @param gcsUrl GCS URI (gs://bucket/path)
-     * @return temporary signed URL
+     * The signature covers the declared Content-Type and the maximum file size, so storage itself
+     * refuses other types and larger bodies. The object is not trusted until {@link #finalizeUpload}
+     * has checked it.
+     *
+     * @param folder folder path within bucket (e.g., "profiles/userId")
+     * @param request file name, content type and size the client will upload
+     * @param allowedTypes list of allowed MIME types
+     * @return signed URL, the headers to send with it and the object's storage URI
+     * @throws BadRequestException if the declared type or size is not allowed
      */
-    public String generateSignedUrl(String gcsUrl) {
-        // Extract blob name from gs://bucket/path format
-        if (!gcsUrl.startsWith("gs://")) {
-            throw new RuntimeException("Invalid GCS URL format: " + gcsUrl);
+    public UploadUrlResponse createUploadUrl(String folder, UploadUrlRequest request, List<String> allowedTypes) {
+        if (!allowedTypes.contains(request.getContentType())) {
+            throw BadRequestException.invalidFileType(String.join(", ", allowedTypes));
         }
+        if (request.getFileSize() > maxFileSize) {
+            throw BadRequestException.fileTooLarge(maxFileSize);
+        }
+
+        String filename = objectName(folder, request.getFileName());
+        SignedUpload upload = backend.signUploadUrl(filename, request.getContentType(), maxFileSize,
+                uploadUrlValidity);
+
+        log.debug("Generated signed upload URL for: {} (valid for {})", filename, uploadUrlValidity);
+        return UploadUrlResponse.builder()
+                .uploadUrl(upload.url().toString())
+                .requiredHeaders(upload.requiredHeaders())
+                .objectUrl(backend.uriPrefix() + filename)
+                .expiresAt(Instant.now().plus(uploadUrlValidity))
+                .build();
+    }
 
-        String blobName = gcsUrl.replace("gs://" + bucketName + "/", "");
+    /**
+     * Signed upload URL for a profile photo.
+     */
+    public UploadUrlResponse createProfilePhotoUploadUrl(UploadUrlRequest request, UUID userId) {
+        return createUploadUrl("profiles/" + userId, request, Arrays.asList(allowedImageTypes.split(",")));
+    }
 
-        BlobInfo blobInfo = BlobInfo.newBuilder(bucketName, blobName).build();
+    /**
+     * Signed upload URL for a provider verification document.
+     */
+    public UploadUrlResponse createProviderDocumentUploadUrl(UploadUrlRequest request, UUID providerId) {
+        return createUploadUrl("documents/" + providerId, request, Arrays.asList(allowedDocumentTypes.split(",")));
+    }
+
+    /**
+     * Check a file uploaded to a signed URL before it is used.
+     *
+     * Size comes from the object's metadata and the MIME type is sniffed from a ranged read of its
+     * first {@value #SNIFF_BYTES} bytes, so the file is never downloaded in full. An object that
+     * fails the checks is deleted.
+     *
+     * @param gcsUrl storage URI returned with the upload URL
+     * @param folder folder the object must be in
+     * @param allowedTypes list of allowed MIME types
+     * @return the object's URI, size and detected MIME type
+     * @throws ForbiddenException if the object is outside {@code folder}
+     * @throws BadRequestException if the object is missing, too large or of a type not allowed
+     */
+    public UploadResponse finalizeUpload(String gcsUrl, String folder, List<String> allowedTypes) {
+        if (!isDirectlyIn(gcsUrl, folder)) {
+            throw ForbiddenException.notResourceOwner();
+        }
+
+        String name = gcsUrl.substring(backend.uriPrefix().length());
+        StoredObject object = backend.stat(name)
+                .orElseThrow(() -> new BadRequestException("Uploaded file not found", "UPLOAD_NOT_FOUND"));
 
         try {
-            URL signedUrl = storage.signUrl(
-                    blobInfo,
-                    15, // 15 minutes
-                    TimeUnit.MINUTES,
-                    Storage.SignUrlOption.withV4Signature()
-            );
+            if (object.size() == 0) {
+                throw new BadRequestException("File is empty", "EMPTY_FILE");
+            }
+            if (object.size() > maxFileSize) {
+                throw BadRequestException.fileTooLarge(maxFileSize);
+            }
+
+            String mimeType = tika.detect(readHeader(name));
+            if (!allowedTypes.contains(mimeType)) {
+                throw BadRequestException.invalidFileType(String.join(", ", allowedTypes));
+            }
+            if (!mimeType.equals(object.contentType())) {
+                // Serve the file with the type it actually has, not the one the client declared
+                backend.setContentType(name, mimeType);
+            }
 
-            log.debug("Generated signed URL for: {} (valid for 15 minutes)", blobName);
-            return signedUrl.toString();
+            log.info("Direct upload finalized: {} (size: {} bytes, type: {})", name, object.size(), mimeType);
+            return UploadResponse.builder()
+                    .url(gcsUrl)
+                    .fileSize(object.size())
+                    .mimeType(mimeType)
+                    .build();
+        } catch (BadRequestException e) {
+            backend.delete(name);
+            throw e;
+        }
+    }
+
+    /**
+     * Finalize a profile photo uploaded to a signed URL.
+     */
+    public UploadResponse finalizeProfilePhoto(String gcsUrl, UUID userId) {
+        return finalizeUpload(gcsUrl, "profiles/" + userId, Arrays.asList(allowedImageTypes.split(",")));
+    }
+
+    /**
+     * Finalize a provider verification document uploaded to a signed URL.
+     */
+    public UploadResponse finalizeProviderDocument(String gcsUrl, UUID providerId) {
+        return finalizeUpload(gcsUrl, "documents/" + providerId, Arrays.asList(allowedDocumentTypes.split(",")));
+    }
+
+    /**
+     * Check whether a URL points at a file in our storage.
+     */
+    public boolean isStoredFile(String gcsUrl) {
+        return gcsUrl != null && gcsUrl.startsWith(backend.uriPrefix());
+    }
+
+    /**
+     * Check whether a URL points at one of a user's profile photos, i.e. a file directly in their
+     * {@code profiles/{userId}} folder, the one profile photo uploads are written and finalized to.
+     */
+    public boolean isProfilePhotoOf(String gcsUrl, UUID userId) {
+        return gcsUrl != null && isDirectlyIn(gcsUrl, "profiles/" + userId);
+    }
+
+    private boolean isDirectlyIn(String gcsUrl, String folder) {
+        String prefix = backend.uriPrefix() + folder + "/";
+        return gcsUrl.startsWith(prefix) && !gcsUrl.contains("..") && gcsUrl.indexOf('/', prefix.length()) < 0;
+    }
+
+    /**
+     * Read a whole file from storage. Only for files known to be within the upload size limit.
+     *
+     * @param gcsUrl storage URI (e.g. gs://bucket/path)
+     * @return file content
+     * @throws RuntimeException if the file is missing or larger than the upload limit
+     */
+    public byte[] readFile(String gcsUrl) {
+        String name = nameOf(gcsUrl);
+        StoredObject object = backend.stat(name)
+                .orElseThrow(() -> new RuntimeException("File not found: " + gcsUrl));
+        if (object.size() > maxFileSize) {
+            throw new RuntimeException("File exceeds the upload size limit: " + gcsUrl);
+        }
+        try (InputStream in = Channels.newInputStream(backend.openReader(name, maxFileSize))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file: " + gcsUrl, e);
+        }
+    }
+
+    /**
+     * Write a file generated by the application, such as a resized photo, replacing any file at
+     * the same path.
+     *
+     * @param gcsUrl storage URI (e.g. gs://bucket/path)
+     * @param content file content
+     * @param contentType MIME type
+     */
+    public void writeFile(String gcsUrl, byte[] content, String contentType) {
+        String name = nameOf(gcsUrl);
+        try {
+            backend.write(name, content, contentType);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write file: " + gcsUrl, e);
+        }
+        log.debug("File written: {} (size: {} bytes, type: {})", name, content.length, contentType);
+    }
+
+    /**
+     * Generate signed URL for private file access.
+     * URL is valid for {@code gcp.storage.signed-url-validity} (15 minutes by default).
+     * Callers showing files should go through {@link SignedUrlCache}.
+     *
+     * @param gcsUrl storage URI (e.g. gs://bucket/path)
+     * @return temporary signed URL
+     */
+    public String generateSignedUrl(String gcsUrl) {
+        String blobName = nameOf(gcsUrl);
+
+        try {
+            String signedUrl = backend.signDownloadUrl(blobName, signedUrlValidity).toString();
+
+            log.debug("Generated signed URL for: {} (valid for {})", blobName, signedUrlValidity);
+            return signedUrl;
 
         } catch (Exception e) {
             log.error("Failed to generate signed URL for {}: {}", gcsUrl, e.getMessage());
@@ -141,20 +341,19 @@ public class StorageService {
     }
 
     /**
-     * Delete file from GCS.
+     * Delete file from storage.
      *
-     * @param gcsUrl GCS URI (gs://bucket/path)
+     * @param gcsUrl storage URI (e.g. gs://bucket/path)
      */
     public void deleteFile(String gcsUrl) {
         try {
-            if (!gcsUrl.startsWith("gs://")) {
-                log.warn("Invalid GCS URL format, cannot delete: {}", gcsUrl);
+            if (!isStoredFile(gcsUrl)) {
+                log.warn("Invalid storage URL format, cannot delete: {}", gcsUrl);
                 return;
             }
 
-            String blobName = gcsUrl.replace("gs://" + bucketName + "/", "");
-            BlobId blobId = BlobId.of(bucketName, blobName);
-            boolean deleted = storage.delete(blobId);
+            String blobName = nameOf(gcsUrl);
+            boolean deleted = backend.delete(blobName);
 
             if (deleted) {
                 log.info("File deleted successfully: {}", blobName);
@@ -168,14 +367,12 @@ public class StorageService {
     }
 
     /**
-     * Validate file size and MIME type.
+     * Validate that the file is not empty and within the size limit.
      *
      * @param file file to validate
-     * @param allowedTypes list of allowed MIME types
-     * @throws IOException if file read fails
      * @throws RuntimeException if validation fails
      */
-    private void validateFile(MultipartFile file, List<String> allowedTypes) throws IOException {
+    private void validateFileSize(MultipartFile file) {
         if (file.isEmpty()) {
             throw new RuntimeException("File is empty");
         }
@@ -186,36 +383,105 @@ public class StorageService {
             throw new RuntimeException(
                     String.format("File size exceeds maximum allowed size of %d MB", maxSizeMB));
         }
+    }
 
-        // Detect and validate MIME type using Apache Tika
-        String mimeType = tika.detect(file.getBytes());
+    /**
+     * Detect the MIME type from the start of a file using Apache Tika and check it is allowed.
+     *
+     * @param header first bytes of the file
+     * @param allowedTypes list of allowed MIME types
+     * @return detected MIME type
+     * @throws RuntimeException if the type is not allowed
+     */
+    private String detectAllowedType(byte[] header, List<String> allowedTypes) {
+        String mimeType = tika.detect(header);
         if (!allowedTypes.contains(mimeType)) {
             throw new RuntimeException(
                     String.format("File type not allowed. Detected: %s. Allowed: %s",
                             mimeType, String.join(", ", allowedTypes)));
         }
+        return mimeType;
+    }
 
-        log.debug("File validation passed: {} ({}, {} bytes)",
-                file.getOriginalFilename(), mimeType, file.getSize());
+    /**
+     * Unique object name in {@code folder}, keeping the original file's extension.
+     */
+    private static String objectName(String folder, String originalFilename) {
+        String extension = originalFilename != null && originalFilename.contains(".")
+                ? originalFilename.substring(originalFilename.lastIndexOf("."))
+                : "";
+        // Keep only a plain extension; anything else would end up in the object name
+        if (!extension.matches("\\.[A-Za-z0-9]{1,10}")) {
+            extension = "";
+        }
+        return folder + "/" + UUID.randomUUID() + extension;
     }
 
     /**
-     * Check if file exists in GCS.
+     * Object name of a stored file's URI.
      *
-     * @param gcsUrl GCS URI
+     * @throws RuntimeException if the URI is not in our storage
+     */
+    private String nameOf(String gcsUrl) {
+        if (!isStoredFile(gcsUrl)) {
+            throw new RuntimeException("Invalid storage URL format: " + gcsUrl);
+        }
+        return gcsUrl.substring(backend.uriPrefix().length());
+    }
+
+    /**
+     * Read the first {@value #SNIFF_BYTES} bytes of an object.
+     */
+    private byte[] readHeader(String name) {
+        try (ReadableByteChannel reader = backend.openReader(name, SNIFF_BYTES)) {
+            ByteBuffer header = ByteBuffer.allocate(SNIFF_BYTES);
+            while (header.hasRemaining() && reader.read(header) >= 0) {
+                // Keep reading until the range is exhausted
+            }
+            return Arrays.copyOf(header.array(), header.position());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read uploaded file: " + name, e);
+        }
+    }
+
+    private static long write(WritableByteChannel writer, byte[] bytes, int length, CRC32C crc32c)
+            throws IOException {
+        crc32c.update(bytes, 0, length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            writer.write(buffer);
+        }
+        return length;
+    }
+
+    /**
+     * Check the stored object against what was streamed.
+     *
+     * @throws RuntimeException if the object is missing or its size or checksum differ
+     */
+    private void verifyUpload(String name, long size, CRC32C crc32c) {
+        StoredObject object = backend.stat(name).orElse(null);
+        // Backends report CRC32C as the base64 of its big-endian bytes, like GCS
+        String expectedCrc32c = Base64.getEncoder()
+                .encodeToString(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc32c.getValue()).array());
+        if (object == null || object.size() != size || !expectedCrc32c.equals(object.crc32c())) {
+            throw new RuntimeException("Uploaded file failed integrity check: " + name);
+        }
+    }
+
+    /**
+     * Check if file exists in storage.
+     *
+     * @param gcsUrl storage URI
      * @return true if file exists
      */
     public boolean fileExists(String gcsUrl) {
         try {
-            if (!gcsUrl.startsWith("gs://")) {
+            if (!isStoredFile(gcsUrl)) {
                 return false;
             }
 
-            String blobName = gcsUrl.replace("gs://" + bucketName + "/", "");
-            BlobId blobId = BlobId.of(bucketName, blobName);
-            Blob blob = storage.get(blobId);
-
-            return blob != null && blob.exists();
+            return backend.stat(nameOf(gcsUrl)).isPresent();
         } catch (Exception e) {
             log.error("Error checking file existence for {}: {}", gcsUrl, e.getMessage());
             return false;
@@ -223,21 +489,18 @@ public class StorageService {
     }
 
     /**
-     * Get file metadata from GCS.
+     * Get file metadata from storage.
      *
-     * @param gcsUrl GCS URI
-     * @return Blob object with metadata, or null if not found
+     * @param gcsUrl storage URI
+     * @return size, type and checksum of the file, or null if not found
      */
-    public Blob getFileMetadata(String gcsUrl) {
+    public StoredObject getFileMetadata(String gcsUrl) {
         try {
-            if (!gcsUrl.startsWith("gs://")) {
+            if (!isStoredFile(gcsUrl)) {
                 return null;
             }
 
-            String blobName = gcsUrl.replace("gs://" + bucketName + "/", "");
-            BlobId blobId = BlobId.of(bucketName, blobName);
-
-            return storage.get(blobId);
+            return backend.stat(nameOf(gcsUrl)).orElse(null);
         } catch (Exception e) {
             log.error("Error getting file metadata for {}: {}", gcsUrl, e.getMessage());
             return null;
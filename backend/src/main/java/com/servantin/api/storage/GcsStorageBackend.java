@@ -0,0 +1,121 @@
+package com.servantin.api.storage;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.HttpMethod;
+import com.google.cloud.storage.Storage;
+
+import java.net.URL;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Objects in a Google Cloud Storage bucket.
+ *
+ * Writes go through resumable uploads in chunks of {@code chunkSize}, so memory per upload does
+ * not grow with the file. URLs are V4-signed with the service account's key.
+ */
+public class GcsStorageBackend implements StorageBackend {
+
+    private final Storage storage;
+    private final String bucketName;
+    private final int chunkSize;
+
+    public GcsStorageBackend(Storage storage, String bucketName, int chunkSize) {
+        this.storage = storage;
+        this.bucketName = bucketName;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public String uriPrefix() {
+        return "gs://" + bucketName + "/";
+    }
+
+    @Override
+    public WritableByteChannel openWriter(String name, String contentType) {
+        WriteChannel writer = storage.writer(BlobInfo.newBuilder(bucketName, name)
+                .setContentType(contentType)
+                .build());
+        writer.setChunkSize(chunkSize);
+        return writer;
+    }
+
+    @Override
+    public ReadableByteChannel openReader(String name, long limit) {
+        ReadChannel reader = storage.reader(BlobId.of(bucketName, name));
+        reader.limit(limit);
+        return reader;
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String name) {
+        Blob blob = storage.get(BlobId.of(bucketName, name), Storage.BlobGetOption.fields(
+                Storage.BlobField.SIZE, Storage.BlobField.CONTENT_TYPE, Storage.BlobField.CRC32C));
+        if (blob == null || blob.getSize() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new StoredObject(name, blob.getSize(), blob.getContentType(), blob.getCrc32c()));
+    }
+
+    @Override
+    public void setContentType(String name, String contentType) {
+        storage.update(BlobInfo.newBuilder(bucketName, name)
+                .setContentType(contentType)
+                .build());
+    }
+
+    @Override
+    public boolean delete(String name) {
+        return storage.delete(BlobId.of(bucketName, name));
+    }
+
+    /**
+     * Small files go up in a single request instead of a resumable session.
+     */
+    @Override
+    public void write(String name, byte[] content, String contentType) {
+        storage.create(BlobInfo.newBuilder(bucketName, name)
+                .setContentType(contentType)
+                .build(), content);
+    }
+
+    @Override
+    public URL signDownloadUrl(String name, Duration validity) {
+        return storage.signUrl(
+                BlobInfo.newBuilder(bucketName, name).build(),
+                validity.toSeconds(),
+                TimeUnit.SECONDS,
+                Storage.SignUrlOption.withV4Signature()
+        );
+    }
+
+    /**
+     * The signature covers the Content-Type and a content-length range up to {@code maxBytes}, so
+     * GCS itself refuses other types and larger bodies.
+     */
+    @Override
+    public SignedUpload signUploadUrl(String name, String contentType, long maxBytes, Duration validity) {
+        Map<String, String> headers = Map.of(
+                "Content-Type", contentType,
+                "x-goog-content-length-range", "0," + maxBytes);
+        URL url = storage.signUrl(
+                BlobInfo.newBuilder(bucketName, name)
+                        .setContentType(contentType)
+                        .build(),
+                validity.toSeconds(),
+                TimeUnit.SECONDS,
+                Storage.SignUrlOption.httpMethod(HttpMethod.PUT),
+                Storage.SignUrlOption.withExtHeaders(headers),
+                Storage.SignUrlOption.withV4Signature()
+        );
+        return new SignedUpload(url, headers);
+    }
+}
@@ -0,0 +1,412 @@
+package com.servantin.api.storage;
+
+import org.springframework.web.util.UriUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.zip.CRC32C;
+
+/**
+ * Objects as files in a local directory, for development, tests and load tests without GCS.
+ *
+ * Content is written through a {@link FileChannel} to a temporary file that replaces the object
+ * when the writer is closed, so readers never see half an object; the content type and CRC32C
+ * computed on the way are kept in a properties file next to it. Signed URLs point at
+ * {@code /api/storage/local} on this application and carry an expiry and an HMAC-SHA256 signature
+ * of the method, object name and upload constraints, checked by {@link #verify}.
+ *
+ * Layout under the root: {@code objects/} holds the content by object name, {@code meta/} the
+ * metadata and {@code tmp/} writes in progress.
+ */
+public class LocalStorageBackend implements StorageBackend {
+
+    public static final String URI_PREFIX = "local://";
+    public static final String URL_PATH = "/api/storage/local/";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    private final Path objects;
+    private final Path meta;
+    private final Path tmp;
+    private final String baseUrl;
+    private final SecretKeySpec signingKey;
+    private final Clock clock;
+
+    public LocalStorageBackend(Path root, String baseUrl, byte[] signingKey, Clock clock) throws IOException {
+        Path absoluteRoot = root.toAbsolutePath().normalize();
+        this.objects = Files.createDirectories(absoluteRoot.resolve("objects"));
+        this.meta = Files.createDirectories(absoluteRoot.resolve("meta"));
+        this.tmp = Files.createDirectories(absoluteRoot.resolve("tmp"));
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.signingKey = new SecretKeySpec(signingKey, HMAC_ALGORITHM);
+        this.clock = clock;
+    }
+
+    @Override
+    public String uriPrefix() {
+        return URI_PREFIX;
+    }
+
+    @Override
+    public WritableByteChannel openWriter(String name, String contentType) throws IOException {
+        return newWriter(name, contentType);
+    }
+
+    @Override
+    public ReadableByteChannel openReader(String name, long limit) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(name), StandardOpenOption.READ);
+        if (limit >= channel.size()) {
+            return channel;
+        }
+        return new LimitedReader(channel, limit);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String name) {
+        Path path = resolve(name);
+        try {
+            long size = Files.size(path);
+            Properties properties = readMeta(name);
+            return Optional.of(new StoredObject(name, size, properties.getProperty("contentType"),
+                    properties.getProperty("crc32c")));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + name, e);
+        }
+    }
+
+    @Override
+    public void setContentType(String name, String contentType) {
+        try {
+            Properties properties = readMeta(name);
+            properties.setProperty("contentType", contentType);
+            writeMeta(name, properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update " + name, e);
+        }
+    }
+
+    @Override
+    public boolean delete(String name) {
+        try {
+            Files.deleteIfExists(metaPath(name));
+            return Files.deleteIfExists(resolve(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete " + name, e);
+        }
+    }
+
+    @Override
+    public URL signDownloadUrl(String name, Duration validity) {
+        long expires = clock.instant().plus(validity).getEpochSecond();
+        return url(name, "expires=" + expires
+                + "&signature=" + signature("GET", name, expires, "", 0));
+    }
+
+    /**
+     * The signature covers the Content-Type and the size limit, checked when the upload arrives.
+     */
+    @Override
+    public SignedUpload signUploadUrl(String name, String contentType, long maxBytes, Duration validity) {
+        long expires = clock.instant().plus(validity).getEpochSecond();
+        URL url = url(name, "expires=" + expires + "&max=" + maxBytes
+                + "&signature=" + signature("PUT", name, expires, contentType, maxBytes));
+        return new SignedUpload(url, Map.of("Content-Type", contentType));
+    }
+
+    /**
+     * Check a signed URL's signature and expiry.
+     *
+     * @param contentType the request's Content-Type for uploads, empty for downloads
+     * @param maxBytes the URL's size limit for uploads, 0 for downloads
+     */
+    public boolean verify(String method, String name, long expires, String contentType, long maxBytes,
+            String signature) {
+        if (expires < clock.instant().getEpochSecond()) {
+            return false;
+        }
+        byte[] expected = signature(method, name, expires, contentType, maxBytes).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * File holding an object's content, for servers that send files themselves.
+     */
+    public Path path(String name) {
+        return resolve(name);
+    }
+
+    /**
+     * Send an object's content to {@code target} with {@link FileChannel#transferTo}, which the
+     * kernel does without copying through the heap when the target is a socket or file.
+     *
+     * @return bytes sent
+     */
+    public long transferTo(String name, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(name), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Store an object read from {@code source}, such as the body of an upload request.
+     *
+     * @return bytes stored
+     * @throws ObjectTooLargeException if {@code source} has more than {@code maxBytes}; nothing
+     * is stored then
+     */
+    public long receive(String name, String contentType, InputStream source, long maxBytes) throws IOException {
+        long size = 0;
+        ObjectWriter writer = newWriter(name, contentType);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+            int read;
+            while ((read = source.read(buffer.array())) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new ObjectTooLargeException(maxBytes);
+                }
+                buffer.limit(read).position(0);
+                while (buffer.hasRemaining()) {
+                    writer.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        writer.close();
+        return size;
+    }
+
+    /**
+     * Thrown by {@link #receive} when the content is larger than allowed.
+     */
+    public static class ObjectTooLargeException extends IOException {
+
+        private final long maxBytes;
+
+        ObjectTooLargeException(long maxBytes) {
+            super("Object exceeds " + maxBytes + " bytes");
+            this.maxBytes = maxBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+    }
+
+    private ObjectWriter newWriter(String name, String contentType) throws IOException {
+        Path target = resolve(name);
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        return new ObjectWriter(name, contentType, target, temp,
+                FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    private Path resolve(String name) {
+        Path path = objects.resolve(name).normalize();
+        if (!path.startsWith(objects) || path.equals(objects)) {
+            throw new IllegalArgumentException("Invalid object name: " + name);
+        }
+        return path;
+    }
+
+    private Path metaPath(String name) {
+        return meta.resolve(objects.relativize(resolve(name)) + ".properties");
+    }
+
+    private Properties readMeta(String name) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(metaPath(name))) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            // Object written by hand, without metadata
+        }
+        return properties;
+    }
+
+    private void writeMeta(String name, Properties properties) throws IOException {
+        Path target = metaPath(name);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(tmp, "meta-", ".part");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private URL url(String name, String query) {
+        try {
+            return new URL(baseUrl + URL_PATH + UriUtils.encodePath(name, StandardCharsets.UTF_8) + "?" + query);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid storage base URL: " + baseUrl, e);
+        }
+    }
+
+    private String signature(String method, String name, long expires, String contentType, long maxBytes) {
+        String payload = String.join("\n", method, name, Long.toString(expires), contentType, Long.toString(maxBytes));
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign storage URL", e);
+        }
+    }
+
+    /**
+     * Writes to a temporary file and moves it over the object when closed, recording the content
+     * type and CRC32C of what was written.
+     */
+    private final class ObjectWriter implements WritableByteChannel {
+
+        private final String name;
+        private final String contentType;
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final CRC32C crc32c = new CRC32C();
+        private boolean open = true;
+
+        private ObjectWriter(String name, String contentType, Path target, Path temp, FileChannel channel) {
+            this.name = name;
+            this.contentType = contentType;
+            this.target = target;
+            this.temp = temp;
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            int start = src.position();
+            int written = channel.write(src);
+            crc32c.update(src.duplicate().limit(start + written).position(start));
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            try {
+                channel.close();
+                Properties properties = new Properties();
+                if (contentType != null) {
+                    properties.setProperty("contentType", contentType);
+                }
+                // GCS reports CRC32C as the base64 of its big-endian bytes
+                properties.setProperty("crc32c", Base64.getEncoder()
+                        .encodeToString(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc32c.getValue()).array()));
+                writeMeta(name, properties);
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        /**
+         * Drop what was written, leaving any existing object as it was.
+         */
+        void abort() throws IOException {
+            if (!open) {
+                return;
+            }
+            open = false;
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Reads no more than a fixed number of bytes from the start of a file.
+     */
+    private static final class LimitedReader implements ReadableByteChannel {
+
+        private final FileChannel channel;
+        private long remaining;
+
+        private LimitedReader(FileChannel channel, long limit) {
+            this.channel = channel;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int limit = dst.limit();
+            if (dst.remaining() > remaining) {
+                dst.limit(dst.position() + (int) remaining);
+            }
+            try {
+                int read = channel.read(dst);
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            } finally {
+                dst.limit(limit);
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
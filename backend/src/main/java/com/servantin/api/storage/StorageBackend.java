@@ -0,0 +1,92 @@
+package com.servantin.api.storage;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where uploaded files are kept. {@link com.servantin.api.service.StorageService} does validation
+ * and naming; a backend only stores objects by name and signs URLs to them.
+ *
+ * Objects are addressed by name within the backend (e.g. "profiles/userId/uuid.jpg") and recorded
+ * in the database as {@link #uriPrefix()} followed by the name.
+ */
+public interface StorageBackend {
+
+    /**
+     * Prefix of the URIs under which this backend's objects are recorded, e.g. "gs://bucket/".
+     */
+    String uriPrefix();
+
+    /**
+     * Open a channel that writes an object, replacing any object with the same name. The object is
+     * stored when the channel is closed.
+     */
+    WritableByteChannel openWriter(String name, String contentType) throws IOException;
+
+    /**
+     * Open a channel that reads an object from its start, returning at most {@code limit} bytes.
+     *
+     * @throws IOException if the object does not exist or cannot be read
+     */
+    ReadableByteChannel openReader(String name, long limit) throws IOException;
+
+    /**
+     * Size, type and checksum of an object, or empty if there is none.
+     */
+    Optional<StoredObject> stat(String name);
+
+    /**
+     * Change the content type an object is served with.
+     */
+    void setContentType(String name, String contentType);
+
+    /**
+     * Delete an object.
+     *
+     * @return false if there was no such object
+     */
+    boolean delete(String name);
+
+    /**
+     * Write a whole object held in memory, replacing any object with the same name.
+     */
+    default void write(String name, byte[] content, String contentType) throws IOException {
+        try (WritableByteChannel writer = openWriter(name, contentType)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                writer.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * URL that lets anyone holding it download an object until it expires.
+     */
+    URL signDownloadUrl(String name, Duration validity);
+
+    /**
+     * URL that lets anyone holding it upload an object of {@code contentType} and at most
+     * {@code maxBytes} bytes until it expires.
+     */
+    SignedUpload signUploadUrl(String name, String contentType, long maxBytes, Duration validity);
+
+    /**
+     * Metadata of a stored object.
+     *
+     * @param crc32c base64 of the big-endian CRC32C of the content, as GCS reports it
+     */
+    record StoredObject(String name, long size, String contentType, String crc32c) {
+    }
+
+    /**
+     * A signed upload URL and the headers the upload must be sent with.
+     */
+    record SignedUpload(URL url, Map<String, String> requiredHeaders) {
+    }
+}
@@ -0,0 +1,35 @@
+-- V10: Per-participant read watermark
+-- Read state moves from messages.is_read (rewritten for every unread message each time a
+-- conversation is opened) to one (last_read_at, last_read_message_id) position per participant:
+-- a message is read by a participant when it sorts at or before their watermark on (created_at, id).
+
+-- ============================================
+-- Add watermark columns
+-- ============================================
+
+ALTER TABLE conversation_participants
+    ADD COLUMN last_read_at TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN last_read_message_id UUID;
+
+COMMENT ON COLUMN conversation_participants.last_read_at IS 'created_at of the last message read by this user, NULL when nothing was read yet';
+COMMENT ON COLUMN conversation_participants.last_read_message_id IS 'ID of the last message read by this user, breaks ties on last_read_at';
+COMMENT ON COLUMN messages.is_read IS 'Deprecated: no longer maintained, read state is conversation_participants.last_read_at';
+
+-- ============================================
+-- Backfill from messages.is_read
+-- ============================================
+
+UPDATE conversation_participants cp
+SET last_read_at = latest.created_at,
+    last_read_message_id = latest.id
+FROM (
+    SELECT DISTINCT ON (p.booking_id, p.user_id) p.booking_id, p.user_id, m.created_at, m.id
+    FROM conversation_participants p
+    JOIN messages m
+        ON m.booking_id = p.booking_id
+        AND m.sender_id <> p.user_id
+        AND m.is_read = TRUE
+    ORDER BY p.booking_id, p.user_id, m.created_at DESC, m.id DESC
+) latest
+WHERE cp.booking_id = latest.booking_id
+  AND cp.user_id = latest.user_id;
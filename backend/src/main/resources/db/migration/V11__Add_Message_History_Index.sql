@@ -0,0 +1,8 @@
+-- V11: Composite index for keyset-paginated message history
+-- Conversation pages read the latest / older / newer messages of one booking ordered on
+-- (created_at, id), so each page is a bounded index range scan however long the thread is.
+
+CREATE INDEX idx_messages_booking_created ON messages(booking_id, created_at, id);
+
+-- Superseded by the composite index, which has booking_id as its prefix
+DROP INDEX IF EXISTS idx_messages_booking;
@@ -0,0 +1,37 @@
+-- V12: Transactional email outbox
+-- Emails are written here in the same transaction as the change that triggers them, then sent by
+-- EmailDispatcher. Senders claim due rows with FOR UPDATE SKIP LOCKED and lease them by pushing
+-- next_attempt_at forward, so several instances drain the table without sending a row twice.
+
+-- ============================================
+-- Create email_outbox table
+-- ============================================
+
+CREATE TABLE email_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    template_name VARCHAR(100) NOT NULL,
+    variables JSONB NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    ses_message_id VARCHAR(255),
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    sent_at TIMESTAMP WITH TIME ZONE,
+
+    CONSTRAINT chk_email_outbox_status CHECK (status IN ('PENDING', 'SENT', 'DEAD'))
+);
+
+-- The sender only ever scans pending rows that are due
+CREATE INDEX idx_email_outbox_due ON email_outbox(next_attempt_at) WHERE status = 'PENDING';
+
+-- Purge of sent rows
+CREATE INDEX idx_email_outbox_sent ON email_outbox(sent_at) WHERE status = 'SENT';
+
+-- Comments for documentation
+COMMENT ON TABLE email_outbox IS 'Transactional emails waiting to be sent, sent, or given up on';
+COMMENT ON COLUMN email_outbox.variables IS 'Thymeleaf template variables';
+COMMENT ON COLUMN email_outbox.next_attempt_at IS 'When a pending email is due; pushed forward while a sender holds it and after each failed attempt';
+COMMENT ON COLUMN email_outbox.attempts IS 'Failed send attempts so far';
@@ -0,0 +1,6 @@
+-- V13: Resized provider photos
+-- Match results and booking cards show small versions of the provider photo, written in the
+-- background after the photo changes. Until they exist the original photo_url is used.
+
+ALTER TABLE provider_profiles ADD COLUMN photo_thumbnail_url VARCHAR(500);
+ALTER TABLE provider_profiles ADD COLUMN photo_medium_url VARCHAR(500);
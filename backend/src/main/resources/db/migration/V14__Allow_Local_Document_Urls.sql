@@ -0,0 +1,9 @@
+-- V14: Document URLs from the local storage backend
+-- With storage.backend=local (dev profile) documents are recorded as local://path/to/file,
+-- which the original gs:// check rejected.
+
+ALTER TABLE provider_documents DROP CONSTRAINT chk_document_url_format;
+ALTER TABLE provider_documents
+    ADD CONSTRAINT chk_document_url_format CHECK (document_url LIKE 'gs://%' OR document_url LIKE 'local://%');
+
+COMMENT ON COLUMN provider_documents.document_url IS 'Storage URI: gs://bucket-name/path/to/file (GCS) or local://path/to/file (local backend)';
@@ -0,0 +1,5 @@
+-- V15: Index for the rating refresh poll
+-- The match index polls provider_rating_stats for rows updated since its watermark, which
+-- otherwise scans every provider's aggregates on each poll.
+
+CREATE INDEX idx_provider_rating_stats_updated ON provider_rating_stats(updated_at);
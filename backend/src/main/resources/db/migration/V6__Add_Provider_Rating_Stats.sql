@@ -0,0 +1,70 @@
+-- V6: Materialized provider rating aggregates
+-- Replaces per-request AVG/COUNT over ratings with one row per provider,
+-- maintained in the same transaction as every write to ratings.
+
+-- ============================================
+-- Create provider_rating_stats table
+-- ============================================
+
+CREATE TABLE provider_rating_stats (
+    provider_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    average_rating DOUBLE PRECISION,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    CONSTRAINT chk_rating_count CHECK (rating_count >= 0)
+);
+
+-- Comments for documentation
+COMMENT ON TABLE provider_rating_stats IS 'Per-provider rating aggregates, kept in sync with ratings by trigger';
+COMMENT ON COLUMN provider_rating_stats.provider_id IS 'Provider user ID (ratings.provider_id)';
+COMMENT ON COLUMN provider_rating_stats.average_rating IS 'rating_sum / rating_count, NULL when the provider has no ratings';
+
+-- ============================================
+-- Backfill from existing ratings
+-- ============================================
+
+INSERT INTO provider_rating_stats (provider_id, rating_sum, rating_count, average_rating, updated_at)
+SELECT provider_id, SUM(score), COUNT(*), AVG(score)::DOUBLE PRECISION, NOW()
+FROM ratings
+GROUP BY provider_id
+ON CONFLICT (provider_id) DO NOTHING;
+
+-- ============================================
+-- Keep aggregates in sync with ratings
+-- ============================================
+
+CREATE OR REPLACE FUNCTION apply_rating_to_provider_stats()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE provider_rating_stats
+        SET rating_sum = rating_sum - OLD.score,
+            rating_count = rating_count - 1,
+            average_rating = CASE
+                WHEN rating_count - 1 > 0 THEN (rating_sum - OLD.score)::DOUBLE PRECISION / (rating_count - 1)
+            END,
+            updated_at = NOW()
+        WHERE provider_id = OLD.provider_id;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO provider_rating_stats (provider_id, rating_sum, rating_count, average_rating, updated_at)
+        VALUES (NEW.provider_id, NEW.score, 1, NEW.score, NOW())
+        ON CONFLICT (provider_id) DO UPDATE
+        SET rating_sum = provider_rating_stats.rating_sum + EXCLUDED.rating_sum,
+            rating_count = provider_rating_stats.rating_count + 1,
+            average_rating = (provider_rating_stats.rating_sum + EXCLUDED.rating_sum)::DOUBLE PRECISION
+                / (provider_rating_stats.rating_count + 1),
+            updated_at = NOW();
+    END IF;
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER maintain_provider_rating_stats
+    AFTER INSERT OR UPDATE OF score, provider_id OR DELETE ON ratings
+    FOR EACH ROW
+    EXECUTE FUNCTION apply_rating_to_provider_stats();
@@ -0,0 +1,35 @@
+-- V7: Weekly availability bitmask on provider_profiles
+-- Encodes provider_availabilities (7 weekdays x 3 time slots) in one integer so matching
+-- can filter on availability without reading the availabilities of every candidate.
+-- Bit layout: weekday * 3 + slot, with weekday 0 = Sunday and slot MORNING = 0, AFTERNOON = 1, EVENING = 2.
+
+-- ============================================
+-- Add availability_mask column
+-- ============================================
+
+ALTER TABLE provider_profiles
+    ADD COLUMN availability_mask INTEGER NOT NULL DEFAULT 0;
+
+ALTER TABLE provider_profiles
+    ADD CONSTRAINT chk_availability_mask CHECK (availability_mask >= 0 AND availability_mask < (1 << 21));
+
+COMMENT ON COLUMN provider_profiles.availability_mask IS 'Weekly availability bitmask: bit (weekday * 3 + slot) set when available, maintained by the application';
+
+-- ============================================
+-- Backfill from existing availabilities
+-- ============================================
+
+UPDATE provider_profiles pp
+SET availability_mask = slots.mask
+FROM (
+    SELECT provider_profile_id,
+           BIT_OR(1 << (weekday * 3 + CASE time_slot
+               WHEN 'MORNING' THEN 0
+               WHEN 'AFTERNOON' THEN 1
+               WHEN 'EVENING' THEN 2
+           END)) AS mask
+    FROM provider_availabilities
+    WHERE time_slot IN ('MORNING', 'AFTERNOON', 'EVENING')
+    GROUP BY provider_profile_id
+) slots
+WHERE pp.id = slots.provider_profile_id;
@@ -0,0 +1,14 @@
+-- V8: Composite indexes for the keyset-paginated booking feeds
+-- Client and provider feeds page on (created_at DESC, id DESC) per user, so each page is a
+-- bounded range scan instead of sorting the user's whole booking history.
+
+-- ============================================
+-- Feed indexes
+-- ============================================
+
+CREATE INDEX idx_bookings_client_created ON bookings(client_id, created_at DESC, id DESC);
+CREATE INDEX idx_bookings_provider_created ON bookings(provider_id, created_at DESC, id DESC);
+
+-- The single-column indexes are prefixes of the feed indexes
+DROP INDEX IF EXISTS idx_bookings_client;
+DROP INDEX IF EXISTS idx_bookings_provider;
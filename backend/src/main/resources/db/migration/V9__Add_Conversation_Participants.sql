@@ -0,0 +1,41 @@
+-- V9: Per-participant unread message counters
+-- Replaces the per-booking COUNT over messages on every booking list with one row per
+-- (booking, participant), incremented when a message is sent and reset when it is read.
+
+-- ============================================
+-- Create conversation_participants table
+-- ============================================
+
+CREATE TABLE conversation_participants (
+    booking_id UUID NOT NULL REFERENCES bookings(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    unread_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+
+    PRIMARY KEY (booking_id, user_id),
+    CONSTRAINT chk_unread_count CHECK (unread_count >= 0)
+);
+
+-- Bulk lookups go by participant: WHERE user_id = ? AND booking_id IN (...)
+CREATE INDEX idx_conversation_participants_user ON conversation_participants(user_id, booking_id);
+
+-- Comments for documentation
+COMMENT ON TABLE conversation_participants IS 'Unread message counter per booking participant, maintained by the application';
+COMMENT ON COLUMN conversation_participants.unread_count IS 'Messages in the booking sent by someone else and not yet read by this user';
+
+-- ============================================
+-- Backfill from existing messages
+-- ============================================
+
+INSERT INTO conversation_participants (booking_id, user_id, unread_count, updated_at)
+SELECT participants.booking_id, participants.user_id, COUNT(m.id), NOW()
+FROM (
+    SELECT id AS booking_id, client_id AS user_id FROM bookings
+    UNION
+    SELECT id AS booking_id, provider_id AS user_id FROM bookings WHERE provider_id IS NOT NULL
+) participants
+LEFT JOIN messages m
+    ON m.booking_id = participants.booking_id
+    AND m.sender_id <> participants.user_id
+    AND m.is_read = FALSE
+GROUP BY participants.booking_id, participants.user_id;
@@ -0,0 +1,132 @@
+package com.servantin.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servantin.api.config.LocalSesClient;
+import com.servantin.api.domain.model.BulkSendJobStatus;
+import com.servantin.api.domain.model.UserRole;
+import com.servantin.api.dto.notification.AnnouncementRequest;
+import com.servantin.api.dto.notification.BulkSendJobDto;
+import com.servantin.api.exception.ResourceNotFoundException;
+import com.servantin.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnnouncementSenderTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private LocalSesClient localSes;
+    private AnnouncementSender announcementSender;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        EmailTemplateRegistry registry = new EmailTemplateRegistry(templateEngine, "https://servantin.ch");
+
+        localSes = new LocalSesClient();
+        BulkEmailService bulkEmailService = new BulkEmailService(localSes, registry,
+                new SesSendRateLimiter(1_000_000), new ObjectMapper(), Duration.ZERO);
+        announcementSender = new AnnouncementSender(bulkEmailService, userRepository, 2, 10, Duration.ofHours(1),
+                Clock.systemUTC());
+    }
+
+    @Test
+    @DisplayName("Should email the users with the requested role page by page in the background")
+    void start_sendsToAudienceInPages() throws InterruptedException {
+        // Given
+        UUID anna = new UUID(0L, 1L);
+        UUID marc = new UUID(0L, 2L);
+        UUID lea = new UUID(0L, 3L);
+        when(userRepository.findRecipientsByRoleAfter(eq(UserRole.PROVIDER), eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.of(new Object[] { anna, "anna@test.ch", "Anna" },
+                        new Object[] { marc, "marc@test.ch", "Marc" }));
+        when(userRepository.findRecipientsByRoleAfter(eq(UserRole.PROVIDER), eq(marc), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[] { lea, "lea@test.ch", "Léa" }));
+        when(userRepository.findRecipientsByRoleAfter(eq(UserRole.PROVIDER), eq(lea), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        BulkSendJobDto queued = announcementSender.start(announcement(UserRole.PROVIDER));
+        announcementSender.shutdown();
+        BulkSendJobDto finished = announcementSender.get(queued.getId());
+
+        // Then
+        assertThat(queued.getReport()).isNull();
+        assertThat(finished.getStatus()).isEqualTo(BulkSendJobStatus.COMPLETED);
+        assertThat(finished.getProcessed()).isEqualTo(3);
+        assertThat(finished.getSent()).isEqualTo(3);
+        assertThat(finished.getReport().getRecipients())
+                .extracting(status -> status.getEmail())
+                .containsExactly("anna@test.ch", "marc@test.ch", "lea@test.ch");
+        assertThat(localSes.getBulkRequests()).hasSize(2);
+        assertThat(localSes.getBulkDeliveries().get(0).html()).contains("Anna", "Payouts now run weekly.");
+        verify(userRepository, never()).findRecipientsAfter(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report the recipients attempted before a job failed")
+    void start_reportsPartialProgressOnFailure() throws InterruptedException {
+        // Given
+        UUID anna = new UUID(0L, 1L);
+        when(userRepository.findRecipientsAfter(eq(new UUID(0L, 0L)), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[] { anna, "anna@test.ch", "Anna" }));
+        when(userRepository.findRecipientsAfter(eq(anna), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("Database unavailable"));
+
+        // When
+        BulkSendJobDto queued = announcementSender.start(announcement(null));
+        announcementSender.shutdown();
+        BulkSendJobDto finished = announcementSender.get(queued.getId());
+
+        // Then
+        assertThat(finished.getStatus()).isEqualTo(BulkSendJobStatus.FAILED);
+        assertThat(finished.getError()).isEqualTo("Database unavailable");
+        assertThat(finished.getSent()).isEqualTo(1);
+        assertThat(finished.getReport().getRecipients()).singleElement()
+                .satisfies(status -> assertThat(status.isDelivered()).isTrue());
+    }
+
+    @Test
+    @DisplayName("Should not find an unknown job")
+    void get_unknownJob() {
+        assertThatThrownBy(() -> announcementSender.get(UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static AnnouncementRequest announcement(UserRole audience) {
+        AnnouncementRequest request = new AnnouncementRequest();
+        request.setSubject("Provider news");
+        request.setTitle("New payout schedule");
+        request.setBody("Payouts now run weekly.");
+        request.setAudience(audience);
+        return request;
+    }
+}
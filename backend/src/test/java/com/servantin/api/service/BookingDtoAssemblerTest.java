@@ -0,0 +1,126 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.*;
+import com.servantin.api.domain.model.UserRole;
+import com.servantin.api.dto.booking.BookingDto;
+import com.servantin.api.repository.ConversationParticipantRepository;
+import com.servantin.api.repository.ProviderProfileRepository;
+import com.servantin.api.repository.ProviderRatingStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingDtoAssemblerTest {
+
+    @Mock
+    private ProviderProfileRepository providerProfileRepository;
+
+    @Mock
+    private ProviderRatingStatsRepository ratingStatsRepository;
+
+    @Mock
+    private ConversationParticipantRepository participantRepository;
+
+    @InjectMocks
+    private BookingDtoAssembler assembler;
+
+    private User client;
+    private User provider;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        client = User.builder()
+                .id(UUID.randomUUID())
+                .email("client@test.ch")
+                .name("Client")
+                .role(UserRole.CLIENT)
+                .build();
+        provider = User.builder()
+                .id(UUID.randomUUID())
+                .email("provider@test.ch")
+                .name("Provider")
+                .role(UserRole.PROVIDER)
+                .build();
+        category = Category.builder()
+                .id(UUID.randomUUID())
+                .slug("babysitting")
+                .name("Babysitting & Nanny")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should assemble a booking list with one query per lookup")
+    void toDtos_batchesLookups() {
+        // Given
+        Booking first = booking(provider);
+        Booking second = booking(provider);
+        Booking unassigned = booking(null);
+
+        when(providerProfileRepository.findPhotoAndVerificationByUserIds(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[] { provider.getId(), "gs://bucket/photo.jpg", true }));
+        when(ratingStatsRepository.findByProviderIdIn(anyCollection()))
+                .thenReturn(List.of(ProviderRatingStats.builder()
+                        .providerId(provider.getId())
+                        .averageRating(4.5)
+                        .ratingCount(2L)
+                        .build()));
+        when(participantRepository.findUnreadCounts(eq(client.getId()), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[] { second.getId(), 3 }));
+
+        // When
+        List<BookingDto> dtos = assembler.toDtos(List.of(first, second, unassigned), client.getId());
+
+        // Then
+        assertThat(dtos).extracting(BookingDto::getId)
+                .containsExactly(first.getId(), second.getId(), unassigned.getId());
+        assertThat(dtos.get(0).getProvider().getPhotoUrl()).isEqualTo("gs://bucket/photo.jpg");
+        assertThat(dtos.get(0).getProvider().getIsVerified()).isTrue();
+        assertThat(dtos.get(0).getProvider().getAverageRating()).isEqualTo(4.5);
+        assertThat(dtos.get(0).getUnreadMessageCount()).isZero();
+        assertThat(dtos.get(1).getUnreadMessageCount()).isEqualTo(3L);
+        assertThat(dtos.get(2).getProvider()).isNull();
+
+        verify(providerProfileRepository, times(1)).findPhotoAndVerificationByUserIds(anyCollection());
+        verify(ratingStatsRepository, times(1)).findByProviderIdIn(anyCollection());
+        verify(participantRepository, times(1)).findUnreadCounts(eq(client.getId()), anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should skip unread counts when there is no current user")
+    void toDtos_withoutCurrentUser() {
+        // When
+        List<BookingDto> dtos = assembler.toDtos(List.of(booking(null)), null);
+
+        // Then
+        assertThat(dtos.get(0).getUnreadMessageCount()).isZero();
+        verifyNoInteractions(providerProfileRepository, ratingStatsRepository, participantRepository);
+    }
+
+    private Booking booking(User assignedProvider) {
+        return Booking.builder()
+                .id(UUID.randomUUID())
+                .client(client)
+                .provider(assignedProvider)
+                .category(category)
+                .postalCode("2800")
+                .city("Delémont")
+                .build();
+    }
+}
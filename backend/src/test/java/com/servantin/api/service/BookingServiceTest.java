@@ -0,0 +1,143 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.*;
+import com.servantin.api.domain.model.BookingStatus;
+import com.servantin.api.domain.model.UserRole;
+import com.servantin.api.dto.booking.BookingDto;
+import com.servantin.api.dto.booking.BookingFeedRequest;
+import com.servantin.api.dto.common.CursorPage;
+import com.servantin.api.exception.BadRequestException;
+import com.servantin.api.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookingServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private BookingDtoAssembler bookingDtoAssembler;
+
+    @InjectMocks
+    private BookingService bookingService;
+
+    private User provider;
+    private List<Booking> history;
+
+    @BeforeEach
+    void setUp() {
+        provider = User.builder()
+                .id(UUID.randomUUID())
+                .email("provider@test.ch")
+                .name("Provider")
+                .role(UserRole.PROVIDER)
+                .build();
+        history = new ArrayList<>();
+        Instant createdAt = Instant.parse("2026-03-01T10:15:30.123456Z");
+        for (int i = 0; i < 3; i++) {
+            history.add(Booking.builder()
+                    .id(UUID.randomUUID())
+                    .provider(provider)
+                    .status(BookingStatus.REQUESTED)
+                    .createdAt(createdAt.minusSeconds(i))
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("Should page a provider feed and resume after the cursor")
+    void getProviderBookings_pagesWithCursor() {
+        // Given
+        BookingFeedRequest firstRequest = new BookingFeedRequest();
+        firstRequest.setPageSize(2);
+        when(bookingRepository.findProviderFeed(provider.getId(), EnumSet.allOf(BookingStatus.class),
+                PageRequest.of(0, 3))).thenReturn(history);
+        when(bookingDtoAssembler.toDtos(anyList(), eq(provider.getId())))
+                .thenAnswer(invocation -> ((List<Booking>) invocation.getArgument(0)).stream()
+                        .map(booking -> BookingDto.builder().id(booking.getId()).build())
+                        .toList());
+
+        // When
+        CursorPage<BookingDto> first = bookingService.getProviderBookings(provider.getId(), firstRequest);
+
+        // Then
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getContent()).extracting(BookingDto::getId)
+                .containsExactly(history.get(0).getId(), history.get(1).getId());
+
+        // When
+        BookingFeedRequest nextRequest = new BookingFeedRequest();
+        nextRequest.setPageSize(2);
+        nextRequest.setCursor(first.getNextCursor());
+        when(bookingRepository.findProviderFeedAfter(provider.getId(), EnumSet.allOf(BookingStatus.class),
+                history.get(1).getCreatedAt(), history.get(1).getId(), PageRequest.of(0, 3)))
+                .thenReturn(history.subList(2, 3));
+        CursorPage<BookingDto> next = bookingService.getProviderBookings(provider.getId(), nextRequest);
+
+        // Then
+        assertThat(next.isHasMore()).isFalse();
+        assertThat(next.getNextCursor()).isNull();
+        assertThat(next.getContent()).extracting(BookingDto::getId).containsExactly(history.get(2).getId());
+    }
+
+    @Test
+    @DisplayName("Should only query requested bookings for pending requests")
+    void getProviderPendingRequests_filtersOnRequested() {
+        // Given
+        when(bookingRepository.findProviderFeed(eq(provider.getId()), eq(Set.of(BookingStatus.REQUESTED)), any()))
+                .thenReturn(List.of());
+
+        // When
+        CursorPage<BookingDto> page = bookingService.getProviderPendingRequests(provider.getId(),
+                new BookingFeedRequest());
+
+        // Then
+        assertThat(page.isHasMore()).isFalse();
+        verify(bookingRepository).findProviderFeed(provider.getId(), Set.of(BookingStatus.REQUESTED),
+                PageRequest.of(0, 21));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void getClientBookings_rejectsMalformedCursor() {
+        BookingFeedRequest request = new BookingFeedRequest();
+        request.setCursor(CursorCodec.encode("yesterday", "not-a-uuid"));
+
+        assertThatThrownBy(() -> bookingService.getClientBookings(UUID.randomUUID(), request))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(bookingRepository);
+    }
+}
@@ -0,0 +1,178 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.Booking;
+import com.servantin.api.domain.entity.Category;
+import com.servantin.api.domain.entity.User;
+import com.servantin.api.domain.model.BookingStatus;
+import com.servantin.api.domain.model.UserRole;
+import com.servantin.api.exception.ConflictException;
+import com.servantin.api.repository.BookingRepository;
+import com.servantin.api.repository.CategoryRepository;
+import com.servantin.api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingStateMachineConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingStateMachine bookingStateMachine;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private User client;
+    private User provider;
+    private User otherProvider;
+    private Category category;
+    private UUID bookingId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        client = userRepository.save(User.builder()
+                .email("client-" + suffix + "@test.ch")
+                .passwordHash("hash")
+                .name("Client")
+                .role(UserRole.CLIENT)
+                .build());
+        provider = userRepository.save(User.builder()
+                .email("provider-" + suffix + "@test.ch")
+                .passwordHash("hash")
+                .name("Provider")
+                .role(UserRole.PROVIDER)
+                .build());
+        otherProvider = userRepository.save(User.builder()
+                .email("other-provider-" + suffix + "@test.ch")
+                .passwordHash("hash")
+                .name("Other Provider")
+                .role(UserRole.PROVIDER)
+                .build());
+        category = categoryRepository.save(Category.builder()
+                .slug("race-" + suffix)
+                .name("Race")
+                .build());
+        bookingId = bookingRepository.save(Booking.builder()
+                .client(client)
+                .provider(provider)
+                .category(category)
+                .description("Concurrent transitions")
+                .postalCode("2800")
+                .city("Delémont")
+                .status(BookingStatus.REQUESTED)
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteById(bookingId);
+        categoryRepository.delete(category);
+        userRepository.deleteAll(List.of(client, provider, otherProvider));
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Should let exactly one of many concurrent competing transitions win")
+    void competingTransitions_haveExactlyOneWinner() throws Exception {
+        // When: half the threads accept, half decline, all released at once
+        List<BookingStateMachine.Transition> winners = hammer(
+                BookingStateMachine.Transition.ACCEPT, BookingStateMachine.Transition.DECLINE);
+
+        // Then
+        assertThat(winners).hasSize(1);
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus())
+                .isEqualTo(winners.get(0).getTarget());
+    }
+
+    @RepeatedTest(5)
+    @DisplayName("Should never lose a cancel to a concurrent accept")
+    void acceptAndCancel_cancelIsNeverOverwritten() throws Exception {
+        // When: half the threads accept, half cancel, all released at once
+        List<BookingStateMachine.Transition> winners = hammer(
+                BookingStateMachine.Transition.ACCEPT, BookingStateMachine.Transition.CANCEL);
+
+        // Then: an accept may precede the cancel, but nothing moves the booking once canceled
+        assertThat(winners).containsOnlyOnce(BookingStateMachine.Transition.CANCEL);
+        assertThat(winners).hasSizeLessThanOrEqualTo(2);
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus())
+                .isEqualTo(BookingStatus.CANCELED);
+    }
+
+    @Test
+    @DisplayName("Should reject a stale transition from a provider the booking was reassigned away from")
+    void staleProvider_cannotActOnReassignedBooking() {
+        // Given: the provider declined and the client selected another provider
+        bookingStateMachine.apply(bookingId, BookingStateMachine.Transition.DECLINE, provider.getId());
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        booking.setProvider(otherProvider);
+        booking.setStatus(BookingStatus.REQUESTED);
+        bookingRepository.save(booking);
+
+        // When / Then: the first provider's late accept no longer matches the row
+        assertThatThrownBy(() -> bookingStateMachine.apply(
+                bookingId, BookingStateMachine.Transition.ACCEPT, provider.getId()))
+                .isInstanceOf(ConflictException.class);
+        Booking reloaded = bookingRepository.findById(bookingId).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(BookingStatus.REQUESTED);
+        assertThat(reloaded.getProvider().getId()).isEqualTo(otherProvider.getId());
+    }
+
+    /**
+     * Apply {@code first} and {@code second} alternately from {@value #THREADS} threads released at once.
+     *
+     * @return the transitions that succeeded; every other attempt must fail with a conflict
+     */
+    private List<BookingStateMachine.Transition> hammer(BookingStateMachine.Transition first,
+            BookingStateMachine.Transition second) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<BookingStateMachine.Transition> winners = new CopyOnWriteArrayList<>();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            BookingStateMachine.Transition transition = i % 2 == 0 ? first : second;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    bookingStateMachine.apply(bookingId, transition, provider.getId());
+                    winners.add(transition);
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(winners.size() + conflicts.get()).isEqualTo(THREADS);
+        return winners;
+    }
+}
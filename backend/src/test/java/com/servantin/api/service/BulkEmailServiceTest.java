@@ -0,0 +1,147 @@
+package com.servantin.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.servantin.api.config.LocalSesClient;
+import com.servantin.api.dto.notification.BulkSendReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailRequest;
+import software.amazon.awssdk.services.ses.model.SendBulkTemplatedEmailResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkEmailServiceTest {
+
+    private EmailTemplateRegistry registry;
+    private LocalSesClient localSes;
+    private BulkEmailService bulkEmailService;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        registry = new EmailTemplateRegistry(templateEngine, "https://servantin.ch");
+
+        localSes = new LocalSesClient();
+        bulkEmailService = new BulkEmailService(localSes, registry, new SesSendRateLimiter(1_000_000),
+                new ObjectMapper(), Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Should send in chunks of 50 with one personalised email per recipient")
+    void send_chunksAndPersonalises() {
+        // Given
+        List<BulkEmailService.Recipient> recipients = IntStream.range(0, 120)
+                .mapToObj(i -> new BulkEmailService.Recipient("user" + i + "@test.ch", Map.of("name", "User " + i)))
+                .toList();
+
+        // When
+        BulkSendReport report = bulkEmailService.send("announcement", "News for {{name}}",
+                Map.of("title", "Spring update", "body", "New categories are live."), recipients);
+
+        // Then
+        assertThat(localSes.getBulkRequests())
+                .extracting(request -> request.destinations().size())
+                .containsExactly(50, 50, 20);
+        assertThat(localSes.getTemplates()).hasSize(1);
+        assertThat(report.getSent()).isEqualTo(120);
+        assertThat(report.getFailed()).isZero();
+        assertThat(report.getRecipients()).allSatisfy(status -> assertThat(status.getMessageId()).isNotNull());
+
+        LocalSesClient.BulkDelivery delivery = localSes.getBulkDeliveries().get(7);
+        assertThat(delivery.to()).isEqualTo("user7@test.ch");
+        assertThat(delivery.subject()).isEqualTo("News for User 7");
+        assertThat(delivery.html()).contains("User 7", "Spring update", "New categories are live.",
+                "https://servantin.ch");
+    }
+
+    @Test
+    @DisplayName("Should report a rejected recipient without failing the rest of the chunk")
+    void send_reportsPerRecipientStatus() {
+        // Given
+        localSes.rejectRecipient("blocked@test.ch");
+        List<BulkEmailService.Recipient> recipients = List.of(
+                new BulkEmailService.Recipient("ok@test.ch", Map.of("name", "Ok")),
+                new BulkEmailService.Recipient("blocked@test.ch", Map.of("name", "Blocked")));
+
+        // When
+        BulkSendReport report = bulkEmailService.send("announcement", "News",
+                Map.of("title", "Title", "body", "Body"), recipients);
+
+        // Then
+        assertThat(report.getSent()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getRecipients().get(0).isDelivered()).isTrue();
+        assertThat(report.getRecipients().get(1).getEmail()).isEqualTo("blocked@test.ch");
+        assertThat(report.getRecipients().get(1).getStatus()).isEqualTo("MessageRejected");
+    }
+
+    @Test
+    @DisplayName("Should retry a throttled chunk and reuse the synced SES template")
+    void send_retriesThrottledChunk() {
+        // Given
+        List<BulkEmailService.Recipient> recipients = List.of(
+                new BulkEmailService.Recipient("user@test.ch", Map.of("name", "User")));
+        bulkEmailService.send("announcement", "News", Map.of("title", "Title", "body", "Body"), recipients);
+        localSes.throttleNext(2);
+
+        // When
+        BulkSendReport report = bulkEmailService.send("announcement", "News",
+                Map.of("title", "Title", "body", "Body"), recipients);
+
+        // Then
+        assertThat(report.getSent()).isEqualTo(1);
+        assertThat(localSes.getBulkRequests()).hasSize(2);
+        assertThat(localSes.getTemplates()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should fail only the chunk hit by a client error and carry on with the next")
+    void send_clientErrorFailsOnlyThatChunk() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        localSes = new LocalSesClient() {
+            @Override
+            public SendBulkTemplatedEmailResponse sendBulkTemplatedEmail(SendBulkTemplatedEmailRequest request) {
+                if (calls.incrementAndGet() == 2) {
+                    throw SdkClientException.create("Connection reset");
+                }
+                return super.sendBulkTemplatedEmail(request);
+            }
+        };
+        bulkEmailService = new BulkEmailService(localSes, registry, new SesSendRateLimiter(1_000_000),
+                new ObjectMapper(), Duration.ZERO);
+        List<BulkEmailService.Recipient> recipients = IntStream.range(0, 120)
+                .mapToObj(i -> new BulkEmailService.Recipient("user" + i + "@test.ch", Map.of("name", "User " + i)))
+                .toList();
+
+        // When
+        BulkSendReport report = bulkEmailService.send("announcement", "News",
+                Map.of("title", "Title", "body", "Body"), recipients);
+
+        // Then
+        assertThat(report.getSent()).isEqualTo(70);
+        assertThat(report.getFailed()).isEqualTo(50);
+        assertThat(report.getRecipients().subList(50, 100)).allSatisfy(status -> {
+            assertThat(status.isDelivered()).isFalse();
+            assertThat(status.getStatus()).isEqualTo("NotSent");
+            assertThat(status.getError()).isEqualTo("Connection reset");
+        });
+        assertThat(report.getRecipients().get(100).isDelivered()).isTrue();
+    }
+}
@@ -0,0 +1,213 @@
+package com.servantin.api.service;
+
+import com.servantin.api.config.LocalSesClient;
+import com.servantin.api.domain.entity.EmailOutboxMessage;
+import com.servantin.api.domain.model.EmailOutboxStatus;
+import com.servantin.api.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.ses.SesClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.email.outbox.initial-backoff=PT0S",
+        "app.email.outbox.max-attempts=3"
+})
+@ActiveProfiles("test")
+class EmailOutboxTest {
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private EmailOutbox emailOutbox;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private SesClient sesClient;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private LocalSesClient localSes;
+
+    @BeforeEach
+    void setUp() {
+        localSes = (LocalSesClient) sesClient;
+        localSes.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should send an email enqueued in a committed transaction exactly once")
+    void committedEmail_isSent() {
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                emailService.sendWelcomeEmail("welcome@test.ch", "Client", false));
+
+        // Then
+        EmailOutboxMessage email = awaitStatus("welcome@test.ch", EmailOutboxStatus.SENT);
+        assertThat(email.getSesMessageId()).startsWith("local-");
+        assertThat(localSes.getSent()).hasSize(1);
+        assertThat(localSes.getSent().get(0).destination().toAddresses()).containsExactly("welcome@test.ch");
+    }
+
+    @Test
+    @DisplayName("Should never send an email whose transaction rolled back")
+    void rolledBackEmail_isNotSent() {
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            emailService.sendWelcomeEmail("rollback@test.ch", "Client", false);
+            status.setRollbackOnly();
+        });
+        emailDispatcher.pollOutbox();
+
+        // Then
+        assertThat(outboxRepository.findAll()).isEmpty();
+        assertThat(localSes.getSent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should retry a throttled email until SES accepts it")
+    void throttledEmail_isRetried() {
+        // Given: SES throttles the first two attempts
+        localSes.throttleNext(2);
+        emailService.sendWelcomeEmail("throttled@test.ch", "Client", false);
+
+        // When
+        EmailOutboxMessage email = awaitStatusPolling("throttled@test.ch", EmailOutboxStatus.SENT);
+
+        // Then
+        assertThat(email.getAttempts()).isEqualTo(2);
+        assertThat(email.getLastError()).contains("Maximum sending rate exceeded");
+        assertThat(localSes.getSent()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should mark an email dead after the last allowed attempt")
+    void repeatedlyFailingEmail_isMarkedDead() {
+        // Given
+        localSes.throttleNext(10);
+        emailService.sendWelcomeEmail("dead@test.ch", "Client", false);
+
+        // When
+        EmailOutboxMessage email = awaitStatusPolling("dead@test.ch", EmailOutboxStatus.DEAD);
+
+        // Then
+        assertThat(email.getAttempts()).isEqualTo(3);
+        emailDispatcher.pollOutbox();
+        assertThat(localSes.getSent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should let concurrent senders claim disjoint batches")
+    void concurrentClaims_neverOverlap() throws Exception {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            emailOutbox.enqueue("bulk-" + i + "@test.ch", "Subject", "welcome", Map.of("name", "Client"));
+        }
+
+        // When: four senders drain the outbox at once
+        ExecutorService senders = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<UUID> claimed = new CopyOnWriteArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(senders.submit(() -> {
+                start.await();
+                // A sender may find every remaining row locked by the others, so keep polling until all are claimed
+                while (Set.copyOf(claimed).size() < 100 && System.nanoTime() < deadline) {
+                    emailOutbox.claimDue(7).forEach(email -> claimed.add(email.getId()));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        senders.shutdown();
+
+        // Then
+        assertThat(claimed).hasSize(100).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should back off exponentially up to the cap")
+    void backoff_doublesUpToCap() {
+        // Given
+        EmailOutbox outbox = new EmailOutbox(outboxRepository, Duration.ofMinutes(5), 8,
+                Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofDays(7));
+
+        // Then
+        assertThat(outbox.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(outbox.backoff(2)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(outbox.backoff(4)).isEqualTo(Duration.ofMinutes(4));
+        assertThat(outbox.backoff(6)).isEqualTo(Duration.ofMinutes(10));
+        assertThat(outbox.backoff(100)).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    private EmailOutboxMessage awaitStatus(String recipient, EmailOutboxStatus status) {
+        return await(() -> find(recipient).filter(email -> email.getStatus() == status).orElse(null));
+    }
+
+    /**
+     * Poll the outbox like the scheduler does until the email reaches {@code status}, rather than
+     * counting on one poll per attempt: a poll can come up empty while the last attempt is finishing.
+     */
+    private EmailOutboxMessage awaitStatusPolling(String recipient, EmailOutboxStatus status) {
+        return await(() -> {
+            emailDispatcher.pollOutbox();
+            return find(recipient).filter(email -> email.getStatus() == status).orElse(null);
+        });
+    }
+
+    private Optional<EmailOutboxMessage> find(String recipient) {
+        return outboxRepository.findAll().stream().filter(email -> email.getRecipient().equals(recipient)).findFirst();
+    }
+
+    private <T> T await(Supplier<T> condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            T value = condition.get();
+            if (value != null) {
+                return value;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Condition not met within 10 seconds");
+    }
+}
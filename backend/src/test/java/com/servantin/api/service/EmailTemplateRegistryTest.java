@@ -0,0 +1,67 @@
+package com.servantin.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateRegistryTest {
+
+    private EmailTemplateRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        registry = new EmailTemplateRegistry(templateEngine, "https://servantin.ch");
+    }
+
+    @Test
+    @DisplayName("Should register and preload every email template but not the layout")
+    void preload_parsesAllEmailTemplates() {
+        // When
+        registry.preload();
+
+        // Then
+        assertThat(registry.getTemplateNames())
+                .hasSize(15)
+                .contains("welcome", "new-messages-digest")
+                .doesNotContain("layout");
+    }
+
+    @Test
+    @DisplayName("Should render with the given variables and the common ones")
+    void render_addsCommonVariables() {
+        // When
+        String html = registry.render("new-messages-digest", Map.of(
+                "recipientName", "Camille",
+                "senderName", "Luca",
+                "messageCount", 3,
+                "messagePreview", "À jeudi !",
+                "bookingLink", "https://servantin.ch/dashboard/bookings/1"));
+
+        // Then
+        assertThat(html)
+                .contains("Camille", "<strong>3</strong>", "À jeudi !")
+                .contains("href=\"https://servantin.ch\"");
+    }
+
+    @Test
+    @DisplayName("Should reject a template that does not exist")
+    void render_unknownTemplate() {
+        assertThatThrownBy(() -> registry.render("missing", Map.of()))
+                .isInstanceOf(TemplateInputException.class);
+    }
+}
@@ -0,0 +1,180 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.User;
+import com.servantin.api.domain.event.BookingMessageSentEvent;
+import com.servantin.api.domain.model.UserRole;
+import com.servantin.api.dto.message.MessageDto;
+import com.servantin.api.repository.ConversationParticipantRepository;
+import com.servantin.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageNotificationCoalescerTest {
+
+    private static final Duration QUIET_WINDOW = Duration.ofMinutes(2);
+    private static final Duration MAX_DELAY = Duration.ofMinutes(10);
+
+    @Mock
+    private ConversationParticipantRepository participantRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingStreamRegistry streamRegistry;
+
+    @Mock
+    private EmailService emailService;
+
+    private MessageNotificationCoalescer coalescer;
+    private User recipient;
+    private UUID bookingId;
+    private Instant start;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new MessageNotificationCoalescer(participantRepository, userRepository, streamRegistry,
+                emailService, QUIET_WINDOW, MAX_DELAY);
+        recipient = User.builder().id(UUID.randomUUID()).name("Provider").email("provider@test.ch")
+                .role(UserRole.PROVIDER).build();
+        bookingId = UUID.randomUUID();
+        start = Instant.parse("2026-01-05T09:00:00Z");
+        lenient().when(userRepository.findById(recipient.getId())).thenReturn(Optional.of(recipient));
+    }
+
+    @Test
+    @DisplayName("Should send one digest for a burst once the conversation is quiet")
+    void burst_sendsSingleDigestAfterQuietWindow() {
+        // Given: three messages thirty seconds apart
+        for (int i = 0; i < 3; i++) {
+            coalescer.onMessageSent(event("Message " + i), start.plusSeconds(30L * i));
+        }
+        when(participantRepository.findUnreadCount(bookingId, recipient.getId())).thenReturn(3L);
+
+        // When: still inside the quiet window, then past it
+        coalescer.flushDue(start.plusSeconds(60).plus(QUIET_WINDOW).minusSeconds(1));
+        verifyNoInteractions(emailService);
+        coalescer.flushDue(start.plusSeconds(60).plus(QUIET_WINDOW));
+
+        // Then
+        verify(emailService).sendNewMessagesDigest("provider@test.ch", "Provider", "Client",
+                bookingId.toString(), 3, "Message 2");
+        assertThat(coalescer.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should send the single message email for a burst of one")
+    void singleMessage_sendsPlainNotification() {
+        // Given
+        coalescer.onMessageSent(event("Hello"), start);
+        when(participantRepository.findUnreadCount(bookingId, recipient.getId())).thenReturn(1L);
+
+        // When
+        coalescer.flushDue(start.plus(QUIET_WINDOW));
+
+        // Then
+        verify(emailService).sendNewMessageNotification("provider@test.ch", "Provider", "Client",
+                bookingId.toString(), "Hello");
+        verify(emailService, never()).sendNewMessagesDigest(anyString(), anyString(), anyString(), anyString(),
+                anyInt(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should not wait past the max delay for a conversation that never goes quiet")
+    void continuousConversation_flushesAtMaxDelay() {
+        // Given: a message every minute, so the quiet window never elapses
+        long minutes = MAX_DELAY.toMinutes();
+        for (int i = 0; i <= minutes; i++) {
+            coalescer.onMessageSent(event("Message " + i), start.plus(Duration.ofMinutes(i)));
+        }
+        when(participantRepository.findUnreadCount(bookingId, recipient.getId())).thenReturn(minutes + 1);
+
+        // When
+        coalescer.flushDue(start.plus(MAX_DELAY));
+
+        // Then
+        verify(emailService).sendNewMessagesDigest("provider@test.ch", "Provider", "Client",
+                bookingId.toString(), (int) minutes + 1, "Message " + minutes);
+    }
+
+    @Test
+    @DisplayName("Should skip the email if the recipient read the conversation")
+    void readConversation_sendsNothing() {
+        // Given
+        coalescer.onMessageSent(event("Hello"), start);
+        when(participantRepository.findUnreadCount(bookingId, recipient.getId())).thenReturn(0L);
+
+        // When
+        coalescer.flushDue(start.plus(QUIET_WINDOW));
+
+        // Then
+        verifyNoInteractions(emailService);
+        assertThat(coalescer.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should skip the email if the recipient is viewing the conversation")
+    void liveRecipient_sendsNothing() {
+        // Given: the first message was pushed live, the second arrives after the recipient left
+        when(streamRegistry.isSubscribed(bookingId, recipient.getId())).thenReturn(true);
+        coalescer.onMessageSent(event("Seen live"), start);
+        assertThat(coalescer.pendingCount()).isZero();
+
+        when(streamRegistry.isSubscribed(bookingId, recipient.getId())).thenReturn(false, true);
+        coalescer.onMessageSent(event("Hello"), start.plusSeconds(10));
+        when(participantRepository.findUnreadCount(bookingId, recipient.getId())).thenReturn(1L);
+
+        // When: the recipient is back when the burst closes
+        coalescer.flushDue(start.plus(QUIET_WINDOW).plusSeconds(10));
+
+        // Then
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    @DisplayName("Should not notify anyone while the booking has no provider")
+    void noRecipient_isIgnored() {
+        // When
+        coalescer.onMessageSent(new BookingMessageSentEvent(bookingId, null, message("Hello")), start);
+        coalescer.flushDue(start.plus(MAX_DELAY));
+
+        // Then
+        assertThat(coalescer.pendingCount()).isZero();
+        verifyNoInteractions(emailService, participantRepository);
+        verify(userRepository, never()).findById(any());
+    }
+
+    private BookingMessageSentEvent event(String content) {
+        return new BookingMessageSentEvent(bookingId, recipient.getId(), message(content));
+    }
+
+    private MessageDto message(String content) {
+        return MessageDto.builder()
+                .id(UUID.randomUUID())
+                .bookingId(bookingId)
+                .senderId(UUID.randomUUID())
+                .senderName("Client")
+                .content(content)
+                .build();
+    }
+}
@@ -0,0 +1,263 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.entity.Booking;
+import com.servantin.api.domain.entity.ConversationParticipant;
+import com.servantin.api.domain.entity.Message;
+import com.servantin.api.domain.entity.User;
+import com.servantin.api.domain.event.BookingMessageSentEvent;
+import com.servantin.api.domain.event.ConversationReadEvent;
+import com.servantin.api.domain.model.BookingStatus;
+import com.servantin.api.domain.model.UserRole;
+import com.servantin.api.dto.common.CursorPage;
+import com.servantin.api.dto.message.ConversationSummaryDto;
+import com.servantin.api.dto.message.InboxRequest;
+import com.servantin.api.dto.message.MessageDto;
+import com.servantin.api.dto.message.MessageHistoryRequest;
+import com.servantin.api.dto.message.SendMessageRequest;
+import com.servantin.api.repository.BookingRepository;
+import com.servantin.api.repository.ConversationParticipantRepository;
+import com.servantin.api.repository.MessageRepository;
+import com.servantin.api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MessageServiceTest {
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @Mock
+    private ConversationParticipantRepository participantRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookingStreamRegistry streamRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private MessageService messageService;
+
+    private User client;
+    private User provider;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        client = User.builder().id(UUID.randomUUID()).name("Client").email("client@test.ch").role(UserRole.CLIENT).build();
+        provider = User.builder().id(UUID.randomUUID()).name("Provider").email("provider@test.ch").role(UserRole.PROVIDER).build();
+        booking = Booking.builder().id(UUID.randomUUID()).client(client).provider(provider).build();
+    }
+
+    @Test
+    @DisplayName("Should count a sent message as unread for the recipient only")
+    void sendMessage_incrementsRecipientCounter() {
+        // Given
+        SendMessageRequest request = new SendMessageRequest();
+        request.setContent("Bonjour");
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(userRepository.findById(client.getId())).thenReturn(Optional.of(client));
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        messageService.sendMessage(booking.getId(), client.getId(), request);
+
+        // Then
+        verify(participantRepository).incrementUnread(booking.getId(), provider.getId());
+        verify(participantRepository, never()).incrementUnread(booking.getId(), client.getId());
+        verify(eventPublisher).publishEvent(any(BookingMessageSentEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should reset the reader's counter before moving their watermark to the latest message")
+    void markMessagesAsRead_movesWatermarkAfterReset() {
+        // Given
+        Message latest = Message.builder()
+                .id(UUID.randomUUID())
+                .booking(booking)
+                .sender(client)
+                .content("Bonjour")
+                .createdAt(Instant.parse("2026-03-01T10:15:30Z"))
+                .build();
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(messageRepository.findFirstByBookingIdOrderByCreatedAtDescIdDesc(booking.getId()))
+                .thenReturn(Optional.of(latest));
+        when(participantRepository.advanceReadWatermark(eq(booking.getId()), eq(provider.getId()),
+                eq(latest.getCreatedAt()), eq(latest.getId()), any())).thenReturn(1);
+
+        // When
+        messageService.markMessagesAsRead(booking.getId(), provider.getId());
+
+        // Then
+        InOrder order = inOrder(participantRepository, messageRepository);
+        order.verify(participantRepository).resetUnread(booking.getId(), provider.getId());
+        order.verify(messageRepository).findFirstByBookingIdOrderByCreatedAtDescIdDesc(booking.getId());
+        order.verify(participantRepository).advanceReadWatermark(eq(booking.getId()), eq(provider.getId()),
+                eq(latest.getCreatedAt()), eq(latest.getId()), any());
+        verify(eventPublisher).publishEvent(
+                new ConversationReadEvent(booking.getId(), provider.getId(), latest.getCreatedAt(), latest.getId()));
+    }
+
+    @Test
+    @DisplayName("Should not touch read state for users outside the booking")
+    void markMessagesAsRead_rejectsNonParticipant() {
+        // Given
+        UUID outsider = UUID.randomUUID();
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+
+        // When / Then
+        assertThatThrownBy(() -> messageService.markMessagesAsRead(booking.getId(), outsider))
+                .hasMessage("Access denied to this booking");
+        verifyNoInteractions(participantRepository, messageRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should report a message as read once another participant's watermark covers it")
+    void getBookingMessages_readStateFromWatermark() {
+        // Given
+        Instant sentAt = Instant.parse("2026-03-01T10:15:30Z");
+        Message read = Message.builder().id(UUID.randomUUID()).booking(booking).sender(client)
+                .content("1").createdAt(sentAt).build();
+        Message unread = Message.builder().id(UUID.randomUUID()).booking(booking).sender(client)
+                .content("2").createdAt(sentAt.plusSeconds(1)).build();
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(participantRepository.findByIdBookingId(booking.getId())).thenReturn(List.of(
+                ConversationParticipant.builder()
+                        .id(new ConversationParticipant.Key(booking.getId(), provider.getId()))
+                        .lastReadAt(read.getCreatedAt())
+                        .lastReadMessageId(read.getId())
+                        .build(),
+                // The sender's own watermark never marks their messages read
+                ConversationParticipant.builder()
+                        .id(new ConversationParticipant.Key(booking.getId(), client.getId()))
+                        .lastReadAt(unread.getCreatedAt())
+                        .lastReadMessageId(unread.getId())
+                        .build()));
+        when(messageRepository.findLatest(booking.getId(), PageRequest.of(0, 51))).thenReturn(List.of(unread, read));
+
+        // When
+        CursorPage<MessageDto> page = messageService.getBookingMessages(booking.getId(), client.getId(),
+                new MessageHistoryRequest());
+
+        // Then
+        assertThat(page.getContent()).extracting(MessageDto::getId).containsExactly(read.getId(), unread.getId());
+        assertThat(page.getContent()).extracting(MessageDto::getIsRead).containsExactly(true, false);
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should page back through older messages with a cursor")
+    void getBookingMessages_pagesBackwards() {
+        // Given
+        Instant sentAt = Instant.parse("2026-03-01T10:15:30Z");
+        List<Message> newestFirst = List.of(
+                Message.builder().id(UUID.randomUUID()).booking(booking).sender(client).content("3")
+                        .createdAt(sentAt.plusSeconds(2)).build(),
+                Message.builder().id(UUID.randomUUID()).booking(booking).sender(provider).content("2")
+                        .createdAt(sentAt.plusSeconds(1)).build(),
+                Message.builder().id(UUID.randomUUID()).booking(booking).sender(client).content("1")
+                        .createdAt(sentAt).build());
+        when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        when(messageRepository.findLatest(booking.getId(), PageRequest.of(0, 3))).thenReturn(newestFirst);
+        MessageHistoryRequest latestRequest = new MessageHistoryRequest();
+        latestRequest.setLimit(2);
+
+        // When
+        CursorPage<MessageDto> latest = messageService.getBookingMessages(booking.getId(), client.getId(), latestRequest);
+
+        // Then
+        assertThat(latest.isHasMore()).isTrue();
+        assertThat(latest.getContent()).extracting(MessageDto::getContent).containsExactly("2", "3");
+
+        // When
+        Message oldest = newestFirst.get(2);
+        when(messageRepository.findBefore(booking.getId(), newestFirst.get(1).getCreatedAt(), newestFirst.get(1).getId(),
+                PageRequest.of(0, 3))).thenReturn(List.of(oldest));
+        MessageHistoryRequest olderRequest = new MessageHistoryRequest();
+        olderRequest.setLimit(2);
+        olderRequest.setBefore(latest.getNextCursor());
+        CursorPage<MessageDto> older = messageService.getBookingMessages(booking.getId(), client.getId(), olderRequest);
+
+        // Then
+        assertThat(older.isHasMore()).isFalse();
+        assertThat(older.getContent()).extracting(MessageDto::getContent).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("Should build the inbox from one query and continue after the last conversation")
+    void getInbox_mapsRowsAndPagesByLastActivity() {
+        // Given: two conversations, one more than the page size
+        Instant latestAt = Instant.parse("2026-01-05T10:00:00Z");
+        UUID otherBookingId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+        List<Object[]> rows = List.of(
+                new Object[]{booking.getId(), "ACCEPTED", "Cleaning", provider.getId(), "Provider",
+                        messageId, provider.getId(), "See you tomorrow", OffsetDateTime.ofInstant(latestAt, ZoneOffset.UTC), 2},
+                new Object[]{otherBookingId, "REQUESTED", "Gardening", null, null,
+                        null, null, null, Timestamp.from(latestAt.minusSeconds(60)), 0});
+        when(messageRepository.findInbox(client.getId(), PageRequest.of(0, 2))).thenReturn(rows);
+        InboxRequest request = new InboxRequest();
+        request.setPageSize(1);
+
+        // When
+        CursorPage<ConversationSummaryDto> page = messageService.getInbox(client.getId(), request);
+
+        // Then
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getContent()).singleElement().satisfies(conversation -> {
+            assertThat(conversation.getBookingStatus()).isEqualTo(BookingStatus.ACCEPTED);
+            assertThat(conversation.getCounterpartName()).isEqualTo("Provider");
+            assertThat(conversation.getLastMessagePreview()).isEqualTo("See you tomorrow");
+            assertThat(conversation.isLastMessageIsOwn()).isFalse();
+            assertThat(conversation.getLastActivityAt()).isEqualTo(latestAt);
+            assertThat(conversation.getUnreadCount()).isEqualTo(2);
+        });
+
+        // When
+        when(messageRepository.findInboxBefore(client.getId(), latestAt, booking.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.<Object[]>of(rows.get(1)));
+        request.setCursor(page.getNextCursor());
+        CursorPage<ConversationSummaryDto> next = messageService.getInbox(client.getId(), request);
+
+        // Then
+        assertThat(next.isHasMore()).isFalse();
+        assertThat(next.getContent()).singleElement().satisfies(conversation -> {
+            assertThat(conversation.getBookingId()).isEqualTo(otherBookingId);
+            assertThat(conversation.getLastMessageId()).isNull();
+            assertThat(conversation.getLastActivityAt()).isEqualTo(latestAt.minusSeconds(60));
+        });
+    }
+}
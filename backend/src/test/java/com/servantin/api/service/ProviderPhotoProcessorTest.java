@@ -0,0 +1,159 @@
+package com.servantin.api.service;
+
+import com.servantin.api.domain.event.ProviderPhotoChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderPhotoProcessorTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final String PHOTO_URL = "gs://test-bucket/profiles/user/photo.png";
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private ProviderService providerService;
+
+    private ProviderPhotoProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new ProviderPhotoProcessor(storageService, providerService, new SimpleMeterRegistry(), 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        processor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should store square JPEG versions of the photo and record them on the profile")
+    void process_storesDerivatives() throws Exception {
+        // Given: a wide photo with a red centre, which the crop keeps
+        UUID profileId = UUID.randomUUID();
+        byte[] original = png(1600, 900);
+        when(storageService.readFile(PHOTO_URL)).thenReturn(original);
+        when(providerService.applyPhotoDerivatives(profileId, PHOTO_URL,
+                "gs://test-bucket/profiles/user/photo-96.jpg", "gs://test-bucket/profiles/user/photo-320.jpg"))
+                .thenReturn(true);
+
+        // When
+        processor.process(new ProviderPhotoChangedEvent(profileId, USER_ID, PHOTO_URL));
+
+        // Then
+        ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> medium = ArgumentCaptor.forClass(byte[].class);
+        verify(storageService).writeFile(eq("gs://test-bucket/profiles/user/photo-96.jpg"), thumbnail.capture(),
+                eq("image/jpeg"));
+        verify(storageService).writeFile(eq("gs://test-bucket/profiles/user/photo-320.jpg"), medium.capture(),
+                eq("image/jpeg"));
+
+        BufferedImage small = ImageIO.read(new ByteArrayInputStream(thumbnail.getValue()));
+        assertThat(small.getWidth()).isEqualTo(96);
+        assertThat(small.getHeight()).isEqualTo(96);
+        assertThat(new Color(small.getRGB(48, 48)).getRed()).isGreaterThan(200);
+        assertThat(ImageIO.read(new ByteArrayInputStream(medium.getValue())).getWidth()).isEqualTo(320);
+        assertThat(medium.getValue().length).isLessThan(original.length / 5);
+        assertThat(thumbnail.getValue().length).isLessThan(medium.getValue().length / 5);
+    }
+
+    @Test
+    @DisplayName("Should leave the profile alone when the photo cannot be decoded")
+    void process_skipsUndecodablePhoto() {
+        // Given
+        when(storageService.readFile(PHOTO_URL)).thenReturn("%PDF-1.7".getBytes());
+
+        // When
+        processor.process(new ProviderPhotoChangedEvent(UUID.randomUUID(), USER_ID, PHOTO_URL));
+
+        // Then
+        verify(storageService, never()).writeFile(anyString(), any(), anyString());
+        verifyNoInteractions(providerService);
+    }
+
+    @Test
+    @DisplayName("Should not resize photos hosted outside our storage")
+    void onPhotoChanged_ignoresExternalPhoto() {
+        // Given
+        when(storageService.isStoredFile("https://example.com/me.jpg")).thenReturn(false);
+
+        // When
+        processor.onPhotoChanged(new ProviderPhotoChangedEvent(UUID.randomUUID(), USER_ID, "https://example.com/me.jpg"));
+
+        // Then
+        verify(storageService, never()).readFile(anyString());
+    }
+
+    @Test
+    @DisplayName("Should not resize stored files outside the provider's photo folder")
+    void onPhotoChanged_ignoresOtherUsersFiles() {
+        // Given
+        String idScan = "gs://test-bucket/documents/other/id.jpg";
+        when(storageService.isStoredFile(idScan)).thenReturn(true);
+        when(storageService.isProfilePhotoOf(idScan, USER_ID)).thenReturn(false);
+
+        // When
+        processor.onPhotoChanged(new ProviderPhotoChangedEvent(UUID.randomUUID(), USER_ID, idScan));
+
+        // Then
+        verify(storageService, never()).readFile(anyString());
+        verify(storageService, never()).writeFile(anyString(), any(), anyString());
+        verifyNoInteractions(providerService);
+    }
+
+    @Test
+    @DisplayName("Should name versions after the photo so resizing again overwrites them")
+    void derivativeUrl_replacesExtension() {
+        assertThat(ProviderPhotoProcessor.derivativeUrl("gs://b/profiles/u/a.b.png", 96))
+                .isEqualTo("gs://b/profiles/u/a.b-96.jpg");
+        assertThat(ProviderPhotoProcessor.derivativeUrl("gs://b/profiles/u.x/photo", 320))
+                .isEqualTo("gs://b/profiles/u.x/photo-320.jpg");
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        // Noise so the PNG is photo-sized rather than trivially compressible
+        Random random = new Random(42);
+        for (int y = 0; y < height; y += 4) {
+            for (int x = 0; x < width; x += 4) {
+                graphics.setColor(new Color(random.nextInt(0x1000000)));
+                graphics.fillRect(x, y, 4, 4);
+            }
+        }
+        graphics.setColor(Color.RED);
+        graphics.fillRect(width / 2 - 300, height / 2 - 300, 600, 600);
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
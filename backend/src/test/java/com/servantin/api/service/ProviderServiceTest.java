@@ -1,28 +1,51 @@
 package com.servantin.api.service;
 
 import com.servantin.api.domain.entity.*;
+import com.servantin.api.domain.event.ProviderAvailabilityOverrideChangedEvent;
+import com.servantin.api.domain.event.ProviderMatchIndexUpdatedEvent;
 import com.servantin.api.domain.model.*;
+import com.servantin.api.dto.common.CursorPage;
 import com.servantin.api.dto.provider.MatchRequest;
 import com.servantin.api.dto.provider.ProviderMatchDto;
+import com.servantin.api.dto.provider.ProviderProfileRequest;
+import com.servantin.api.exception.ForbiddenException;
 import com.servantin.api.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,7 +70,30 @@ class ProviderServiceTest {
     private ProviderPricingRepository providerPricingRepository;
 
     @Mock
-    private RatingRepository ratingRepository;
+    private ProviderRatingStatsRepository ratingStatsRepository;
+
+    @Mock
+    private StorageService storageService;
+
+    @Spy
+    private ProviderMatchIndex matchIndex = new ProviderMatchIndex();
+
+    @Spy
+    private PostalCodeGeoIndex geoIndex = new PostalCodeGeoIndex();
+
+    private final ProviderAvailabilityOverrideRepository overrideRepository =
+            mock(ProviderAvailabilityOverrideRepository.class);
+
+    @Spy
+    private AvailabilityCalendarResolver calendarResolver =
+            new AvailabilityCalendarResolver(overrideRepository, 1000, Duration.ofMinutes(5));
+
+    @Spy
+    private ProviderMatchCache matchCache =
+            new ProviderMatchCache(matchIndex, geoIndex, new SimpleMeterRegistry(), 1000, Duration.ofMinutes(5));
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @InjectMocks
     private ProviderService providerService;
@@ -106,6 +152,7 @@ class ProviderServiceTest {
                 .timeSlot(TimeSlot.MORNING)
                 .build();
         verifiedProvider.getAvailabilities().add(avail1);
+        verifiedProvider.setAvailabilityMask(AvailabilityMask.with(0, 1, TimeSlot.MORNING));
 
         ProviderPricing pricing1 = ProviderPricing.builder()
                 .providerProfile(verifiedProvider)
@@ -163,6 +210,23 @@ class ProviderServiceTest {
         unverifiedProvider.getPricings().add(pricing2);
     }
 
+    @Test
+    @DisplayName("Should refuse a stored photo outside the caller's profiles folder")
+    void createOrUpdateProfile_rejectsOtherUsersStoredFile() {
+        // Given
+        UUID userId = verifiedProvider.getUser().getId();
+        String idScan = "gs://test-bucket/documents/" + unverifiedProvider.getId() + "/id.jpg";
+        ProviderProfileRequest request = new ProviderProfileRequest();
+        request.setPhotoUrl(idScan);
+        when(storageService.isStoredFile(idScan)).thenReturn(true);
+        when(storageService.isProfilePhotoOf(idScan, userId)).thenReturn(false);
+
+        // When / Then
+        assertThatThrownBy(() -> providerService.createOrUpdateProfile(userId, request))
+                .isInstanceOf(ForbiddenException.class);
+        verifyNoInteractions(userRepository, providerProfileRepository);
+    }
+
     @Test
     @DisplayName("Should match providers by category and location")
     void matchProviders_byCategoryAndLocation() {
@@ -172,13 +236,11 @@ class ProviderServiceTest {
         request.setPostalCode("2800");
         request.setCity("Delémont");
 
-        when(providerProfileRepository.findMatchingProviders(categoryId, "2800", "Delémont"))
-                .thenReturn(List.of(verifiedProvider, unverifiedProvider));
-        when(ratingRepository.getAverageRatingForProvider(any())).thenReturn(4.5);
-        when(ratingRepository.countByProviderId(any())).thenReturn(10L);
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(4.5, 10L);
 
         // When
-        List<ProviderMatchDto> results = providerService.matchProviders(request);
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
 
         // Then
         assertThat(results).hasSize(2);
@@ -197,14 +259,12 @@ class ProviderServiceTest {
         request.setPostalCode("2800");
         request.setCity("Delémont");
 
-        // Return in wrong order to verify sorting
-        when(providerProfileRepository.findMatchingProviders(categoryId, "2800", "Delémont"))
-                .thenReturn(List.of(unverifiedProvider, verifiedProvider));
-        when(ratingRepository.getAverageRatingForProvider(any())).thenReturn(null);
-        when(ratingRepository.countByProviderId(any())).thenReturn(0L);
+        // Index in wrong order to verify sorting
+        indexProviders(unverifiedProvider, verifiedProvider);
+        stubRatings(null, 0L);
 
         // When
-        List<ProviderMatchDto> results = providerService.matchProviders(request);
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
 
         // Then
         assertThat(results).hasSize(2);
@@ -225,13 +285,11 @@ class ProviderServiceTest {
         request.setCity("Delémont");
         request.setPreferredTime(monday10am.toInstant());
 
-        when(providerProfileRepository.findMatchingProviders(categoryId, "2800", "Delémont"))
-                .thenReturn(List.of(verifiedProvider, unverifiedProvider));
-        when(ratingRepository.getAverageRatingForProvider(any())).thenReturn(null);
-        when(ratingRepository.countByProviderId(any())).thenReturn(0L);
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(null, 0L);
 
         // When
-        List<ProviderMatchDto> results = providerService.matchProviders(request);
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
 
         // Then
         // Only verified provider has MORNING availability on Monday
@@ -239,6 +297,142 @@ class ProviderServiceTest {
         assertThat(results.get(0).getName()).isEqualTo("Verified Provider");
     }
 
+    @Test
+    @DisplayName("Should apply date-specific availability overrides over the weekly schedule")
+    void matchProviders_availabilityOverrides() {
+        // Given
+        // Monday at 10:00 AM: verified provider is on vacation, unverified provider works that morning only
+        ZonedDateTime monday10am = ZonedDateTime.of(2026, 1, 5, 10, 0, 0, 0, ZoneId.of("Europe/Zurich"));
+
+        MatchRequest request = new MatchRequest();
+        request.setCategoryId(categoryId);
+        request.setPostalCode("2800");
+        request.setCity("Delémont");
+        request.setPreferredTime(monday10am.toInstant());
+
+        ProviderAvailabilityOverride vacation = ProviderAvailabilityOverride.builder()
+                .providerProfile(verifiedProvider)
+                .specificDate(LocalDate.of(2026, 1, 5))
+                .isAvailable(false)
+                .reason("On vacation")
+                .build();
+        ProviderAvailabilityOverride extraMorning = ProviderAvailabilityOverride.builder()
+                .providerProfile(unverifiedProvider)
+                .specificDate(LocalDate.of(2026, 1, 5))
+                .isAvailable(true)
+                .timeSlots(List.of("09:00-11:30"))
+                .build();
+        when(overrideRepository.findByProviderProfileIdsAndDate(anyCollection(), eq(LocalDate.of(2026, 1, 5))))
+                .thenReturn(List.of(vacation, extraMorning));
+
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(null, 0L);
+
+        // When
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
+
+        // Then
+        assertThat(results).extracting(ProviderMatchDto::getName).containsExactly("Unverified Provider");
+    }
+
+    @Test
+    @DisplayName("Should drop cached pages for the date an override was moved away from")
+    void matchProviders_overrideMovedToAnotherDate() {
+        // Given
+        ZonedDateTime monday10am = ZonedDateTime.of(2026, 1, 5, 10, 0, 0, 0, ZoneId.of("Europe/Zurich"));
+
+        MatchRequest request = new MatchRequest();
+        request.setCategoryId(categoryId);
+        request.setPostalCode("2800");
+        request.setCity("Delémont");
+        request.setPreferredTime(monday10am.toInstant());
+
+        ProviderAvailabilityOverride vacation = ProviderAvailabilityOverride.builder()
+                .providerProfile(verifiedProvider)
+                .specificDate(LocalDate.of(2026, 1, 5))
+                .isAvailable(false)
+                .build();
+        ProviderAvailabilityOverride extraMorning = ProviderAvailabilityOverride.builder()
+                .providerProfile(unverifiedProvider)
+                .specificDate(LocalDate.of(2026, 1, 5))
+                .isAvailable(true)
+                .timeSlots(List.of("09:00-11:30"))
+                .build();
+        when(overrideRepository.findByProviderProfileIdsAndDate(anyCollection(), eq(LocalDate.of(2026, 1, 5))))
+                .thenReturn(List.of(vacation, extraMorning), List.of(extraMorning));
+
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(null, 0L);
+
+        // When
+        List<ProviderMatchDto> before = providerService.matchProviders(request).getContent();
+        // The vacation is moved to the next day
+        ProviderAvailabilityOverrideChangedEvent moved = new ProviderAvailabilityOverrideChangedEvent(
+                verifiedProvider.getId(), LocalDate.of(2026, 1, 6), LocalDate.of(2026, 1, 5));
+        calendarResolver.onOverrideChanged(moved);
+        matchCache.onOverrideChanged(moved);
+        List<ProviderMatchDto> after = providerService.matchProviders(request).getContent();
+
+        // Then
+        assertThat(before).extracting(ProviderMatchDto::getName).containsExactly("Unverified Provider");
+        assertThat(after).extracting(ProviderMatchDto::getName)
+                .containsExactly("Verified Provider", "Unverified Provider");
+    }
+
+    @Test
+    @DisplayName("Should not cache calendar days loaded while an override change was evicted")
+    void resolveDaySlots_loadOverlappingEvictionNotCached() {
+        // Given
+        LocalDate monday = LocalDate.of(2026, 1, 5);
+        ProviderAvailabilityOverride vacation = ProviderAvailabilityOverride.builder()
+                .providerProfile(verifiedProvider)
+                .specificDate(monday)
+                .isAvailable(false)
+                .build();
+        when(overrideRepository.findByProviderProfileIdsAndDate(anyCollection(), eq(monday)))
+                .thenAnswer(invocation -> {
+                    // The override is deleted and its eviction runs after this read
+                    calendarResolver.onOverrideChanged(new ProviderAvailabilityOverrideChangedEvent(
+                            verifiedProvider.getId(), monday, null));
+                    return List.of(vacation);
+                })
+                .thenReturn(List.of());
+        Map<UUID, Integer> weeklyMasks = Map.of(verifiedProvider.getId(), verifiedProvider.getAvailabilityMask());
+
+        // When
+        Map<UUID, Integer> stale = calendarResolver.resolveDaySlots(weeklyMasks, monday);
+        Map<UUID, Integer> reloaded = calendarResolver.resolveDaySlots(weeklyMasks, monday);
+
+        // Then
+        assertThat(stale.get(verifiedProvider.getId())).isZero();
+        assertThat(reloaded.get(verifiedProvider.getId())).isEqualTo(1 << TimeSlot.MORNING.ordinal());
+        verify(overrideRepository, times(2)).findByProviderProfileIdsAndDate(anyCollection(), eq(monday));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated searches from the cache until a matching provider changes")
+    void matchProviders_cachedUntilProviderChanges() {
+        // Given
+        MatchRequest request = new MatchRequest();
+        request.setCategoryId(categoryId);
+        request.setPostalCode("2800");
+        request.setCity("Delémont");
+
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(null, 0L);
+
+        // When
+        List<ProviderMatchDto> first = providerService.matchProviders(request).getContent();
+        List<ProviderMatchDto> cached = providerService.matchProviders(request).getContent();
+        matchCache.onMatchIndexUpdated(new ProviderMatchIndexUpdatedEvent(List.of(unverifiedProvider.getId())));
+        List<ProviderMatchDto> refreshed = providerService.matchProviders(request).getContent();
+
+        // Then
+        assertThat(cached).isSameAs(first);
+        assertThat(refreshed).isNotSameAs(first).hasSize(2);
+        verify(providerProfileRepository, times(2)).findAllByIdWithUser(anyCollection());
+    }
+
     @Test
     @DisplayName("Should return empty list when no providers match")
     void matchProviders_noMatch() {
@@ -248,11 +442,10 @@ class ProviderServiceTest {
         request.setPostalCode("1000");
         request.setCity("Lausanne");
 
-        when(providerProfileRepository.findMatchingProviders(categoryId, "1000", "Lausanne"))
-                .thenReturn(List.of());
+        indexProviders(verifiedProvider, unverifiedProvider);
 
         // When
-        List<ProviderMatchDto> results = providerService.matchProviders(request);
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
 
         // Then
         assertThat(results).isEmpty();
@@ -267,20 +460,156 @@ class ProviderServiceTest {
         request.setPostalCode("2800");
         request.setCity("Delémont");
 
-        when(providerProfileRepository.findMatchingProviders(categoryId, "2800", "Delémont"))
-                .thenReturn(List.of(verifiedProvider));
-        when(ratingRepository.getAverageRatingForProvider(any())).thenReturn(4.5);
-        when(ratingRepository.countByProviderId(any())).thenReturn(10L);
+        indexProviders(verifiedProvider);
+        stubRatings(4.5, 10L);
 
         // When
-        List<ProviderMatchDto> results = providerService.matchProviders(request);
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
 
         // Then
         assertThat(results).hasSize(1);
         ProviderMatchDto match = results.get(0);
         assertThat(match.getHourlyRate()).isEqualByComparingTo(new BigDecimal("35.00"));
         assertThat(match.getPricingType()).isEqualTo("HOURLY");
+        assertThat(match.getCity()).isEqualTo("Delémont");
         assertThat(match.getAverageRating()).isEqualTo(4.5);
         assertThat(match.getRatingCount()).isEqualTo(10L);
     }
+
+    @Test
+    @DisplayName("Should page through match results with a cursor")
+    void matchProviders_cursorPagination() {
+        // Given
+        MatchRequest request = new MatchRequest();
+        request.setCategoryId(categoryId);
+        request.setPostalCode("2800");
+        request.setCity("Delémont");
+        request.setPageSize(1);
+
+        indexProviders(unverifiedProvider, verifiedProvider);
+        stubRatings(null, 0L);
+
+        // When
+        CursorPage<ProviderMatchDto> firstPage = providerService.matchProviders(request);
+        request.setCursor(firstPage.getNextCursor());
+        CursorPage<ProviderMatchDto> secondPage = providerService.matchProviders(request);
+
+        // Then
+        assertThat(firstPage.getContent()).extracting(ProviderMatchDto::getName).containsExactly("Verified Provider");
+        assertThat(firstPage.isHasMore()).isTrue();
+        assertThat(firstPage.getNextCursor()).isNotBlank();
+        assertThat(secondPage.getContent()).extracting(ProviderMatchDto::getName).containsExactly("Unverified Provider");
+        assertThat(secondPage.isHasMore()).isFalse();
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should match providers within a radius, nearest first")
+    void matchProviders_withinRadius() {
+        // Given
+        // Verified provider serves Porrentruy (~20 km away), unverified provider serves Delémont (~3 km away)
+        ProviderLocation porrentruy = verifiedProvider.getLocations().get(0);
+        porrentruy.setPostalCode("2900");
+        porrentruy.setCity("Porrentruy");
+
+        MatchRequest request = new MatchRequest();
+        request.setCategoryId(categoryId);
+        request.setPostalCode("2822");
+        request.setCity("Courroux");
+        request.setRadiusKm(30.0);
+
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(null, 0L);
+
+        // When
+        List<ProviderMatchDto> results = providerService.matchProviders(request).getContent();
+        request.setRadiusKm(10.0);
+        List<ProviderMatchDto> nearbyResults = providerService.matchProviders(request).getContent();
+
+        // Then
+        assertThat(results).extracting(ProviderMatchDto::getName)
+                .containsExactly("Unverified Provider", "Verified Provider");
+        assertThat(results.get(0).getDistanceKm()).isBetween(2.0, 4.0);
+        assertThat(results.get(1).getDistanceKm()).isBetween(20.0, 30.0);
+        assertThat(nearbyResults).extracting(ProviderMatchDto::getName).containsExactly("Unverified Provider");
+    }
+
+    @Test
+    @DisplayName("Should keep providers at an unlisted requested postal code when matching within a radius")
+    void matchProviders_withinRadiusKeepsUnlistedPostalCode() {
+        // Given
+        // 2999 is not in the postal code centroids, so the search is centred on the city instead;
+        // the provider registered at 2999 spelled the city differently
+        ProviderLocation unlisted = verifiedProvider.getLocations().get(0);
+        unlisted.setPostalCode("2999");
+        unlisted.setCity("Porrentruy JU");
+
+        MatchRequest request = new MatchRequest();
+        request.setCategoryId(categoryId);
+        request.setPostalCode("2999");
+        request.setCity("Porrentruy");
+
+        indexProviders(verifiedProvider, unverifiedProvider);
+        stubRatings(null, 0L);
+
+        // When
+        List<ProviderMatchDto> exactResults = providerService.matchProviders(request).getContent();
+        request.setRadiusKm(5.0);
+        List<ProviderMatchDto> nearbyResults = providerService.matchProviders(request).getContent();
+
+        // Then
+        assertThat(exactResults).extracting(ProviderMatchDto::getName).containsExactly("Verified Provider");
+        assertThat(nearbyResults).extracting(ProviderMatchDto::getName).containsExactly("Verified Provider");
+        assertThat(nearbyResults.get(0).getDistanceKm()).isZero();
+    }
+
+    private void indexProviders(ProviderProfile... profiles) {
+        for (ProviderProfile profile : profiles) {
+            matchIndex.put(new ProviderMatchIndex.IndexedProvider(
+                    profile.getId(),
+                    profile.getIsVerified(),
+                    profile.getCreatedAt(),
+                    null,
+                    profile.getCategories().stream().map(pc -> pc.getCategory().getId()).collect(Collectors.toSet()),
+                    profile.getLocations().stream().map(ProviderLocation::getPostalCode).collect(Collectors.toSet()),
+                    profile.getLocations().stream().map(ProviderLocation::getCity).collect(Collectors.toSet()),
+                    profile.getAvailabilityMask()));
+        }
+        lenient().when(providerProfileRepository.findAllByIdWithUser(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return Arrays.stream(profiles).filter(p -> ids.contains(p.getId())).toList();
+        });
+        lenient().when(providerPricingRepository.findByProviderProfileIdInAndCategoryId(anyCollection(), any()))
+                .thenAnswer(invocation -> {
+                    Collection<UUID> ids = invocation.getArgument(0);
+                    UUID categoryId = invocation.getArgument(1);
+                    return Arrays.stream(profiles)
+                            .filter(p -> ids.contains(p.getId()))
+                            .flatMap(p -> p.getPricings().stream())
+                            .filter(pr -> pr.getCategory().getId().equals(categoryId))
+                            .toList();
+                });
+        lenient().when(providerLocationRepository.findPostalCodesAndCitiesByProfileIds(anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<UUID> ids = invocation.getArgument(0);
+                    return Arrays.stream(profiles)
+                            .filter(p -> ids.contains(p.getId()))
+                            .flatMap(p -> p.getLocations().stream()
+                                    .map(l -> new Object[] { p.getId(), l.getPostalCode(), l.getCity() }))
+                            .toList();
+                });
+    }
+
+    private void stubRatings(Double averageRating, long ratingCount) {
+        when(ratingStatsRepository.findByProviderIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> providerIds = invocation.getArgument(0);
+            return providerIds.stream()
+                    .map(id -> ProviderRatingStats.builder()
+                            .providerId(id)
+                            .ratingCount(ratingCount)
+                            .averageRating(averageRating)
+                            .build())
+                    .toList();
+        });
+    }
 }
@@ -0,0 +1,41 @@
+package com.servantin.api.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SesSendRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SesSendRateLimiter limiter = new SesSendRateLimiter(10, now::get);
+
+    @Test
+    @DisplayName("Should allow a second's worth of sends at once, then make callers wait")
+    void reserve_burstThenWait() {
+        assertThat(limiter.reserve(10)).isZero();
+        assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should make a chunk larger than the burst wait until its debt is paid off")
+    void reserve_chunkGoesIntoDebt() {
+        assertThat(limiter.reserve(50)).isEqualTo(TimeUnit.SECONDS.toNanos(4));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        assertThat(limiter.reserve(1)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should refill at the send rate but never beyond one second of sends")
+    void reserve_refillsUpToCapacity() {
+        limiter.reserve(10);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertThat(limiter.reserve(10)).isZero();
+        assertThat(limiter.reserve(1)).isPositive();
+    }
+}
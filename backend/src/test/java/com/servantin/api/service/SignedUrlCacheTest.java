@@ -0,0 +1,94 @@
+package com.servantin.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SignedUrlCacheTest {
+
+    private static final String DOCUMENT = "gs://test-bucket/documents/1/id.pdf";
+    private static final String OTHER_DOCUMENT = "gs://test-bucket/documents/1/insurance.pdf";
+
+    @Mock
+    private StorageService storageService;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private SignedUrlCache signedUrlCache;
+
+    @BeforeEach
+    void setUp() {
+        // URLs valid for 15 minutes are re-signed 2 minutes before they expire
+        signedUrlCache = new SignedUrlCache(storageService, new SimpleMeterRegistry(), Duration.ofMinutes(15),
+                Duration.ofMinutes(2), 100, nanos::get);
+    }
+
+    @Test
+    @DisplayName("Should sign a URL once and serve it from the cache afterwards")
+    void get_signsOnMissOnly() {
+        // Given
+        when(storageService.generateSignedUrl(DOCUMENT)).thenReturn("https://signed/1");
+
+        // When
+        String first = signedUrlCache.get(DOCUMENT);
+        String second = signedUrlCache.get(DOCUMENT);
+
+        // Then
+        assertThat(first).isEqualTo("https://signed/1");
+        assertThat(second).isEqualTo("https://signed/1");
+        verify(storageService, times(1)).generateSignedUrl(DOCUMENT);
+    }
+
+    @Test
+    @DisplayName("Should re-sign a URL once the refresh margin before its expiry is reached")
+    void get_resignsWithinRefreshMargin() {
+        // Given
+        when(storageService.generateSignedUrl(DOCUMENT)).thenReturn("https://signed/1", "https://signed/2");
+        signedUrlCache.get(DOCUMENT);
+
+        // When
+        advance(Duration.ofMinutes(12).plusSeconds(59));
+        String beforeMargin = signedUrlCache.get(DOCUMENT);
+        advance(Duration.ofSeconds(1));
+        String withinMargin = signedUrlCache.get(DOCUMENT);
+
+        // Then
+        assertThat(beforeMargin).isEqualTo("https://signed/1");
+        assertThat(withinMargin).isEqualTo("https://signed/2");
+        verify(storageService, times(2)).generateSignedUrl(DOCUMENT);
+    }
+
+    @Test
+    @DisplayName("Should leave out a URL that cannot be signed and return the others")
+    void getAll_skipsUnsignableUrls() {
+        // Given
+        when(storageService.generateSignedUrl(DOCUMENT)).thenReturn("https://signed/1");
+        when(storageService.generateSignedUrl(OTHER_DOCUMENT)).thenThrow(new RuntimeException("Signing failed"));
+        signedUrlCache.get(DOCUMENT);
+
+        // When
+        Map<String, String> signed = signedUrlCache.getAll(List.of(DOCUMENT, OTHER_DOCUMENT, DOCUMENT));
+
+        // Then
+        assertThat(signed).containsExactly(Map.entry(DOCUMENT, "https://signed/1"));
+        verify(storageService, times(1)).generateSignedUrl(DOCUMENT);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,331 @@
+package com.servantin.api.service;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.servantin.api.dto.storage.UploadResponse;
+import com.servantin.api.dto.storage.UploadUrlRequest;
+import com.servantin.api.dto.storage.UploadUrlResponse;
+import com.servantin.api.exception.BadRequestException;
+import com.servantin.api.exception.ForbiddenException;
+import com.servantin.api.storage.GcsStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageServiceTest {
+
+    private static final byte[] PDF_MAGIC = "%PDF-1.7\n".getBytes();
+
+    @Mock
+    private Storage storage;
+
+    private StorageService storageService;
+    private RecordingWriteChannel writer;
+
+    @BeforeEach
+    void setUp() {
+        storageService = new StorageService(new GcsStorageBackend(storage, "test-bucket", 256 * 1024));
+        ReflectionTestUtils.setField(storageService, "maxFileSize", 5L * 1024 * 1024);
+        ReflectionTestUtils.setField(storageService, "allowedImageTypes", "image/jpeg,image/png");
+        ReflectionTestUtils.setField(storageService, "allowedDocumentTypes", "application/pdf,image/jpeg,image/png");
+        ReflectionTestUtils.setField(storageService, "uploadUrlValidity", Duration.ofMinutes(10));
+        writer = new RecordingWriteChannel();
+    }
+
+    @Test
+    @DisplayName("Should stream the whole file to GCS with the type sniffed from its header")
+    void uploadProviderDocument_streamsFile() throws Exception {
+        // Given
+        byte[] content = pdf(3 * 1024 * 1024);
+        when(storage.writer(any(BlobInfo.class))).thenReturn(writer);
+        Blob stored = mock(Blob.class);
+        when(stored.getSize()).thenReturn((long) content.length);
+        when(stored.getCrc32c()).thenReturn(crc32c(content));
+        when(storage.get(any(BlobId.class), any(Storage.BlobGetOption[].class))).thenReturn(stored);
+
+        // When
+        String url = storageService.uploadProviderDocument(
+                new MockMultipartFile("file", "license.pdf", "application/octet-stream", content), UUID.randomUUID());
+
+        // Then
+        ArgumentCaptor<BlobInfo> blobInfo = ArgumentCaptor.forClass(BlobInfo.class);
+        verify(storage).writer(blobInfo.capture());
+        assertThat(blobInfo.getValue().getContentType()).isEqualTo("application/pdf");
+        assertThat(url).startsWith("gs://test-bucket/documents/").endsWith(".pdf");
+        assertThat(writer.written.toByteArray()).isEqualTo(content);
+        assertThat(writer.chunkSize).isEqualTo(256 * 1024);
+    }
+
+    @Test
+    @DisplayName("Should reject a disallowed type without starting an upload")
+    void uploadProviderDocument_rejectsType() {
+        // Given
+        byte[] content = "just some text".getBytes();
+
+        // When / Then
+        assertThatThrownBy(() -> storageService.uploadProviderDocument(
+                new MockMultipartFile("file", "notes.pdf", "application/pdf", content), UUID.randomUUID()))
+                .hasMessageContaining("File type not allowed");
+        verify(storage, never()).writer(any(BlobInfo.class));
+    }
+
+    @Test
+    @DisplayName("Should delete the stored object when its checksum does not match")
+    void uploadProviderDocument_deletesCorruptUpload() {
+        // Given
+        byte[] content = pdf(10_000);
+        when(storage.writer(any(BlobInfo.class))).thenReturn(writer);
+        Blob stored = mock(Blob.class);
+        when(stored.getSize()).thenReturn((long) content.length);
+        when(stored.getCrc32c()).thenReturn("AAAAAA==");
+        when(storage.get(any(BlobId.class), any(Storage.BlobGetOption[].class))).thenReturn(stored);
+
+        // When / Then
+        assertThatThrownBy(() -> storageService.uploadProviderDocument(
+                new MockMultipartFile("file", "license.pdf", "application/pdf", content), UUID.randomUUID()))
+                .hasMessageContaining("integrity check");
+        verify(storage).delete(any(BlobId.class));
+    }
+
+    @Test
+    @DisplayName("Should sign an upload URL bound to the declared type and size limit")
+    void createProviderDocumentUploadUrl_signsPut() throws Exception {
+        // Given
+        UUID providerId = UUID.randomUUID();
+        when(storage.signUrl(any(BlobInfo.class), anyLong(), any(TimeUnit.class), any(Storage.SignUrlOption[].class)))
+                .thenReturn(new URL("https://storage.googleapis.com/test-bucket/signed"));
+
+        // When
+        UploadUrlResponse response = storageService.createProviderDocumentUploadUrl(
+                uploadUrlRequest("license.pdf", "application/pdf", 1024), providerId);
+
+        // Then
+        assertThat(response.getObjectUrl()).startsWith("gs://test-bucket/documents/" + providerId + "/").endsWith(".pdf");
+        assertThat(response.getRequiredHeaders())
+                .containsEntry("Content-Type", "application/pdf")
+                .containsEntry("x-goog-content-length-range", "0," + 5L * 1024 * 1024);
+    }
+
+    @Test
+    @DisplayName("Should refuse an upload URL for a disallowed type")
+    void createProfilePhotoUploadUrl_rejectsType() {
+        assertThatThrownBy(() -> storageService.createProfilePhotoUploadUrl(
+                uploadUrlRequest("photo.gif", "image/gif", 1024), UUID.randomUUID()))
+                .isInstanceOf(BadRequestException.class);
+        verify(storage, never()).signUrl(any(BlobInfo.class), anyLong(), any(TimeUnit.class),
+                any(Storage.SignUrlOption[].class));
+    }
+
+    @Test
+    @DisplayName("Should accept a direct upload after checking its size and sniffed type")
+    void finalizeProviderDocument_validatesObject() {
+        // Given
+        UUID providerId = UUID.randomUUID();
+        String gcsUrl = "gs://test-bucket/documents/" + providerId + "/" + UUID.randomUUID() + ".pdf";
+        Blob blob = storedBlob(2048);
+        when(blob.getContentType()).thenReturn("application/pdf");
+        when(storage.get(any(BlobId.class), any(Storage.BlobGetOption[].class))).thenReturn(blob);
+        when(storage.reader(any(BlobId.class))).thenReturn(new BytesReadChannel(pdf(2048)));
+
+        // When
+        UploadResponse upload = storageService.finalizeProviderDocument(gcsUrl, providerId);
+
+        // Then
+        assertThat(upload.getUrl()).isEqualTo(gcsUrl);
+        assertThat(upload.getFileSize()).isEqualTo(2048);
+        assertThat(upload.getMimeType()).isEqualTo("application/pdf");
+        verify(storage, never()).delete(any(BlobId.class));
+    }
+
+    @Test
+    @DisplayName("Should delete a direct upload whose content is not an allowed type")
+    void finalizeProviderDocument_deletesDisallowedType() {
+        // Given
+        UUID providerId = UUID.randomUUID();
+        String gcsUrl = "gs://test-bucket/documents/" + providerId + "/" + UUID.randomUUID() + ".pdf";
+        Blob blob = storedBlob(14);
+        when(storage.get(any(BlobId.class), any(Storage.BlobGetOption[].class))).thenReturn(blob);
+        when(storage.reader(any(BlobId.class))).thenReturn(new BytesReadChannel("just some text".getBytes()));
+
+        // When / Then
+        assertThatThrownBy(() -> storageService.finalizeProviderDocument(gcsUrl, providerId))
+                .isInstanceOf(BadRequestException.class);
+        verify(storage).delete(any(BlobId.class));
+    }
+
+    @Test
+    @DisplayName("Should refuse to finalize an object in another provider's folder")
+    void finalizeProviderDocument_rejectsForeignObject() {
+        String gcsUrl = "gs://test-bucket/documents/" + UUID.randomUUID() + "/" + UUID.randomUUID() + ".pdf";
+
+        assertThatThrownBy(() -> storageService.finalizeProviderDocument(gcsUrl, UUID.randomUUID()))
+                .isInstanceOf(ForbiddenException.class);
+        verify(storage, never()).get(any(BlobId.class), any(Storage.BlobGetOption[].class));
+    }
+
+    @Test
+    @DisplayName("Should only treat files directly in the user's profiles folder as their photos")
+    void isProfilePhotoOf_requiresOwnProfilesFolder() {
+        UUID userId = UUID.randomUUID();
+
+        assertThat(storageService.isProfilePhotoOf("gs://test-bucket/profiles/" + userId + "/a.jpg", userId)).isTrue();
+        assertThat(storageService.isProfilePhotoOf("gs://test-bucket/profiles/" + UUID.randomUUID() + "/a.jpg", userId))
+                .isFalse();
+        assertThat(storageService.isProfilePhotoOf("gs://test-bucket/documents/" + userId + "/a.jpg", userId)).isFalse();
+        assertThat(storageService.isProfilePhotoOf("gs://test-bucket/profiles/" + userId + "/../x/a.jpg", userId))
+                .isFalse();
+        assertThat(storageService.isProfilePhotoOf("https://example.com/profiles/" + userId + "/a.jpg", userId))
+                .isFalse();
+    }
+
+    private static UploadUrlRequest uploadUrlRequest(String fileName, String contentType, long fileSize) {
+        UploadUrlRequest request = new UploadUrlRequest();
+        request.setFileName(fileName);
+        request.setContentType(contentType);
+        request.setFileSize(fileSize);
+        return request;
+    }
+
+    private static Blob storedBlob(long size) {
+        Blob blob = mock(Blob.class);
+        when(blob.getSize()).thenReturn(size);
+        return blob;
+    }
+
+    private static byte[] pdf(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        System.arraycopy(PDF_MAGIC, 0, content, 0, PDF_MAGIC.length);
+        return content;
+    }
+
+    private static String crc32c(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+
+    private static class BytesReadChannel implements ReadChannel {
+
+        private final byte[] content;
+        private long limit = Long.MAX_VALUE;
+        private int position;
+
+        BytesReadChannel(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            int end = (int) Math.min(content.length, limit);
+            if (position >= end) {
+                return -1;
+            }
+            int length = Math.min(dst.remaining(), end - position);
+            dst.put(content, position, length);
+            position += length;
+            return length;
+        }
+
+        @Override
+        public ReadChannel limit(long limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        @Override
+        public long limit() {
+            return limit;
+        }
+
+        @Override
+        public void seek(long position) {
+            this.position = (int) position;
+        }
+
+        @Override
+        public void setChunkSize(int chunkSize) {
+        }
+
+        @Override
+        public com.google.cloud.RestorableState<ReadChannel> capture() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static class RecordingWriteChannel implements WriteChannel {
+
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        private int chunkSize;
+        private boolean open = true;
+
+        @Override
+        public int write(ByteBuffer src) {
+            int length = src.remaining();
+            byte[] bytes = new byte[length];
+            src.get(bytes);
+            written.writeBytes(bytes);
+            return length;
+        }
+
+        @Override
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public com.google.cloud.RestorableState<WriteChannel> capture() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
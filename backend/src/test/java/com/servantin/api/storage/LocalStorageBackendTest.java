@@ -0,0 +1,144 @@
+package com.servantin.api.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageBackendTest {
+
+    private static final String NAME = "documents/provider/file.pdf";
+
+    @TempDir
+    Path root;
+
+    private final Instant now = Instant.parse("2026-01-15T10:00:00Z");
+    private LocalStorageBackend backend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        backend = backend(Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should store written content with its type and a GCS-style CRC32C once the writer is closed")
+    void openWriter_storesOnClose() throws Exception {
+        // Given
+        byte[] content = content(300_000);
+
+        // When
+        var writer = backend.openWriter(NAME, "application/pdf");
+        for (int offset = 0; offset < content.length; offset += 65_536) {
+            writer.write(ByteBuffer.wrap(content, offset, Math.min(65_536, content.length - offset)));
+        }
+        assertThat(backend.stat(NAME)).isEmpty();
+        writer.close();
+
+        // Then
+        StorageBackend.StoredObject object = backend.stat(NAME).orElseThrow();
+        assertThat(object.size()).isEqualTo(content.length);
+        assertThat(object.contentType()).isEqualTo("application/pdf");
+        assertThat(object.crc32c()).isEqualTo(crc32c(content));
+        try (InputStream in = Channels.newInputStream(backend.openReader(NAME, 1024))) {
+            assertThat(in.readAllBytes()).hasSize(1024);
+        }
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        assertThat(backend.transferTo(NAME, Channels.newChannel(sent))).isEqualTo(content.length);
+        assertThat(sent.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("Should accept its own signed URLs only for the signed method, object and content type until they expire")
+    void verify_checksSignature() throws Exception {
+        // Given
+        URL download = backend.signDownloadUrl(NAME, Duration.ofMinutes(15));
+        StorageBackend.SignedUpload upload = backend.signUploadUrl(NAME, "application/pdf", 1024, Duration.ofMinutes(10));
+        MultiValueMap<String, String> downloadParams = params(download);
+        MultiValueMap<String, String> uploadParams = params(upload.url());
+        long downloadExpires = Long.parseLong(downloadParams.getFirst("expires"));
+        long uploadExpires = Long.parseLong(uploadParams.getFirst("expires"));
+
+        // Then
+        assertThat(download.getPath()).isEqualTo("/api/storage/local/" + NAME);
+        assertThat(upload.requiredHeaders()).containsEntry("Content-Type", "application/pdf");
+        assertThat(backend.verify("GET", NAME, downloadExpires, "", 0, downloadParams.getFirst("signature"))).isTrue();
+        assertThat(backend.verify("PUT", NAME, uploadExpires, "application/pdf", 1024,
+                uploadParams.getFirst("signature"))).isTrue();
+
+        assertThat(backend.verify("GET", "documents/other/file.pdf", downloadExpires, "", 0,
+                downloadParams.getFirst("signature"))).isFalse();
+        assertThat(backend.verify("PUT", NAME, uploadExpires, "image/png", 1024,
+                uploadParams.getFirst("signature"))).isFalse();
+        assertThat(backend.verify("PUT", NAME, uploadExpires, "application/pdf", 1_000_000,
+                uploadParams.getFirst("signature"))).isFalse();
+
+        LocalStorageBackend later = backend(Clock.fixed(now.plus(Duration.ofMinutes(16)), ZoneOffset.UTC));
+        assertThat(later.verify("GET", NAME, downloadExpires, "", 0, downloadParams.getFirst("signature"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should store nothing when an upload is larger than its limit")
+    void receive_rejectsOversizedBody() throws Exception {
+        byte[] content = content(2048);
+
+        assertThatThrownBy(() -> backend.receive(NAME, "application/pdf", new ByteArrayInputStream(content), 1024))
+                .isInstanceOf(LocalStorageBackend.ObjectTooLargeException.class);
+
+        assertThat(backend.stat(NAME)).isEmpty();
+        try (var leftovers = Files.list(root.resolve("tmp"))) {
+            assertThat(leftovers).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse object names that leave the storage directory")
+    void rejectsNamesOutsideRoot() {
+        assertThatThrownBy(() -> backend.openWriter("../outside.pdf", "application/pdf"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> backend.stat("documents/../../meta/x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private LocalStorageBackend backend(Clock clock) throws Exception {
+        return new LocalStorageBackend(root, "http://localhost:8080",
+                "test-signing-key".getBytes(StandardCharsets.UTF_8), clock);
+    }
+
+    private static MultiValueMap<String, String> params(URL url) throws Exception {
+        return UriComponentsBuilder.fromUri(url.toURI()).build().getQueryParams();
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+
+    private static String crc32c(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc.getValue()).array());
+    }
+}
@@ -29,6 +29,8 @@ function BookingWizard() {
     const [providers, setProviders] = useState<ProviderMatch[]>([]);
     const [loading, setLoading] = useState(false);
     const [searchLoading, setSearchLoading] = useState(false);
+    const [matchCursor, setMatchCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [error, setError] = useState('');
 
     // Load categories
@@ -62,15 +64,9 @@ function BookingWizard() {
         setError('');
 
         try {
-            const results = await providerApi.match({
-                categoryId,
-                postalCode,
-                city,
-                preferredTime: preferredDate && preferredTimeSlot
-                    ? new Date(preferredDate).toISOString()
-                    : undefined,
-            });
-            setProviders(results);
+            const page = await providerApi.match(matchRequest());
+            setProviders(page.content);
+            setMatchCursor(page.hasMore ? page.nextCursor : null);
         } catch (err: any) {
             setError('Erreur lors de la recherche de prestataires');
         } finally {
@@ -78,6 +74,30 @@ function BookingWizard() {
         }
     };
 
+    const loadMoreProviders = async () => {
+        if (!matchCursor || loadingMore) return;
+
+        setLoadingMore(true);
+        try {
+            const page = await providerApi.match({ ...matchRequest(), cursor: matchCursor });
+            setProviders((current) => [...current, ...page.content]);
+            setMatchCursor(page.hasMore ? page.nextCursor : null);
+        } catch (err: any) {
+            setError('Erreur lors de la recherche de prestataires');
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
+    const matchRequest = () => ({
+        categoryId: categoryId!,
+        postalCode,
+        city,
+        preferredTime: preferredDate && preferredTimeSlot
+            ? new Date(preferredDate).toISOString()
+            : undefined,
+    });
+
     useEffect(() => {
         if (step === 2 && categoryId && postalCode && city) {
             searchProviders();
@@ -400,6 +420,17 @@ function BookingWizard() {
                                                 </div>
                                             </button>
                                         ))}
+
+                                        {matchCursor && (
+                                            <button
+                                                onClick={loadMoreProviders}
+                                                disabled={loadingMore}
+                                                className="w-full py-3 rounded-xl border border-gray-200 text-violet-600 font-medium hover:bg-gray-50 transition-colors flex items-center justify-center gap-2 disabled:opacity-50"
+                                            >
+                                                {loadingMore && <Loader2 className="w-4 h-4 animate-spin" />}
+                                                Voir plus de prestataires
+                                            </button>
+                                        )}
                                     </div>
                                 ) : (
                                     <div className="text-center py-12">
@@ -5,7 +5,7 @@ import Link from 'next/link';
 import { useRouter } from 'next/navigation';
 import Header from '@/components/Header';
 import { useAuthStore } from '@/lib/store';
-import { bookingApi, Booking, Message } from '@/lib/api';
+import { bookingApi, Booking, CursorPage, Message } from '@/lib/api';
 import {
     formatDate,
     formatDateTime,
@@ -33,6 +33,7 @@ export default function BookingDetailPage({ params }: { params: Promise<{ id: st
     const { user, isAuthenticated } = useAuthStore();
     const [booking, setBooking] = useState<Booking | null>(null);
     const [messages, setMessages] = useState<Message[]>([]);
+    const [olderCursor, setOlderCursor] = useState<string | null>(null);
     const [newMessage, setNewMessage] = useState('');
     const [loading, setLoading] = useState(true);
     const [sendingMessage, setSendingMessage] = useState(false);
@@ -58,6 +59,51 @@ export default function BookingDetailPage({ params }: { params: Promise<{ id: st
         }
     }, [isAuthenticated, bookingId]);
 
+    // Receive new messages, read receipts and status changes while the page is open
+    useEffect(() => {
+        if (!isAuthenticated || !bookingId) return;
+        return bookingApi.streamConversation(bookingId, {
+            onMessage: (message) => {
+                setMessages((current) =>
+                    current.some((m) => m.id === message.id) ? current : [...current, message]
+                );
+                setTimeout(() => messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' }), 100);
+            },
+            onRead: (receipt) => {
+                if (receipt.userId === user?.id) return;
+                setMessages((current) =>
+                    current.map((m) =>
+                        m.senderId !== receipt.userId && new Date(m.createdAt) <= new Date(receipt.lastReadAt)
+                            ? { ...m, isRead: true }
+                            : m
+                    )
+                );
+            },
+            onStatus: (update) => {
+                setBooking((current) => (current ? { ...current, status: update.status } : current));
+            },
+            onReconnect: () => {
+                bookingApi.getMessages(bookingId).then(applyLatestPage).catch(() => undefined);
+            },
+        });
+    }, [isAuthenticated, bookingId, user?.id]);
+
+    const applyLatestPage = (page: CursorPage<Message>) => {
+        setMessages(page.content);
+        setOlderCursor(page.hasMore ? page.nextCursor : null);
+    };
+
+    const loadOlderMessages = async () => {
+        if (!olderCursor) return;
+        try {
+            const page = await bookingApi.getMessages(bookingId, { before: olderCursor });
+            setMessages((current) => [...page.content, ...current]);
+            setOlderCursor(page.hasMore ? page.nextCursor : null);
+        } catch (error) {
+            console.error('Failed to load older messages:', error);
+        }
+    };
+
     const fetchBookingDetails = async () => {
         try {
             const [bookingData, messagesData] = await Promise.all([
@@ -65,7 +111,7 @@ export default function BookingDetailPage({ params }: { params: Promise<{ id: st
                 bookingApi.getMessages(bookingId),
             ]);
             setBooking(bookingData);
-            setMessages(messagesData);
+            applyLatestPage(messagesData);
         } catch (error) {
             console.error('Failed to fetch booking:', error);
         } finally {
@@ -80,7 +126,9 @@ export default function BookingDetailPage({ params }: { params: Promise<{ id: st
         setSendingMessage(true);
         try {
             const message = await bookingApi.sendMessage(bookingId, newMessage.trim());
-            setMessages([...messages, message]);
+            setMessages((current) =>
+                current.some((m) => m.id === message.id) ? current : [...current, message]
+            );
             setNewMessage('');
             setTimeout(() => messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' }), 100);
         } catch (error) {
@@ -227,6 +275,14 @@ export default function BookingDetailPage({ params }: { params: Promise<{ id: st
                                     </div>
 
                                     <div className="h-[400px] overflow-y-auto p-4 space-y-4">
+                                        {olderCursor && (
+                                            <button
+                                                onClick={loadOlderMessages}
+                                                className="w-full text-sm text-violet-600 hover:text-violet-700"
+                                            >
+                                                Charger les messages précédents
+                                            </button>
+                                        )}
                                         {messages.length === 0 ? (
                                             <p className="text-center text-gray-500 py-8">
                                                 Aucun message. Commencez la conversation !
@@ -5,7 +5,7 @@ import Link from 'next/link';
 import { useRouter } from 'next/navigation';
 import Header from '@/components/Header';
 import { useAuthStore } from '@/lib/store';
-import { bookingApi, Booking } from '@/lib/api';
+import { bookingApi, fetchAllPages, Booking } from '@/lib/api';
 import {
     formatDate,
     getBookingStatusLabel,
@@ -39,8 +39,8 @@ export default function DashboardPage() {
 
     const fetchBookings = async () => {
         try {
-            const data = await bookingApi.getClientBookings();
-            setBookings(data);
+            // The stats and filters cover the whole history, so load every page
+            setBookings(await fetchAllPages((cursor) => bookingApi.getClientBookings({ pageSize: 50, cursor })));
         } catch (error) {
             console.error('Failed to fetch bookings:', error);
         } finally {
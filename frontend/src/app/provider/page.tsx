@@ -5,7 +5,7 @@ import Link from 'next/link';
 import { useRouter } from 'next/navigation';
 import Header from '@/components/Header';
 import { useAuthStore } from '@/lib/store';
-import { bookingApi, Booking } from '@/lib/api';
+import { bookingApi, fetchAllPages, Booking } from '@/lib/api';
 import {
     formatDate,
     formatDateTime,
@@ -46,9 +46,10 @@ export default function ProviderDashboardPage() {
 
     const fetchBookings = async () => {
         try {
+            // The stats and lists cover every booking, so load every page
             const [pending, all] = await Promise.all([
-                bookingApi.getPendingRequests(),
-                bookingApi.getProviderBookings(),
+                fetchAllPages((cursor) => bookingApi.getPendingRequests({ pageSize: 50, cursor })),
+                fetchAllPages((cursor) => bookingApi.getProviderBookings({ pageSize: 50, cursor })),
             ]);
             setPendingBookings(pending);
             setAllBookings(all);
@@ -78,6 +78,7 @@ export interface ProviderMatch {
   averageRating: number | null;
   ratingCount: number;
   city: string;
+  distanceKm: number | null;
   hourlyRate: number | null;
   fixedPrice: number | null;
   pricingType: string;
@@ -106,6 +107,18 @@ export interface Booking {
   updatedAt: string;
 }
 
+export interface CursorPage<T> {
+  content: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
+export interface BookingFeedParams {
+  status?: string[];
+  pageSize?: number;
+  cursor?: string;
+}
+
 export interface Message {
   id: string;
   senderId: string;
@@ -115,6 +128,92 @@ export interface Message {
   createdAt: string;
 }
 
+export interface ConversationSummary {
+  bookingId: string;
+  bookingStatus: string;
+  categoryName: string;
+  counterpartId: string | null;
+  counterpartName: string | null;
+  lastMessageId: string | null;
+  lastMessagePreview: string | null;
+  lastMessageIsOwn: boolean;
+  lastActivityAt: string;
+  unreadCount: number;
+}
+
+export interface UploadUrl {
+  uploadUrl: string;
+  requiredHeaders: Record<string, string>;
+  objectUrl: string;
+  expiresAt: string;
+}
+
+export interface UploadResult {
+  url: string;
+  fileName: string;
+  fileSize: number;
+  mimeType: string;
+}
+
+export interface ProviderDocument {
+  id: string;
+  documentType: string;
+  fileName: string;
+  fileSizeBytes: number;
+  verificationStatus: string;
+  verificationNotes: string | null;
+  createdAt: string;
+  verifiedAt: string | null;
+  signedUrl: string | null;
+}
+
+// PUT a file straight to storage at a signed URL, bypassing the API
+const putToSignedUrl = async (upload: UploadUrl, file: File): Promise<void> => {
+  await axios.put(upload.uploadUrl, file, { headers: upload.requiredHeaders });
+};
+
+const uploadUrlRequest = (file: File) => ({
+  fileName: file.name,
+  contentType: file.type,
+  fileSize: file.size,
+});
+
+export interface ReadReceipt {
+  bookingId: string;
+  userId: string;
+  lastReadMessageId: string;
+  lastReadAt: string;
+}
+
+export interface BookingStatusUpdate {
+  bookingId: string;
+  status: string;
+}
+
+export interface ConversationStreamHandlers {
+  onMessage?: (message: Message) => void;
+  onRead?: (receipt: ReadReceipt) => void;
+  onStatus?: (update: BookingStatusUpdate) => void;
+  // Called after the stream reconnected; events sent while disconnected are not replayed
+  onReconnect?: () => void;
+}
+
+const STREAM_RECONNECT_DELAY_MS = 3000;
+
+// Follow nextCursor until the last page, for views that need a whole feed
+export const fetchAllPages = async <T>(
+  fetchPage: (cursor?: string) => Promise<CursorPage<T>>
+): Promise<T[]> => {
+  const items: T[] = [];
+  let cursor: string | undefined;
+  for (;;) {
+    const page = await fetchPage(cursor);
+    items.push(...page.content);
+    if (!page.hasMore || !page.nextCursor) return items;
+    cursor = page.nextCursor;
+  }
+};
+
 // API functions
 export const authApi = {
   register: async (data: {
@@ -179,7 +278,10 @@ export const providerApi = {
     postalCode: string;
     city: string;
     preferredTime?: string;
-  }): Promise<ProviderMatch[]> => {
+    radiusKm?: number;
+    pageSize?: number;
+    cursor?: string;
+  }): Promise<CursorPage<ProviderMatch>> => {
     const response = await api.post('/api/providers/match', data);
     return response.data;
   },
@@ -218,6 +320,28 @@ export const providerApi = {
     const response = await api.get('/api/providers/bookings');
     return response.data;
   },
+
+  uploadPhoto: async (file: File): Promise<UploadResult> => {
+    const { data: upload } = await api.post<UploadUrl>('/api/providers/profile/photo/upload-url', uploadUrlRequest(file));
+    await putToSignedUrl(upload, file);
+    const response = await api.post('/api/providers/profile/photo/finalize', {
+      objectUrl: upload.objectUrl,
+      fileName: file.name,
+    });
+    return response.data;
+  },
+
+  uploadDocument: async (file: File, documentType: string): Promise<ProviderDocument> => {
+    const params = { documentType };
+    const { data: upload } = await api.post<UploadUrl>('/api/providers/profile/documents/upload-url',
+      uploadUrlRequest(file), { params });
+    await putToSignedUrl(upload, file);
+    const response = await api.post('/api/providers/profile/documents/finalize', {
+      objectUrl: upload.objectUrl,
+      fileName: file.name,
+    }, { params });
+    return response.data;
+  },
 };
 
 export const bookingApi = {
@@ -242,18 +366,18 @@ export const bookingApi = {
     return response.data;
   },
 
-  getClientBookings: async (): Promise<Booking[]> => {
-    const response = await api.get('/api/bookings/client');
+  getClientBookings: async (params?: BookingFeedParams): Promise<CursorPage<Booking>> => {
+    const response = await api.get('/api/bookings/client', { params, paramsSerializer: { indexes: null } });
     return response.data;
   },
 
-  getProviderBookings: async (): Promise<Booking[]> => {
-    const response = await api.get('/api/bookings/provider');
+  getProviderBookings: async (params?: BookingFeedParams): Promise<CursorPage<Booking>> => {
+    const response = await api.get('/api/bookings/provider', { params, paramsSerializer: { indexes: null } });
     return response.data;
   },
 
-  getPendingRequests: async (): Promise<Booking[]> => {
-    const response = await api.get('/api/bookings/provider/pending');
+  getPendingRequests: async (params?: BookingFeedParams): Promise<CursorPage<Booking>> => {
+    const response = await api.get('/api/bookings/provider/pending', { params, paramsSerializer: { indexes: null } });
     return response.data;
   },
 
@@ -279,8 +403,18 @@ export const bookingApi = {
     return response.data;
   },
 
-  getMessages: async (id: string): Promise<Message[]> => {
-    const response = await api.get(`/api/bookings/${id}/messages`);
+  // Conversations most recently active first; pass a page's nextCursor as `cursor` for the next one
+  getInbox: async (params?: { pageSize?: number; cursor?: string }): Promise<CursorPage<ConversationSummary>> => {
+    const response = await api.get('/api/bookings/inbox', { params });
+    return response.data;
+  },
+
+  // Latest messages by default; pass a page's nextCursor as `before` to load older ones
+  getMessages: async (
+    id: string,
+    params?: { limit?: number; before?: string; after?: string }
+  ): Promise<CursorPage<Message>> => {
+    const response = await api.get(`/api/bookings/${id}/messages`, { params });
     return response.data;
   },
 
@@ -288,6 +422,65 @@ export const bookingApi = {
     const response = await api.post(`/api/bookings/${id}/messages`, { content });
     return response.data;
   },
+
+  // Subscribe to a booking's server-sent events and return a function closing the stream.
+  // Uses fetch rather than EventSource so the bearer token can be sent.
+  streamConversation: (id: string, handlers: ConversationStreamHandlers): (() => void) => {
+    const controller = new AbortController();
+    let connectedBefore = false;
+
+    const dispatch = (frame: string) => {
+      let event = 'message';
+      const data: string[] = [];
+      for (const line of frame.split('\n')) {
+        if (line.startsWith('event:')) event = line.slice(6).trim();
+        else if (line.startsWith('data:')) data.push(line.slice(5).trim());
+      }
+      if (data.length === 0) return; // heartbeat comment
+      const payload = JSON.parse(data.join('\n'));
+      if (event === 'message') handlers.onMessage?.(payload);
+      else if (event === 'read') handlers.onRead?.(payload);
+      else if (event === 'status') handlers.onStatus?.(payload);
+    };
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const token = typeof window !== 'undefined' ? localStorage.getItem('token') : null;
+          const response = await fetch(`${API_BASE_URL}/api/bookings/${id}/stream`, {
+            headers: { Accept: 'text/event-stream', ...(token ? { Authorization: `Bearer ${token}` } : {}) },
+            signal: controller.signal,
+          });
+          if (!response.ok || !response.body) {
+            if (response.status === 401 || response.status === 403 || response.status === 404) return;
+            throw new Error(`Stream failed with status ${response.status}`);
+          }
+          if (connectedBefore) handlers.onReconnect?.();
+          connectedBefore = true;
+
+          const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+          let buffer = '';
+          for (;;) {
+            const { value, done } = await reader.read();
+            if (done) break;
+            buffer += value.replace(/\r\n/g, '\n');
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+              dispatch(buffer.slice(0, boundary));
+              buffer = buffer.slice(boundary + 2);
+            }
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return;
+          console.error('Conversation stream interrupted:', error);
+        }
+        await new Promise((resolve) => setTimeout(resolve, STREAM_RECONNECT_DELAY_MS));
+      }
+    };
+
+    connect();
+    return () => controller.abort();
+  },
 };
 
 export const adminApi = {